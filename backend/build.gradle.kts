@@ -3,14 +3,18 @@ plugins {
     id("org.springframework.boot") version "3.3.4"
     id("io.spring.dependency-management") version "1.1.6"
     id("jacoco")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "app.inv"
 version = "0.0.1-SNAPSHOT"
 
+// 默认 Java 17；虚拟线程模式用 -PjavaVersion=21 构建
+val javaVersion = (findProperty("javaVersion") as String?)?.toInt() ?: 17
+
 java {
     toolchain {
-        languageVersion.set(JavaLanguageVersion.of(17))
+        languageVersion.set(JavaLanguageVersion.of(javaVersion))
     }
 }
 
@@ -24,6 +28,7 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     implementation("io.jsonwebtoken:jjwt-api:0.11.5")
     runtimeOnly("io.jsonwebtoken:jjwt-impl:0.11.5")
     runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.11.5")
@@ -36,7 +41,8 @@ dependencies {
     testCompileOnly("org.projectlombok:lombok:1.18.30")
     testAnnotationProcessor("org.projectlombok:lombok:1.18.30")
 
-    runtimeOnly("org.postgresql:postgresql:42.7.4")
+    // 造数工具直接使用 CopyManager，需在编译期可见
+    implementation("org.postgresql:postgresql:42.7.4")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.security:spring-security-test")
@@ -74,3 +80,20 @@ tasks.named<JacocoReport>("jacocoTestReport") {
         )
     )
 }
+
+// 微基准：./gradlew jmh，可用 -PjmhIncludes=Jwt 只运行名称匹配的基准
+// 结果为JSON（含GC分配率），按版本归档后对比，见 TESTING.md
+jmh {
+    jmhVersion.set("1.37")
+    (findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("2s")
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("ms")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
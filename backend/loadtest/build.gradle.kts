@@ -0,0 +1,31 @@
+plugins {
+    id("java")
+    id("application")
+}
+
+group = "app.inv"
+version = "0.0.1-SNAPSHOT"
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation("org.hdrhistogram:HdrHistogram:2.2.2")
+    implementation("com.fasterxml.jackson.core:jackson-databind:2.17.2")
+}
+
+application {
+    mainClass.set("app.inv.loadtest.LoadTestMain")
+}
+
+// ./gradlew :loadtest:run --args="--base-url=http://localhost:8080 --rate=50 --duration=120s"
+tasks.named<JavaExec>("run") {
+    workingDir = rootProject.projectDir
+}
@@ -0,0 +1,33 @@
+package app.inv.loadtest;
+
+/**
+ * 压测覆盖的接口；name 用于配置项（mix.*、slo.*）与报告
+ */
+public enum Endpoint {
+    LOGIN("login"),
+    ITEM_LIST("item-list"),
+    ITEM_SEARCH("item-search"),
+    TRANSACTION_POST("transaction-post"),
+    REPORT_INVENTORY_VALUE("report-inventory-value"),
+    REPORT_TRENDS("report-trends"),
+    REPORT_DISPOSAL_PROFIT("report-disposal-profit");
+
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("未知端点: " + key);
+    }
+}
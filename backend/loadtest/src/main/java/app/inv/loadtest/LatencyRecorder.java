@@ -0,0 +1,70 @@
+package app.inv.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每个端点一个 HdrHistogram（微秒，3位有效数字），另计错误数、其中服务端准入控制拒绝（503）的请求数，
+ * 以及因在途请求过多而丢弃的请求数
+ */
+public final class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicLong> rejected = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicLong> dropped = new EnumMap<>(Endpoint.class);
+
+    public LatencyRecorder() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(endpoint, new AtomicLong());
+            rejected.put(endpoint, new AtomicLong());
+            dropped.put(endpoint, new AtomicLong());
+        }
+    }
+
+    /**
+     * @param latencyNanos 从计划发送时刻（而非实际发送时刻）算起，避免协调遗漏
+     */
+    public void record(Endpoint endpoint, long latencyNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        histograms.get(endpoint).recordValue(Math.max(micros, 1));
+        if (!success) {
+            errors.get(endpoint).incrementAndGet();
+        }
+    }
+
+    /**
+     * 服务端返回 503 的请求，已通过 {@link #record} 计入错误数
+     */
+    public void recordRejected(Endpoint endpoint) {
+        rejected.get(endpoint).incrementAndGet();
+    }
+
+    public void recordDropped(Endpoint endpoint) {
+        dropped.get(endpoint).incrementAndGet();
+    }
+
+    public Histogram histogram(Endpoint endpoint) {
+        return histograms.get(endpoint);
+    }
+
+    public long errors(Endpoint endpoint) {
+        return errors.get(endpoint).get();
+    }
+
+    public long rejected(Endpoint endpoint) {
+        return rejected.get(endpoint).get();
+    }
+
+    public long dropped(Endpoint endpoint) {
+        return dropped.get(endpoint).get();
+    }
+}
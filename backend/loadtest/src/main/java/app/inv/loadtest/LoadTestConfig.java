@@ -0,0 +1,116 @@
+package app.inv.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 压测配置：内置 loadtest.properties 为默认值，--config=文件 与 --key=value 依次覆盖
+ */
+public final class LoadTestConfig {
+
+    private final Properties properties;
+
+    private LoadTestConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    public static LoadTestConfig fromArgs(String[] args) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            if (defaults != null) {
+                properties.load(new InputStreamReader(defaults, StandardCharsets.UTF_8));
+            }
+        }
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --key=value: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            overrides.setProperty(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        String configFile = overrides.getProperty("config");
+        if (configFile != null) {
+            try (Reader reader = Files.newBufferedReader(Path.of(configFile), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        properties.putAll(overrides);
+        return new LoadTestConfig(properties);
+    }
+
+    public String getString(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("缺少配置项: " + key);
+        }
+        return value.trim();
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(getString(key));
+    }
+
+    public long getLong(String key) {
+        return Long.parseLong(getString(key));
+    }
+
+    public double getDouble(String key) {
+        return Double.parseDouble(getString(key));
+    }
+
+    /**
+     * 支持 ms、s、m 后缀，如 500ms、30s、2m
+     */
+    public Duration getDuration(String key) {
+        String value = getString(key);
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    public List<String> getList(String key) {
+        List<String> values = new ArrayList<>();
+        for (String value : properties.getProperty(key, "").split(",")) {
+            if (!value.isBlank()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    public Double getOptionalDouble(String key) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? null : Double.valueOf(value.trim());
+    }
+
+    /**
+     * 指定前缀下的所有数值项，key 去掉前缀，按名称排序
+     */
+    public Map<String, Double> getWeights(String prefix) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        properties.stringPropertyNames().stream()
+                .filter(name -> name.startsWith(prefix))
+                .sorted()
+                .forEach(name -> weights.put(name.substring(prefix.length()), getDouble(name)));
+        return weights;
+    }
+}
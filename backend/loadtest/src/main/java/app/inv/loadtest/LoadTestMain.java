@@ -0,0 +1,41 @@
+package app.inv.loadtest;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 端到端压测入口。先注册并登录压测用户，再按开放模型施加负载，
+ * 输出各端点的 p50/p99/p999 与吞吐；任一 SLO 不满足时以退出码 1 结束，便于在发布流程中卡住。
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+
+        Workload workload = new Workload(config);
+        workload.prepare(client);
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        OpenModelRunner runner = new OpenModelRunner(client, workload, recorder, config);
+        System.out.printf("Running %.1f req/s for %s after %s warmup against %s%n", config.getDouble("rate"),
+                config.getDuration("duration"), config.getDuration("warmup"), config.getString("base-url"));
+        long measured = runner.run(config.getDuration("request-timeout"));
+        System.out.printf("Measured requests: %d%n", measured);
+
+        LoadTestReport report = new LoadTestReport(recorder, config, config.getDuration("duration"));
+        report.print(System.out);
+        Path reportFile = Path.of(config.getString("report"));
+        report.write(reportFile);
+        System.out.println("Report written to " + reportFile.toAbsolutePath());
+
+        System.exit(report.passed() ? 0 : 1);
+    }
+}
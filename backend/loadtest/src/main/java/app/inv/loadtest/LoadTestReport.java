@@ -0,0 +1,153 @@
+package app.inv.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 汇总各端点的延迟分位数与吞吐，按配置的 SLO 判定是否通过
+ */
+public final class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50.0, 99.0, 99.9};
+    private static final String[] PERCENTILE_KEYS = {"p50", "p99", "p999"};
+
+    private final Map<String, Object> summary = new LinkedHashMap<>();
+    private final List<String> violations = new ArrayList<>();
+
+    public LoadTestReport(LatencyRecorder recorder, LoadTestConfig config, Duration measuredDuration) {
+        double seconds = measuredDuration.toMillis() / 1000.0;
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        long totalRejected = 0;
+        long totalDropped = 0;
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = recorder.histogram(endpoint);
+            long errors = recorder.errors(endpoint);
+            long dropped = recorder.dropped(endpoint);
+            if (histogram.getTotalCount() == 0 && dropped == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += errors;
+            totalRejected += recorder.rejected(endpoint);
+            totalDropped += dropped;
+
+            Map<String, Object> stats = stats(histogram, errors, dropped, seconds);
+            endpoints.put(endpoint.key(), stats);
+            checkLatency(config, endpoint.key(), stats);
+        }
+
+        Map<String, Object> overall = stats(total, totalErrors, totalDropped, seconds);
+        long attempts = total.getTotalCount() + totalDropped;
+        double errorRate = attempts == 0 ? 0 : (double) (totalErrors + totalDropped) / attempts;
+        overall.put("errorRate", round(errorRate));
+        // 准入控制拒绝（503）占已完成请求的比例，用于对比平台线程与虚拟线程模式
+        overall.put("rejected", totalRejected);
+        overall.put("rejectedRate", round(total.getTotalCount() == 0 ? 0 : (double) totalRejected / total.getTotalCount()));
+
+        Double maxErrorRate = config.getOptionalDouble("slo.error-rate");
+        if (maxErrorRate != null && errorRate > maxErrorRate) {
+            violations.add(String.format("error rate %.4f > %.4f", errorRate, maxErrorRate));
+        }
+        Double minThroughput = config.getOptionalDouble("slo.min-throughput");
+        double throughput = (double) overall.get("throughput");
+        if (minThroughput != null && throughput < minThroughput) {
+            violations.add(String.format("throughput %.1f/s < %.1f/s", throughput, minThroughput));
+        }
+
+        summary.put("timestamp", Instant.now().toString());
+        summary.put("baseUrl", config.getString("base-url"));
+        summary.put("rate", config.getDouble("rate"));
+        summary.put("durationSeconds", seconds);
+        summary.put("seed", config.getLong("seed"));
+        summary.put("overall", overall);
+        summary.put("endpoints", endpoints);
+        summary.put("sloViolations", violations);
+        summary.put("passed", violations.isEmpty());
+    }
+
+    public boolean passed() {
+        return violations.isEmpty();
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-24s %9s %9s %8s %10s %10s %10s %10s%n",
+                "endpoint", "count", "errors", "dropped", "req/s", "p50(ms)", "p99(ms)", "p999(ms)");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) summary.get("endpoints");
+        endpoints.forEach((name, stats) -> printRow(out, name, stats));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> overall = (Map<String, Object>) summary.get("overall");
+        printRow(out, "TOTAL", overall);
+        out.printf("503: %d (%.4f)%n", (long) overall.get("rejected"), (double) overall.get("rejectedRate"));
+
+        if (violations.isEmpty()) {
+            out.println("SLO: PASSED");
+        } else {
+            out.println("SLO: FAILED");
+            violations.forEach(violation -> out.println("  - " + violation));
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), summary);
+    }
+
+    private void checkLatency(LoadTestConfig config, String endpoint, Map<String, Object> stats) {
+        for (String key : PERCENTILE_KEYS) {
+            Double threshold = config.getOptionalDouble("slo." + endpoint + "." + key);
+            if (threshold == null) {
+                threshold = config.getOptionalDouble("slo.default." + key);
+            }
+            double actual = (double) stats.get(key + "Ms");
+            if (threshold != null && actual > threshold) {
+                violations.add(String.format("%s %s %.1fms > %.1fms", endpoint, key, actual, threshold));
+            }
+        }
+    }
+
+    private static Map<String, Object> stats(Histogram histogram, long errors, long dropped, double seconds) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", histogram.getTotalCount());
+        stats.put("errors", errors);
+        stats.put("dropped", dropped);
+        stats.put("throughput", round(seconds > 0 ? histogram.getTotalCount() / seconds : 0));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            stats.put(PERCENTILE_KEYS[i] + "Ms", millis(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+        stats.put("maxMs", millis(histogram.getMaxValue()));
+        return stats;
+    }
+
+    private static void printRow(PrintStream out, String name, Map<String, Object> stats) {
+        out.printf("%-24s %9d %9d %8d %10.1f %10.1f %10.1f %10.1f%n", name,
+                (long) stats.get("count"), (long) stats.get("errors"), (long) stats.get("dropped"),
+                (double) stats.get("throughput"), (double) stats.get("p50Ms"),
+                (double) stats.get("p99Ms"), (double) stats.get("p999Ms"));
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,92 @@
+package app.inv.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开放模型负载：请求按泊松过程到达（指数分布间隔），发送时刻不受前一个请求是否返回影响。
+ * 延迟从计划时刻算起；在途请求超过上限时直接记为丢弃，不降低到达率。
+ */
+public final class OpenModelRunner {
+
+    private final HttpClient client;
+    private final Workload workload;
+    private final LatencyRecorder recorder;
+    private final double ratePerSecond;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int maxInFlight;
+    private final Random random;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OpenModelRunner(HttpClient client, Workload workload, LatencyRecorder recorder, LoadTestConfig config) {
+        this.client = client;
+        this.workload = workload;
+        this.recorder = recorder;
+        this.ratePerSecond = config.getDouble("rate");
+        this.warmup = config.getDuration("warmup");
+        this.duration = config.getDuration("duration");
+        this.maxInFlight = config.getInt("max-in-flight");
+        this.random = new Random(config.getLong("seed"));
+    }
+
+    /**
+     * @return 计入统计的请求数
+     */
+    public long run(Duration drainTimeout) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long measured = 0;
+
+        for (long next = start; next < end; next += nextInterval()) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = workload.pick(random);
+            HttpRequest request = workload.request(endpoint, random);
+            boolean measure = next >= measureFrom;
+            if (measure) {
+                measured++;
+            }
+            send(endpoint, request, next, measure);
+        }
+
+        long drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        return measured;
+    }
+
+    private void send(Endpoint endpoint, HttpRequest request, long scheduledAt, boolean measure) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            if (measure) {
+                recorder.recordDropped(endpoint);
+            }
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            if (measure) {
+                boolean success = error == null && response.statusCode() / 100 == 2;
+                recorder.record(endpoint, System.nanoTime() - scheduledAt, success);
+                if (error == null && response.statusCode() == 503) {
+                    recorder.recordRejected(endpoint);
+                }
+            }
+        });
+    }
+
+    private long nextInterval() {
+        return (long) (-Math.log(1.0 - random.nextDouble()) / ratePerSecond * TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,156 @@
+package app.inv.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * 请求组合：按权重抽取端点并构造请求。所有随机选择都来自调用方传入的 Random，
+ * 相同 seed 下请求序列完全相同。
+ */
+public final class Workload {
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final String username;
+    private final String password;
+    private final List<String> searchTerms;
+    private final List<String> itemIds;
+    private final List<String> accountIds;
+    private final Endpoint[] endpoints;
+    private final double[] cumulativeWeights;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String token;
+
+    public Workload(LoadTestConfig config) {
+        this.baseUrl = config.getString("base-url").replaceAll("/+$", "");
+        this.requestTimeout = config.getDuration("request-timeout");
+        this.username = config.getString("username");
+        this.password = config.getString("password");
+        this.searchTerms = config.getList("search-terms");
+        this.itemIds = config.getList("transaction.item-ids");
+        this.accountIds = config.getList("transaction.account-ids");
+
+        Map<Endpoint, Double> weights = new EnumMap<>(Endpoint.class);
+        config.getWeights("mix.").forEach((key, weight) -> weights.put(Endpoint.fromKey(key), weight));
+        this.endpoints = weights.keySet().toArray(new Endpoint[0]);
+        this.cumulativeWeights = new double[endpoints.length];
+        double total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += weights.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("mix.* 权重之和必须大于0");
+        }
+    }
+
+    /**
+     * 注册（已存在时忽略）并登录，取得后续请求使用的令牌
+     */
+    public void prepare(HttpClient client) throws IOException, InterruptedException {
+        String credentials = objectMapper.writeValueAsString(Map.of(
+                "username", username, "password", password, "email", username + "@loadtest.local"));
+        client.send(post("/api/v1/auth/register", credentials, false), HttpResponse.BodyHandlers.discarding());
+
+        HttpResponse<String> login = client.send(loginRequest(), HttpResponse.BodyHandlers.ofString());
+        JsonNode tokenNode = objectMapper.readTree(login.body()).path("data").path("token");
+        if (login.statusCode() != 200 || tokenNode.isMissingNode()) {
+            throw new IllegalStateException("登录失败: HTTP " + login.statusCode() + " " + login.body());
+        }
+        this.token = tokenNode.asText();
+    }
+
+    public Endpoint pick(Random random) {
+        double point = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    public HttpRequest request(Endpoint endpoint, Random random) {
+        return switch (endpoint) {
+            case LOGIN -> loginRequest();
+            case ITEM_LIST -> get("/api/v1/items?size=20&page=" + random.nextInt(5));
+            case ITEM_SEARCH -> get("/api/v1/items/search?limit=20&q="
+                    + URLEncoder.encode(randomElement(searchTerms, random, "a"), StandardCharsets.UTF_8));
+            case TRANSACTION_POST -> post("/api/v1/transactions/batch", transactionBody(random), true);
+            case REPORT_INVENTORY_VALUE -> get("/api/v1/reports/inventory-value");
+            case REPORT_TRENDS -> get("/api/v1/reports/trends?period=month");
+            case REPORT_DISPOSAL_PROFIT -> get("/api/v1/reports/disposal-profit");
+        };
+    }
+
+    private String transactionBody(Random random) {
+        List<Map<String, Object>> rows = new ArrayList<>(1);
+        rows.add(Map.of(
+                "itemId", randomElement(itemIds, random, null),
+                "accountId", randomElement(accountIds, random, null),
+                "type", "IN",
+                "quantity", 1,
+                "unitPrice", 10 + random.nextInt(500),
+                "transactionDate", LocalDate.now().toString(),
+                "reason", "PURCHASE"));
+        try {
+            return objectMapper.writeValueAsString(rows);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest loginRequest() {
+        try {
+            return post("/api/v1/auth/login",
+                    objectMapper.writeValueAsString(Map.of("username", username, "password", password)), false);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path, true).GET().build();
+    }
+
+    private HttpRequest post(String path, String body, boolean authenticated) {
+        return builder(path, authenticated)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder builder(String path, boolean authenticated) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout);
+        if (authenticated && token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * 未配置ID时生成随机UUID（请求会被业务校验拒绝，但仍经过完整的接口路径）
+     */
+    private static String randomElement(List<String> values, Random random, String fallback) {
+        if (values.isEmpty()) {
+            return fallback != null ? fallback : new UUID(random.nextLong(), random.nextLong()).toString();
+        }
+        return values.get(random.nextInt(values.size()));
+    }
+}
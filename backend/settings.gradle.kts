@@ -1,3 +1,7 @@
 rootProject.name = "inventory-tracking-accounting"
 
-
+// 压测工具，见 TESTING.md 的“端到端压测”一节。
+// Docker 镜像构建只复制主工程，目录不存在时不包含该模块
+if (file("loadtest").isDirectory) {
+    include("loadtest")
+}
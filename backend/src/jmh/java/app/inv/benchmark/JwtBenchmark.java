@@ -0,0 +1,56 @@
+package app.inv.benchmark;
+
+import app.inv.entity.User;
+import app.inv.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.UUID;
+
+/**
+ * JWT 签发、完整验签（validateToken）与带缓存的认证（authenticate）
+ */
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        setField(jwtUtil, "secret", "benchmark-secret-key-should-be-long-enough-1234567890");
+        setField(jwtUtil, "expiration", 3600L);
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("benchmark");
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, "benchmark");
+    }
+
+    @Benchmark
+    public Object authenticateCached() {
+        return jwtUtil.authenticate(token);
+    }
+
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,88 @@
+package app.inv.benchmark;
+
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.Item;
+import app.inv.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 控制器直接返回的 Page&lt;Item&gt; / Page&lt;InventoryTransaction&gt; 的 JSON 序列化
+ */
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<Item> itemPage;
+    private Page<InventoryTransaction> transactionPage;
+
+    @Setup
+    public void setUp() {
+        // 与 Spring Boot 默认配置一致（JavaTimeModule 等）
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("benchmark");
+
+        List<Item> items = new ArrayList<>(pageSize);
+        List<InventoryTransaction> transactions = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Item item = new Item();
+            item.setId(UUID.randomUUID());
+            item.setUser(user);
+            item.setName("物品" + i);
+            item.setBrand("品牌" + (i % 10));
+            item.setSize("M");
+            item.setColor("黑色");
+            item.setLocation("衣柜");
+            item.setPurchasePrice(new BigDecimal("199.00"));
+            item.setPurchaseDate(LocalDate.of(2025, 1, 1).plusDays(i));
+            item.setImages("[\"https://example.com/" + i + ".jpg\"]");
+            item.setCreatedAt(LocalDateTime.of(2025, 1, 1, 10, 0).plusMinutes(i));
+            items.add(item);
+
+            InventoryTransaction transaction = new InventoryTransaction();
+            transaction.setId(UUID.randomUUID());
+            transaction.setUser(user);
+            transaction.setItem(item);
+            transaction.setType(InventoryTransaction.TransactionType.IN);
+            transaction.setReason(InventoryTransaction.TransactionReason.PURCHASE);
+            transaction.setQuantity(1);
+            transaction.setUnitPrice(item.getPurchasePrice());
+            transaction.setTotalAmount(item.getPurchasePrice());
+            transaction.setTransactionDate(item.getPurchaseDate());
+            transactions.add(transaction);
+        }
+        itemPage = new PageImpl<>(items, PageRequest.of(0, pageSize), 10_000);
+        transactionPage = new PageImpl<>(transactions, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public byte[] serializeItemPage() throws Exception {
+        return objectMapper.writeValueAsBytes(itemPage);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionPage() throws Exception {
+        return objectMapper.writeValueAsBytes(transactionPage);
+    }
+}
@@ -0,0 +1,30 @@
+package app.inv.benchmark;
+
+import app.inv.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.UUID;
+
+/**
+ * 主键生成开销：版本4随机UUID与版本7时间有序UUID，单线程与多线程（版本7共享单调计数器）。
+ * 插入吞吐与索引大小的对比需要数据库，见 TESTING.md 中的主键插入基准。
+ */
+public class UuidBenchmark {
+
+    @Benchmark
+    public UUID randomV4() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID timeOrderedV7() {
+        return UuidV7.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID timeOrderedV7Contended() {
+        return UuidV7.next();
+    }
+}
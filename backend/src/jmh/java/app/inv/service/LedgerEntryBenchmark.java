@@ -0,0 +1,66 @@
+package app.inv.service;
+
+import app.inv.entity.Account;
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.Item;
+import app.inv.entity.LedgerEntry;
+import app.inv.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 记账时分录的构建（不含持久化），入库、转售、处置三种分支
+ */
+@State(Scope.Benchmark)
+public class LedgerEntryBenchmark {
+
+    @Param({"IN", "SELL", "DISPOSE"})
+    public String scenario;
+
+    private TransactionService transactionService;
+    private User user;
+    private Item item;
+    private Account account;
+    private InventoryTransaction.TransactionType type;
+    private InventoryTransaction.TransactionReason reason;
+    private final BigDecimal amount = new BigDecimal("199.00");
+    private final LocalDate transactionDate = LocalDate.of(2025, 6, 1);
+
+    @Setup
+    public void setUp() {
+        // 只调用纯内存的构建方法，仓库依赖不会被访问
+        transactionService = new TransactionService(null, null, null, null, null, null, null, null, null, null,
+                null, null, new SimpleMeterRegistry());
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        item = new Item();
+        item.setId(UUID.randomUUID());
+        item.setUser(user);
+        account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setUser(user);
+
+        if ("IN".equals(scenario)) {
+            type = InventoryTransaction.TransactionType.IN;
+            reason = InventoryTransaction.TransactionReason.PURCHASE;
+        } else {
+            type = InventoryTransaction.TransactionType.OUT;
+            reason = InventoryTransaction.TransactionReason.valueOf(scenario);
+        }
+    }
+
+    @Benchmark
+    public List<LedgerEntry> buildLedgerEntries() {
+        return transactionService.buildLedgerEntries(user, item, type, amount, transactionDate, account, reason);
+    }
+}
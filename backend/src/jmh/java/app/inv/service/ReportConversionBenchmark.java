@@ -0,0 +1,131 @@
+package app.inv.service;
+
+import app.inv.dto.TrendPeriod;
+import app.inv.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * ReportService 中把查询结果（Object[] 行）转换为报表结构的循环。
+ * 依赖的服务返回固定的行，报表缓存直接透传，测量的只是内存中的转换。
+ */
+@State(Scope.Benchmark)
+public class ReportConversionBenchmark {
+
+    @Param({"10", "1000"})
+    public int rows;
+
+    private ReportService reportService;
+    private User user;
+    private final LocalDate startDate = LocalDate.of(2023, 1, 1);
+    private final LocalDate endDate = LocalDate.of(2025, 12, 31);
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+
+        List<Object[]> categoryRows = new ArrayList<>(rows);
+        List<Object[]> reasonRows = new ArrayList<>(rows);
+        List<Object[]> dailyRows = new ArrayList<>(rows);
+        List<Object[]> categoryIdRows = new ArrayList<>(rows);
+        List<Object[]> treeRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            UUID categoryId = UUID.randomUUID();
+            categoryRows.add(new Object[]{"品类" + i, new BigDecimal("100.00")});
+            reasonRows.add(new Object[]{"REASON_" + i, new BigDecimal("50.00")});
+            dailyRows.add(new Object[]{Date.valueOf(startDate.plusDays(i)), new BigDecimal("20.00"), BigDecimal.TEN});
+            categoryIdRows.add(new Object[]{categoryId, new BigDecimal("100.00"), 3L});
+            // 每 10 个品类挂在同一个父品类下
+            Object parentId = i % 10 == 0 ? null : treeRows.get(i - i % 10)[0];
+            treeRows.add(new Object[]{categoryId, "品类" + i, parentId});
+        }
+        CategoryTree tree = CategoryTree.build(treeRows, 1);
+
+        ItemService itemService = new ItemService(null, null, null, null, null, null) {
+            @Override
+            public Double getTotalValueByUser(User user) {
+                return 100.0 * rows;
+            }
+
+            @Override
+            public List<Object[]> getValueByCategory(User user) {
+                return categoryRows;
+            }
+
+            @Override
+            public List<Object[]> getValueAndCountByCategoryId(User user) {
+                return categoryIdRows;
+            }
+        };
+        TransactionService transactionService = new TransactionService(null, null, null, null, null, null, null,
+                null, null, null, null, null, null) {
+            @Override
+            public List<Object[]> getOutboundAmountByReason(User user, LocalDate startDate, LocalDate endDate) {
+                return reasonRows;
+            }
+
+            @Override
+            public List<Object[]> getAmountSeries(User user, TrendPeriod period, LocalDate startDate,
+                                                  LocalDate endDate) {
+                return dailyRows;
+            }
+        };
+        PeriodCloseService periodCloseService = new PeriodCloseService(null, null, null, null, null, null, null) {
+            @Override
+            public Map<String, BigDecimal> getCategoryBalancesAsOf(User user, LocalDate date) {
+                return Map.of("INVENTORY", BigDecimal.ONE);
+            }
+        };
+        CategoryTreeService categoryTreeService = new CategoryTreeService(null) {
+            @Override
+            public CategoryTree getTree() {
+                return tree;
+            }
+        };
+        ReportCache passThrough = new ReportCache(0, Duration.ZERO, Clock.systemUTC()) {
+            @Override
+            public <T> T get(UUID userId, String report, List<?> params, Supplier<T> loader) {
+                return loader.get();
+            }
+        };
+
+        reportService = new ReportService(itemService, transactionService, null, null, null, periodCloseService,
+                null, null, passThrough, categoryTreeService, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Map<String, Object> inventoryValue() {
+        return reportService.getInventoryValueReport(user, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> categoryValueTree() {
+        return reportService.getCategoryValueTreeReport(user);
+    }
+
+    @Benchmark
+    public Map<String, Object> disposalProfit() {
+        return reportService.getDisposalProfitReport(user, startDate, endDate);
+    }
+
+    @Benchmark
+    public Map<String, Object> dailyTrends() {
+        return reportService.getTrendsReport(user, TrendPeriod.DAY, startDate, endDate);
+    }
+}
@@ -0,0 +1,30 @@
+package app.inv.config;
+
+import app.inv.service.AccountBalanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动参数带 --rebuild-account-balances 时，根据分录重建账户余额表。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountBalanceRebuildRunner implements ApplicationRunner {
+    
+    static final String REBUILD_OPTION = "rebuild-account-balances";
+    
+    private final AccountBalanceService accountBalanceService;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+        int rebuilt = accountBalanceService.rebuildAll();
+        log.info("Rebuilt account balances for {} accounts", rebuilt);
+    }
+}
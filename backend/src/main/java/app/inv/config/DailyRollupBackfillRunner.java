@@ -0,0 +1,30 @@
+package app.inv.config;
+
+import app.inv.service.DailyRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动参数带 --backfill-daily-rollups 时，根据明细重建分录与交易日汇总表。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DailyRollupBackfillRunner implements ApplicationRunner {
+    
+    static final String BACKFILL_OPTION = "backfill-daily-rollups";
+    
+    private final DailyRollupService dailyRollupService;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(BACKFILL_OPTION)) {
+            return;
+        }
+        int rows = dailyRollupService.backfillAll();
+        log.info("Backfilled {} daily rollup rows", rows);
+    }
+}
@@ -0,0 +1,43 @@
+package app.inv.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * app.db-admission.enabled=true 时用 {@link AdmissionControlledDataSource} 包装数据源。
+ * 配合虚拟线程使用：请求线程不再受限，由这里限制同时访问数据库的数量。
+ * 只包装应用使用的主数据源（名为 dataSource 的 Bean：自动配置的连接池，或读写分离时的路由数据源），
+ * 其他 DataSource Bean（如读写分离下的各个连接池）不重复限流。
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db-admission.enabled", havingValue = "true")
+public class DbAdmissionConfig {
+    
+    static final String PRIMARY_DATA_SOURCE = "dataSource";
+    
+    @Bean
+    public static BeanPostProcessor dbAdmissionDataSourcePostProcessor(Environment environment) {
+        int maxConcurrent = environment.getProperty("app.db-admission.max-concurrent", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        int maxQueued = environment.getProperty("app.db-admission.max-queued", Integer.class, 200);
+        Duration acquireTimeout = environment.getProperty("app.db-admission.acquire-timeout", Duration.class,
+                Duration.ofSeconds(2));
+        
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (PRIMARY_DATA_SOURCE.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof AdmissionControlledDataSource)) {
+                    return new AdmissionControlledDataSource(dataSource, maxConcurrent, maxQueued, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package app.inv.config;
+
+import app.inv.dto.ApiResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 准入拒绝返回 503，客户端可按 Retry-After 重试；其他数据库异常保持原有处理
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "app.db-admission.enabled", havingValue = "true")
+public class DbAdmissionExceptionHandler {
+    
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ApiResponse<Void>> handleAdmissionRejected(RuntimeException e) {
+        Throwable rootCause = NestedExceptionUtils.getMostSpecificCause(e);
+        if (!(rootCause instanceof DbAdmissionRejectedException)) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(HttpStatus.SERVICE_UNAVAILABLE.value(), rootCause.getMessage()));
+    }
+}
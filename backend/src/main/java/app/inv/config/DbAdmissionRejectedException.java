@@ -0,0 +1,13 @@
+package app.inv.config;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * 数据库准入队列已满或等待超时
+ */
+public class DbAdmissionRejectedException extends SQLTransientConnectionException {
+    
+    public DbAdmissionRejectedException(String message) {
+        super(message);
+    }
+}
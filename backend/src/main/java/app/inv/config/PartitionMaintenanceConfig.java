@@ -0,0 +1,14 @@
+package app.inv.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 开启定时任务，用于提前创建交易表与分录表的月分区，见 PartitionMaintenanceService
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.partitions.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceConfig {
+}
@@ -0,0 +1,51 @@
+package app.inv.config;
+
+import app.inv.service.PostingEngineBenchmark;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 在 benchmark profile 下且启动参数带 --benchmark-posting 时，在当前数据库上比较 JPA 与数据库函数两种记账方式的吞吐，用法见 TESTING.md。
+ * 基准使用临时创建的用户，结束后连同其数据删除，不影响业务数据。
+ */
+@Slf4j
+@Component
+@Profile("benchmark")
+public class PostingEngineBenchmarkRunner implements ApplicationRunner {
+
+    static final String BENCHMARK_OPTION = "benchmark-posting";
+
+    private final PostingEngineBenchmark benchmark;
+    private final int transactions;
+    private final int threads;
+
+    public PostingEngineBenchmarkRunner(PostingEngineBenchmark benchmark,
+                                        @Value("${app.posting-benchmark.transactions:20000}") int transactions,
+                                        @Value("${app.posting-benchmark.threads:4}") int threads) {
+        this.benchmark = benchmark;
+        this.transactions = transactions;
+        this.threads = threads;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(BENCHMARK_OPTION)) {
+            return;
+        }
+        List<PostingEngineBenchmark.Result> results = benchmark.run(transactions, threads);
+        StringBuilder table = new StringBuilder(String.format("%n%-10s %12s %10s %10s %10s %14s %8s%n",
+                "engine", "transactions", "tx/s", "p50 ms", "p99 ms", "statements/tx", "failed"));
+        for (PostingEngineBenchmark.Result result : results) {
+            table.append(String.format("%-10s %12d %10.0f %10.2f %10.2f %14.1f %8d%n", result.engine(),
+                    result.transactions(), result.transactionsPerSecond(), result.p50Millis(), result.p99Millis(),
+                    result.statementsPerTransaction(), result.failures()));
+        }
+        log.info("Posting engine benchmark ({} threads):{}", threads, table);
+    }
+}
@@ -0,0 +1,48 @@
+package app.inv.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL条数统计（app.query-budget.enabled=true 时开启，默认关闭，只在 local 与测试配置中开启）：
+ * 数据源外包一层 {@link QueryCountingDataSource}，每个请求由 {@link QueryBudgetFilter} 开启统计作用域。
+ * 每条SQL都要计算特征并计数，生产环境不开启。
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query-budget.enabled", havingValue = "true")
+public class QueryBudgetConfig {
+    
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // 只包装主数据源：读写分离下的各个连接池经由它访问，再包装一层会重复计数
+                if (DbAdmissionConfig.PRIMARY_DATA_SOURCE.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(
+            @Value("${app.query-budget.max-queries:20}") int maxQueries,
+            @Value("${app.query-budget.n-plus-one-threshold:5}") int nPlusOneThreshold,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryBudgetFilter> registration =
+                new FilterRegistrationBean<>(new QueryBudgetFilter(maxQueries, nPlusOneThreshold, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
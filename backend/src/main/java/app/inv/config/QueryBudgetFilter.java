@@ -0,0 +1,66 @@
+package app.inv.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 统计每个请求执行的SQL条数：超过 maxQueries 时记录告警，同一条SQL重复执行达到
+ * nPlusOneThreshold 次时按疑似 N+1 记录。条数按路由模板记录到 http.server.requests.queries。
+ */
+@Slf4j
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+    
+    private final int maxQueries;
+    private final int nPlusOneThreshold;
+    private final MeterRegistry meterRegistry;
+    
+    public QueryBudgetFilter(int maxQueries, int nPlusOneThreshold, MeterRegistry meterRegistry) {
+        this.maxQueries = maxQueries;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.Scope scope = QueryCounter.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scope.close();
+            report(request, scope);
+        }
+    }
+    
+    private void report(HttpServletRequest request, QueryCounter.Scope scope) {
+        // 使用路由模板而不是实际路径，避免路径参数造成高基数
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        meterRegistry.summary("http.server.requests.queries", "method", request.getMethod(), "uri", uri)
+                .record(scope.getCount());
+        
+        if (scope.getCount() > maxQueries) {
+            log.warn("{} {} executed {} SQL statements (budget {})",
+                    request.getMethod(), request.getRequestURI(), scope.getCount(), maxQueries);
+        }
+        for (Map.Entry<String, Integer> repeated : scope.getRepeatedStatements(nPlusOneThreshold)) {
+            log.warn("Possible N+1 in {} {}: statement executed {} times: {}",
+                    request.getMethod(), request.getRequestURI(), repeated.getValue(), abbreviate(repeated.getKey()));
+        }
+    }
+    
+    private static String abbreviate(String sql) {
+        return sql.length() > MAX_LOGGED_SQL_LENGTH ? sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "..." : sql;
+    }
+}
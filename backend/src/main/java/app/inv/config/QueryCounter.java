@@ -0,0 +1,80 @@
+package app.inv.config;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按线程统计执行的SQL条数。作用域可以嵌套（如测试扩展套在请求过滤器外），
+ * 每条语句计入当前线程上所有打开的作用域；没有打开作用域时不统计。
+ */
+public final class QueryCounter {
+    
+    // 每个作用域最多记录的不同SQL数，超出后只计总数
+    private static final int MAX_DISTINCT_STATEMENTS = 200;
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+    
+    private QueryCounter() {
+    }
+    
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+    
+    static void record(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.record(sql);
+        }
+    }
+    
+    public static final class Scope implements AutoCloseable {
+        
+        private final Scope parent;
+        private final Map<String, Integer> statements = new HashMap<>();
+        private int count;
+        
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+        
+        private void record(String sql) {
+            count++;
+            if (sql != null && (statements.size() < MAX_DISTINCT_STATEMENTS || statements.containsKey(sql))) {
+                statements.merge(sql, 1, Integer::sum);
+            }
+        }
+        
+        public int getCount() {
+            return count;
+        }
+        
+        /**
+         * 同一条SQL执行次数达到 threshold 的语句，按次数降序；通常是逐行懒加载（N+1）的特征
+         */
+        public List<Map.Entry<String, Integer>> getRepeatedStatements(int threshold) {
+            List<Map.Entry<String, Integer>> repeated = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : statements.entrySet()) {
+                if (entry.getValue() >= threshold) {
+                    repeated.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+            repeated.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+            return repeated;
+        }
+        
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package app.inv.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * 统计语句执行次数的数据源包装：每次 execute/executeQuery/executeUpdate/executeBatch 计一条，
+ * 计入 {@link QueryCounter} 当前打开的作用域。JPA 与 JdbcTemplate 的语句都经过这里。
+ */
+public class QueryCountingDataSource extends DelegatingDataSource implements Closeable {
+    
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+    
+    /**
+     * 包装后容器推断的销毁方法落在包装类上，转给被包装的连接池关闭
+     */
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countStatements(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countStatements(super.getConnection(username, password));
+    }
+    
+    private static Connection countStatements(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (method.getName()) {
+                        case "prepareStatement" -> countExecutions(result, PreparedStatement.class, (String) args[0]);
+                        case "prepareCall" -> countExecutions(result, CallableStatement.class, (String) args[0]);
+                        case "createStatement" -> countExecutions(result, Statement.class, null);
+                        default -> result;
+                    };
+                });
+    }
+    
+    private static Object countExecutions(Object statement, Class<?> type, String preparedSql) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                // 普通 Statement 的SQL在执行时传入
+                String sql = preparedSql != null ? preparedSql
+                        : (args != null && args.length > 0 && args[0] instanceof String text ? text : null);
+                QueryCounter.record(sql);
+            }
+            return invoke(statement, method, args);
+        });
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package app.inv.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+/**
+ * app.datasource.replica.enabled=true 时启用读写分离：主库沿用 spring.datasource.*，
+ * 从库使用 app.datasource.replica.*（连接池参数在 hikari 子项下）。
+ * 两个连接池注册为独立的 Bean，由容器在关闭时关闭（路由数据源可能被其他 BeanPostProcessor 包装，
+ * 不能依赖它的销毁方法）；应用注入的是 @Primary 的路由数据源，Flyway、JPA 与准入控制都作用在它上面。
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        return primary;
+    }
+    
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl(environment.getRequiredProperty("app.datasource.replica.url"));
+        replica.setUsername(environment.getProperty("app.datasource.replica.username", properties.getUsername()));
+        replica.setPassword(environment.getProperty("app.datasource.replica.password", properties.getPassword()));
+        Binder.get(environment).bind("app.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+    
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                                 @Qualifier("replicaDataSource") HikariDataSource replica) {
+        return new ReadWriteRoutingDataSource(primary, replica);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
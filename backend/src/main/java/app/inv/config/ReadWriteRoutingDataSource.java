@@ -0,0 +1,72 @@
+package app.inv.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 读写分离数据源：只读事务走从库，其余（写事务、无事务）走主库。
+ * 外层是 {@link LazyConnectionDataSourceProxy}，物理连接推迟到第一条语句执行时才获取，
+ * 此时事务的只读标记已经设置，路由才能生效。
+ *
+ * <p>读己之写：请求内一旦使用过主库连接，该请求后续的只读事务也固定走主库，
+ * 避免刚写入的数据因复制延迟在从库上读不到。作用域由 {@link ReadYourWritesFilter} 开启和清理，
+ * 请求之外（定时任务等）不做固定。
+ *
+ * <p>两个连接池由容器作为独立的 Bean 管理和关闭，这里不负责关闭。
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy {
+    
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+    
+    private static final ThreadLocal<RequestScope> SCOPE = new ThreadLocal<>();
+    
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return currentRoute();
+            }
+        };
+        router.setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.setLenientFallback(false);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+    }
+    
+    static Route currentRoute() {
+        RequestScope scope = SCOPE.get();
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readOnly && (scope == null || !scope.pinnedToPrimary)) {
+            return Route.REPLICA;
+        }
+        if (scope != null) {
+            scope.pinnedToPrimary = true;
+        }
+        return Route.PRIMARY;
+    }
+    
+    /**
+     * 开启当前线程的请求作用域；pinToPrimary 为 true 时整个请求都走主库
+     */
+    static void openScope(boolean pinToPrimary) {
+        RequestScope scope = new RequestScope();
+        scope.pinnedToPrimary = pinToPrimary;
+        SCOPE.set(scope);
+    }
+    
+    static void closeScope() {
+        SCOPE.remove();
+    }
+    
+    private static final class RequestScope {
+        private boolean pinnedToPrimary;
+    }
+}
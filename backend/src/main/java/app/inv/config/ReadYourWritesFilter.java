@@ -0,0 +1,29 @@
+package app.inv.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 为每个请求开启读己之写作用域。客户端刚完成写操作、下一次读取需要立即看到结果时，
+ * 可带上 {@code X-Read-Primary: true} 让整个请求走主库。
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    public static final String READ_PRIMARY_HEADER = "X-Read-Primary";
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadWriteRoutingDataSource.openScope(Boolean.parseBoolean(request.getHeader(READ_PRIMARY_HEADER)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.closeScope();
+        }
+    }
+}
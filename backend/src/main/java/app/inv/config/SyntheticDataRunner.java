@@ -0,0 +1,55 @@
+package app.inv.config;
+
+import app.inv.service.SyntheticDataGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 启动参数带 --generate-data 时，按 app.datagen.* 批量造数，用法见 TESTING.md。
+ * 一般配合 datagen profile 使用（不启动 Web 服务，导入完成后进程退出）。
+ */
+@Slf4j
+@Component
+public class SyntheticDataRunner implements ApplicationRunner {
+    
+    static final String GENERATE_OPTION = "generate-data";
+    
+    private final SyntheticDataGenerator generator;
+    private final SyntheticDataGenerator.Options options;
+    
+    public SyntheticDataRunner(SyntheticDataGenerator generator,
+                               @Value("${app.datagen.users:100}") int users,
+                               @Value("${app.datagen.items-per-user:1000}") int itemsPerUser,
+                               @Value("${app.datagen.out-ratio:0.3}") double outRatio,
+                               @Value("${app.datagen.adjust-ratio:0.05}") double adjustRatio,
+                               @Value("${app.datagen.history-days:1095}") int historyDays,
+                               @Value("${app.datagen.end-date:}") String endDate,
+                               @Value("${app.datagen.seed:42}") long seed,
+                               @Value("${app.datagen.username-prefix:datagen}") String usernamePrefix,
+                               @Value("${app.datagen.password:datagen-password}") String password,
+                               @Value("${app.datagen.parallelism:4}") int parallelism,
+                               @Value("${app.datagen.loadtest-config:}") String loadtestConfig) {
+        this.generator = generator;
+        this.options = new SyntheticDataGenerator.Options(users, itemsPerUser, outRatio, adjustRatio, historyDays,
+                endDate.isEmpty() ? LocalDate.now() : LocalDate.parse(endDate), seed, usernamePrefix, password,
+                parallelism, loadtestConfig.isEmpty() ? null : Path.of(loadtestConfig));
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(GENERATE_OPTION)) {
+            return;
+        }
+        long started = System.nanoTime();
+        Map<String, Long> rows = generator.generate(options);
+        long total = rows.values().stream().mapToLong(Long::longValue).sum();
+        log.info("Generated {} rows {} in {} s", total, rows, (System.nanoTime() - started) / 1_000_000_000);
+    }
+}
@@ -0,0 +1,51 @@
+package app.inv.config;
+
+import app.inv.service.UuidInsertBenchmark;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 在 benchmark profile 下且启动参数带 --benchmark-uuid-inserts 时，在当前数据库上比较版本4与版本7 UUID 主键的插入性能，用法见 TESTING.md。
+ * 基准使用独立的临时表，结束后删除，不影响业务数据。
+ */
+@Slf4j
+@Component
+@Profile("benchmark")
+public class UuidInsertBenchmarkRunner implements ApplicationRunner {
+
+    static final String BENCHMARK_OPTION = "benchmark-uuid-inserts";
+
+    private final UuidInsertBenchmark benchmark;
+    private final long rows;
+    private final int batchSize;
+
+    public UuidInsertBenchmarkRunner(UuidInsertBenchmark benchmark,
+                                     @Value("${app.uuid-benchmark.rows:2000000}") long rows,
+                                     @Value("${app.uuid-benchmark.batch-size:500}") int batchSize) {
+        this.benchmark = benchmark;
+        this.rows = rows;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(BENCHMARK_OPTION)) {
+            return;
+        }
+        List<UuidInsertBenchmark.Result> results = benchmark.run(rows, batchSize);
+        StringBuilder table = new StringBuilder(String.format("%n%-8s %12s %12s %12s %10s %10s %10s%n",
+                "variant", "rows", "rows/s", "tail rows/s", "pkey MB", "table MB", "WAL MB"));
+        for (UuidInsertBenchmark.Result result : results) {
+            table.append(String.format("%-8s %12d %12.0f %12.0f %10.1f %10.1f %10.1f%n", result.variant(),
+                    result.rows(), result.rowsPerSecond(), result.tailRowsPerSecond(),
+                    result.indexBytes() / 1048576.0, result.tableBytes() / 1048576.0, result.walBytes() / 1048576.0));
+        }
+        log.info("UUID primary key insert benchmark ({} rows per variant, batch size {}):{}", rows, batchSize, table);
+    }
+}
@@ -0,0 +1,27 @@
+package app.inv.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * spring.threads.virtual.enabled=true 时校验运行时版本。
+ * Spring Boot 在 Java 21 以下会忽略该配置、静默退回平台线程，而数据库准入控制按虚拟线程模式调参，
+ * 因此这里直接启动失败，避免以为开启了虚拟线程实际却没有。
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    static final int MIN_JAVA_VERSION = 21;
+
+    public VirtualThreadsConfig() {
+        requireVirtualThreadSupport(Runtime.version().feature());
+    }
+
+    static void requireVirtualThreadSupport(int javaVersion) {
+        if (javaVersion < MIN_JAVA_VERSION) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true 需要 Java " + MIN_JAVA_VERSION
+                    + " 及以上，当前运行时为 Java " + javaVersion + "；请使用 -PjavaVersion=21 构建并在 Java 21 上运行");
+        }
+    }
+}
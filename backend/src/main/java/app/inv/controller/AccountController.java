@@ -3,6 +3,7 @@ package app.inv.controller;
 import app.inv.dto.ApiResponse;
 import app.inv.entity.Account;
 import app.inv.entity.User;
+import app.inv.security.CurrentUser;
 import app.inv.service.AccountService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,11 +21,7 @@ public class AccountController {
     private final AccountService accountService;
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Account>>> getAccounts() {
-        // TODO: 从JWT Token中获取当前用户
-        User currentUser = new User();
-        currentUser.setId(UUID.randomUUID());
-        
+    public ResponseEntity<ApiResponse<List<Account>>> getAccounts(@CurrentUser User currentUser) {
         List<Account> accounts = accountService.getAccountsByUser(currentUser);
         
         return ResponseEntity.ok(ApiResponse.success(accounts));
@@ -39,12 +36,9 @@ public class AccountController {
     }
     
     @PostMapping
-    public ResponseEntity<ApiResponse<Account>> createAccount(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<ApiResponse<Account>> createAccount(@RequestBody Map<String, Object> request,
+                                                              @CurrentUser User currentUser) {
         try {
-            // TODO: 从JWT Token中获取当前用户
-            User currentUser = new User();
-            currentUser.setId(UUID.randomUUID());
-            
             String name = (String) request.get("name");
             String typeStr = (String) request.get("type");
             Account.AccountType type = Account.AccountType.valueOf(typeStr);
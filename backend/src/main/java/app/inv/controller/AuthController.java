@@ -5,6 +5,7 @@ import app.inv.dto.LoginRequest;
 import app.inv.dto.RegisterRequest;
 import app.inv.entity.User;
 import app.inv.service.AuthService;
+import app.inv.util.JwtUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +21,7 @@ import java.util.Optional;
 public class AuthController {
     
     private final AuthService authService;
+    private final JwtUtil jwtUtil;
     
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<Map<String, Object>>> register(@Valid @RequestBody RegisterRequest request) {
@@ -51,7 +53,7 @@ public class AuthController {
             userData.put("id", user.getId());
             userData.put("username", user.getUsername());
             userData.put("email", user.getEmail());
-            userData.put("token", "jwt_token_placeholder"); // TODO: 实现JWT Token生成
+            userData.put("token", jwtUtil.generateToken(user));
             
             return ResponseEntity.ok(ApiResponse.success("登录成功", userData));
         } catch (Exception e) {
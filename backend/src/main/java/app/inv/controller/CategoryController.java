@@ -0,0 +1,24 @@
+package app.inv.controller;
+
+import app.inv.dto.ApiResponse;
+import app.inv.service.CategoryTree;
+import app.inv.service.CategoryTreeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/categories")
+@RequiredArgsConstructor
+public class CategoryController {
+    
+    private final CategoryTreeService categoryTreeService;
+    
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<CategoryTree.Node>>> getCategoryTree() {
+        // 直接返回内存快照，无需逐层查询
+        return ResponseEntity.ok(ApiResponse.success(categoryTreeService.getTree().getRoots()));
+    }
+}
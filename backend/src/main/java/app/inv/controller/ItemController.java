@@ -1,10 +1,14 @@
 package app.inv.controller;
 
 import app.inv.dto.ApiResponse;
+import app.inv.dto.CursorPage;
 import app.inv.dto.ItemRequest;
+import app.inv.dto.Suggestion;
 import app.inv.entity.Item;
 import app.inv.entity.User;
+import app.inv.security.CurrentUser;
 import app.inv.service.ItemService;
+import app.inv.service.TypeaheadService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -25,6 +29,7 @@ import java.util.UUID;
 public class ItemController {
     
     private final ItemService itemService;
+    private final TypeaheadService typeaheadService;
     
     @GetMapping
     public ResponseEntity<ApiResponse<Page<Item>>> getItems(
@@ -34,21 +39,62 @@ public class ItemController {
             @RequestParam(defaultValue = "desc") String direction,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) UUID categoryId,
-            @RequestParam(required = false) Item.ItemStatus status) {
-        
-        // TODO: 从JWT Token中获取当前用户
-        User currentUser = new User();
-        currentUser.setId(UUID.randomUUID());
+            @RequestParam(defaultValue = "false") boolean includeSubcategories,
+            @RequestParam(required = false) Item.ItemStatus status,
+            @CurrentUser User currentUser) {
         
         Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? 
                 Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
         
-        Page<Item> items = itemService.getItemsByUserWithFilters(currentUser, search, categoryId, status, pageable);
+        Page<Item> items = itemService.getItemsByUserWithFilters(currentUser, search, categoryId,
+                includeSubcategories, status, pageable);
         
         return ResponseEntity.ok(ApiResponse.success(items));
     }
     
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<Item>>> scrollItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean estimateTotal,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(defaultValue = "false") boolean includeSubcategories,
+            @RequestParam(required = false) Item.ItemStatus status,
+            @CurrentUser User currentUser) {
+        
+        try {
+            CursorPage<Item> items = itemService.scrollItemsByUserWithFilters(
+                    currentUser, search, categoryId, includeSubcategories, status, cursor, size, estimateTotal);
+            return ResponseEntity.ok(ApiResponse.success(items));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<Item>>> searchItems(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            @CurrentUser User currentUser) {
+        
+        List<Item> items = itemService.searchItems(currentUser, q, limit);
+        
+        return ResponseEntity.ok(ApiResponse.success(items));
+    }
+    
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<Suggestion>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @CurrentUser User currentUser) {
+        
+        List<Suggestion> suggestions = typeaheadService.suggest(currentUser.getId(), q, Math.max(1, Math.min(limit, 50)));
+        
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Item>> getItem(@PathVariable UUID id) {
         // TODO: 从JWT Token中获取当前用户并验证权限
@@ -59,12 +105,9 @@ public class ItemController {
     }
     
     @PostMapping
-    public ResponseEntity<ApiResponse<Item>> createItem(@Valid @RequestBody ItemRequest request) {
+    public ResponseEntity<ApiResponse<Item>> createItem(@Valid @RequestBody ItemRequest request,
+                                                        @CurrentUser User currentUser) {
         try {
-            // TODO: 从JWT Token中获取当前用户
-            User currentUser = new User();
-            currentUser.setId(UUID.randomUUID());
-            
             Item item = itemService.createItem(
                     currentUser,
                     request.getName(),
@@ -116,11 +159,7 @@ public class ItemController {
     }
     
     @GetMapping("/stats")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getItemStats() {
-        // TODO: 从JWT Token中获取当前用户
-        User currentUser = new User();
-        currentUser.setId(UUID.randomUUID());
-        
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getItemStats(@CurrentUser User currentUser) {
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalValue", itemService.getTotalValueByUser(currentUser));
         stats.put("categoryValues", itemService.getValueByCategory(currentUser));
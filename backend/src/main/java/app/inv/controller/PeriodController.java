@@ -0,0 +1,56 @@
+package app.inv.controller;
+
+import app.inv.dto.ApiResponse;
+import app.inv.dto.ClosePeriodRequest;
+import app.inv.entity.AccountingPeriod;
+import app.inv.entity.User;
+import app.inv.security.CurrentUser;
+import app.inv.service.PeriodCloseService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/periods")
+@RequiredArgsConstructor
+public class PeriodController {
+    
+    private final PeriodCloseService periodCloseService;
+    
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getClosedPeriods(@CurrentUser User currentUser) {
+        List<Map<String, Object>> periods = periodCloseService.getClosedPeriods(currentUser).stream()
+                .map(this::toPeriodData)
+                .toList();
+        
+        return ResponseEntity.ok(ApiResponse.success(periods));
+    }
+    
+    @PostMapping("/close")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> closePeriod(@Valid @RequestBody ClosePeriodRequest request,
+                                                                    @CurrentUser User currentUser) {
+        try {
+            YearMonth month = YearMonth.parse(request.getMonth());
+            AccountingPeriod period = periodCloseService.closeMonth(currentUser, month);
+            
+            return ResponseEntity.ok(ApiResponse.success("结账成功", toPeriodData(period)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    private Map<String, Object> toPeriodData(AccountingPeriod period) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", period.getId());
+        data.put("periodStart", period.getPeriodStart());
+        data.put("periodEnd", period.getPeriodEnd());
+        data.put("closedAt", period.getClosedAt());
+        return data;
+    }
+}
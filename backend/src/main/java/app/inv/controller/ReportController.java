@@ -1,18 +1,29 @@
 package app.inv.controller;
 
 import app.inv.dto.ApiResponse;
+import app.inv.dto.CursorPage;
+import app.inv.dto.ExportFormat;
+import app.inv.dto.TrendPeriod;
+import app.inv.entity.LedgerEntry;
 import app.inv.entity.User;
+import app.inv.security.CurrentUser;
+import app.inv.service.ExportService;
+import app.inv.service.LedgerOutboxService;
 import app.inv.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -21,16 +32,26 @@ import java.util.UUID;
 public class ReportController {
     
     private final ReportService reportService;
+    private final ExportService exportService;
+    private final LedgerOutboxService ledgerOutboxService;
+    
+    // 异步记账模式下 waitForPosted 等待超时，返回的数据可能不含最新交易的分录
+    private static final String PENDING_POSTING_MESSAGE = "仍有交易正在记账，数据可能不是最新";
     
     @GetMapping("/inventory-value")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getInventoryValueReport(
-            @RequestParam(required = false) String groupBy) {
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) UUID categoryId,
+            @CurrentUser User currentUser) {
         
-        // TODO: 从JWT Token中获取当前用户
-        User currentUser = new User();
-        currentUser.setId(UUID.randomUUID());
+        Map<String, Object> report = reportService.getInventoryValueReport(currentUser, categoryId);
         
-        Map<String, Object> report = reportService.getInventoryValueReport(currentUser);
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+    
+    @GetMapping("/inventory-value/tree")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCategoryValueTreeReport(@CurrentUser User currentUser) {
+        Map<String, Object> report = reportService.getCategoryValueTreeReport(currentUser);
         
         return ResponseEntity.ok(ApiResponse.success(report));
     }
@@ -38,11 +59,8 @@ public class ReportController {
     @GetMapping("/disposal-profit")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getDisposalProfitReport(
             @RequestParam(required = false) LocalDate startDate,
-            @RequestParam(required = false) LocalDate endDate) {
-        
-        // TODO: 从JWT Token中获取当前用户
-        User currentUser = new User();
-        currentUser.setId(UUID.randomUUID());
+            @RequestParam(required = false) LocalDate endDate,
+            @CurrentUser User currentUser) {
         
         if (startDate == null) {
             startDate = LocalDate.now().minusMonths(1);
@@ -60,11 +78,8 @@ public class ReportController {
     public ResponseEntity<ApiResponse<Map<String, Object>>> getTrendsReport(
             @RequestParam(required = false) String period,
             @RequestParam(required = false) LocalDate startDate,
-            @RequestParam(required = false) LocalDate endDate) {
-        
-        // TODO: 从JWT Token中获取当前用户
-        User currentUser = new User();
-        currentUser.setId(UUID.randomUUID());
+            @RequestParam(required = false) LocalDate endDate,
+            @CurrentUser User currentUser) {
         
         if (startDate == null) {
             startDate = LocalDate.now().minusMonths(6);
@@ -73,9 +88,28 @@ public class ReportController {
             endDate = LocalDate.now();
         }
         
-        Map<String, Object> report = reportService.getTrendsReport(currentUser, startDate, endDate);
+        try {
+            Map<String, Object> report = reportService.getTrendsReport(
+                    currentUser, TrendPeriod.from(period), startDate, endDate);
+            return ResponseEntity.ok(ApiResponse.success(report));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/accounts/{accountId}/balance")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAccountBalance(
+            @PathVariable UUID accountId,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean waitForPosted,
+            @CurrentUser User currentUser) {
+        
+        boolean posted = !waitForPosted || ledgerOutboxService.awaitPosted(currentUser.getId());
+        Map<String, Object> balance = reportService.getAccountBalance(currentUser, accountId, startDate, endDate);
         
-        return ResponseEntity.ok(ApiResponse.success(report));
+        return ResponseEntity.ok(posted ? ApiResponse.success(balance)
+                : ApiResponse.success(PENDING_POSTING_MESSAGE, balance));
     }
     
     @GetMapping("/ledger")
@@ -84,11 +118,8 @@ public class ReportController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) UUID accountId,
             @RequestParam(required = false) LocalDate startDate,
-            @RequestParam(required = false) LocalDate endDate) {
-        
-        // TODO: 从JWT Token中获取当前用户
-        User currentUser = new User();
-        currentUser.setId(UUID.randomUUID());
+            @RequestParam(required = false) LocalDate endDate,
+            @CurrentUser User currentUser) {
         
         Pageable pageable = PageRequest.of(page, size);
         
@@ -100,4 +131,72 @@ public class ReportController {
         
         return ResponseEntity.ok(ApiResponse.success(result));
     }
+    
+    @GetMapping("/ledger/scroll")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> scrollLedgerEntries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean estimateTotal,
+            @RequestParam(required = false) UUID accountId,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean waitForPosted,
+            @CurrentUser User currentUser) {
+        
+        try {
+            boolean posted = !waitForPosted || ledgerOutboxService.awaitPosted(currentUser.getId());
+            CursorPage<LedgerEntry> entries = reportService.scrollLedgerEntries(
+                    currentUser, accountId, startDate, endDate, cursor, size, estimateTotal);
+            
+            List<Map<String, Object>> content = new ArrayList<>(entries.getContent().size());
+            for (LedgerEntry entry : entries.getContent()) {
+                content.add(toLedgerData(entry));
+            }
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("content", content);
+            result.put("nextCursor", entries.getNextCursor());
+            result.put("hasNext", entries.isHasNext());
+            result.put("estimatedTotal", entries.getEstimatedTotal());
+            
+            return ResponseEntity.ok(posted ? ApiResponse.success(result)
+                    : ApiResponse.success(PENDING_POSTING_MESSAGE, result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/ledger/export")
+    public ResponseEntity<StreamingResponseBody> exportLedgerEntries(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) UUID accountId,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @CurrentUser User currentUser) {
+        
+        // 边查边写，不在内存中组装结果
+        StreamingResponseBody body = out -> exportService.exportLedger(
+                currentUser, accountId, startDate, endDate, format, gzip, out);
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + format.fileName("ledger", gzip) + "\"")
+                .contentType(MediaType.parseMediaType(format.contentType(gzip)))
+                .body(body);
+    }
+    
+    // 只读取关联的ID，避免在事务外触发懒加载
+    private Map<String, Object> toLedgerData(LedgerEntry entry) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", entry.getId());
+        data.put("transactionDate", entry.getTransactionDate());
+        data.put("amount", entry.getAmount());
+        data.put("direction", entry.getDirection());
+        data.put("accountId", entry.getAccount() != null ? entry.getAccount().getId() : null);
+        data.put("itemId", entry.getItem() != null ? entry.getItem().getId() : null);
+        data.put("categoryCode", entry.getCategoryCode());
+        data.put("note", entry.getNote());
+        return data;
+    }
 }
@@ -1,17 +1,34 @@
 package app.inv.controller;
 
 import app.inv.dto.ApiResponse;
+import app.inv.dto.CursorPage;
+import app.inv.dto.ExportFormat;
+import app.inv.dto.TransactionBatchResult;
+import app.inv.dto.TransactionRequest;
 import app.inv.entity.InventoryTransaction;
+import app.inv.entity.TransactionJournalRejection;
 import app.inv.entity.User;
+import app.inv.security.CurrentUser;
+import app.inv.service.ExportService;
+import app.inv.service.TransactionBatchService;
+import app.inv.service.TransactionJournalService;
 import app.inv.service.TransactionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +42,10 @@ import java.util.UUID;
 public class TransactionController {
     
     private final TransactionService transactionService;
+    private final TransactionBatchService transactionBatchService;
+    private final ExportService exportService;
+    // 仅在 app.transaction-journal.enabled=true 时存在
+    private final ObjectProvider<TransactionJournalService> transactionJournalService;
     
     @GetMapping
     public ResponseEntity<ApiResponse<Page<InventoryTransaction>>> getTransactions(
@@ -35,11 +56,8 @@ public class TransactionController {
             @RequestParam(required = false) InventoryTransaction.TransactionType type,
             @RequestParam(required = false) UUID itemId,
             @RequestParam(required = false) LocalDate startDate,
-            @RequestParam(required = false) LocalDate endDate) {
-        
-        // TODO: 从JWT Token中获取当前用户
-        User currentUser = new User();
-        currentUser.setId(UUID.randomUUID());
+            @RequestParam(required = false) LocalDate endDate,
+            @CurrentUser User currentUser) {
         
         Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? 
                 Sort.Direction.DESC : Sort.Direction.ASC;
@@ -51,6 +69,109 @@ public class TransactionController {
         return ResponseEntity.ok(ApiResponse.success(transactions));
     }
     
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<InventoryTransaction>>> scrollTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean estimateTotal,
+            @RequestParam(required = false) InventoryTransaction.TransactionType type,
+            @RequestParam(required = false) UUID itemId,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @CurrentUser User currentUser) {
+        
+        try {
+            CursorPage<InventoryTransaction> transactions = transactionService.scrollTransactionsByUserWithFilters(
+                    currentUser, type, itemId, startDate, endDate, cursor, size, estimateTotal);
+            return ResponseEntity.ok(ApiResponse.success(transactions));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) InventoryTransaction.TransactionType type,
+            @RequestParam(required = false) UUID itemId,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @CurrentUser User currentUser) {
+        
+        // 边查边写，不在内存中组装结果
+        StreamingResponseBody body = out -> exportService.exportTransactions(
+                currentUser, type, itemId, startDate, endDate, format, gzip, out);
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + format.fileName("transactions", gzip) + "\"")
+                .contentType(MediaType.parseMediaType(format.contentType(gzip)))
+                .body(body);
+    }
+    
+    @PostMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> createTransaction(
+            @Valid @RequestBody TransactionRequest request,
+            @CurrentUser User currentUser) {
+        try {
+            Map<String, Object> data = new HashMap<>();
+            TransactionJournalService journal = transactionJournalService.getIfAvailable();
+            if (journal != null) {
+                // 日志模式：写入本地交易日志并刷盘即返回，交易稍后由后台线程入库
+                data.put("journalOffset", journal.accept(currentUser, request));
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("交易已受理", data));
+            }
+            
+            TransactionBatchResult result = transactionService.createTransactionBatch(
+                    currentUser, List.of(request)).get(0);
+            if (!result.isSuccess()) {
+                return ResponseEntity.badRequest().body(ApiResponse.error(result.getMessage()));
+            }
+            data.put("transactionId", result.getTransactionId());
+            return ResponseEntity.ok(ApiResponse.success("交易创建成功", data));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * 日志模式下受理后在入库时被拒绝的交易；journalOffset 为受理时返回的值，为空时返回最近的记录
+     */
+    @GetMapping("/journal/rejections")
+    public ResponseEntity<ApiResponse<List<TransactionJournalRejection>>> getJournalRejections(
+            @RequestParam(required = false) Long journalOffset,
+            @RequestParam(defaultValue = "20") int size,
+            @CurrentUser User currentUser) {
+        
+        TransactionJournalService journal = transactionJournalService.getIfAvailable();
+        if (journal == null) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("未开启交易日志受理"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(journal.getRejections(currentUser, journalOffset, size)));
+    }
+    
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<Map<String, Object>>> createTransactionsBatch(HttpServletRequest request,
+                                                                                @CurrentUser User currentUser) {
+        try {
+            // 直接读取请求流，避免将整个数组绑定为List后再处理
+            List<TransactionBatchResult> results = transactionBatchService.importTransactions(
+                    currentUser, request.getInputStream());
+            long succeeded = results.stream().filter(TransactionBatchResult::isSuccess).count();
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("total", results.size());
+            data.put("succeeded", succeeded);
+            data.put("failed", results.size() - succeeded);
+            data.put("results", results);
+            
+            return ResponseEntity.ok(ApiResponse.success("批量导入完成", data));
+        } catch (IOException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("请求体格式错误: " + e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<InventoryTransaction>> getTransaction(@PathVariable UUID id) {
         // TODO: 实现获取单个交易详情
@@ -60,11 +181,8 @@ public class TransactionController {
     @GetMapping("/stats")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getTransactionStats(
             @RequestParam(required = false) LocalDate startDate,
-            @RequestParam(required = false) LocalDate endDate) {
-        
-        // TODO: 从JWT Token中获取当前用户
-        User currentUser = new User();
-        currentUser.setId(UUID.randomUUID());
+            @RequestParam(required = false) LocalDate endDate,
+            @CurrentUser User currentUser) {
         
         if (startDate == null) {
             startDate = LocalDate.now().minusMonths(1);
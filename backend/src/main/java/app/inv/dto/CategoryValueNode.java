@@ -0,0 +1,27 @@
+package app.inv.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 品类价值树节点：value/itemCount 为含子孙品类的合计，ownValue/ownItemCount 为直接挂在该品类下的部分
+ */
+@Data
+public class CategoryValueNode {
+    private UUID categoryId;
+    private String name;
+    private BigDecimal value = BigDecimal.ZERO;
+    private long itemCount;
+    private BigDecimal ownValue = BigDecimal.ZERO;
+    private long ownItemCount;
+    private List<CategoryValueNode> children = new ArrayList<>();
+
+    public CategoryValueNode(UUID categoryId, String name) {
+        this.categoryId = categoryId;
+        this.name = name;
+    }
+}
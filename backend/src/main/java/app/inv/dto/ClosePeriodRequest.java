@@ -0,0 +1,13 @@
+package app.inv.dto;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+@Data
+public class ClosePeriodRequest {
+    @NotNull(message = "结账月份不能为空")
+    @Pattern(regexp = "\\d{4}-(0[1-9]|1[0-2])", message = "结账月份格式应为yyyy-MM")
+    private String month;
+}
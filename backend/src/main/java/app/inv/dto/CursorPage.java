@@ -0,0 +1,26 @@
+package app.inv.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    // 单页条数上限，超出时按上限返回
+    public static final int MAX_SIZE = 100;
+    
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    // 基于执行计划统计信息的估算总数，仅在请求时返回
+    private Long estimatedTotal;
+    
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+}
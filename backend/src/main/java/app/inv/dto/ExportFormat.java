@@ -0,0 +1,22 @@
+package app.inv.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+    
+    private final String contentType;
+    private final String extension;
+    
+    public String contentType(boolean gzip) {
+        return gzip ? "application/gzip" : contentType + "; charset=UTF-8";
+    }
+    
+    public String fileName(String baseName, boolean gzip) {
+        return baseName + "." + extension + (gzip ? ".gz" : "");
+    }
+}
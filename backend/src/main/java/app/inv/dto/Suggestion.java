@@ -0,0 +1,17 @@
+package app.inv.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class Suggestion {
+    private String text;
+    private Type type;
+    // 使用该词的物品数（品类为1）
+    private int count;
+
+    public enum Type {
+        ITEM, BRAND, CATEGORY
+    }
+}
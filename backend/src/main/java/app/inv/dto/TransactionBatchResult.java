@@ -0,0 +1,25 @@
+package app.inv.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchResult {
+    private int index;
+    private boolean success;
+    private UUID transactionId;
+    private String message;
+    
+    public static TransactionBatchResult success(int index, UUID transactionId) {
+        return new TransactionBatchResult(index, true, transactionId, null);
+    }
+    
+    public static TransactionBatchResult failure(int index, String message) {
+        return new TransactionBatchResult(index, false, null, message);
+    }
+}
@@ -0,0 +1,39 @@
+package app.inv.dto;
+
+import app.inv.entity.InventoryTransaction;
+import lombok.Data;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+public class TransactionRequest {
+    @NotNull(message = "物品ID不能为空")
+    private UUID itemId;
+    
+    @NotNull(message = "账户ID不能为空")
+    private UUID accountId;
+    
+    @NotNull(message = "交易类型不能为空")
+    private InventoryTransaction.TransactionType type;
+    
+    @NotNull(message = "数量不能为空")
+    @Min(value = 1, message = "数量必须大于0")
+    private Integer quantity = 1;
+    
+    @NotNull(message = "单价不能为空")
+    @DecimalMin(value = "0.0", message = "单价不能为负数")
+    private BigDecimal unitPrice;
+    
+    @NotNull(message = "交易日期不能为空")
+    private LocalDate transactionDate;
+    
+    private InventoryTransaction.TransactionReason reason;
+    
+    private String notes;
+}
@@ -0,0 +1,70 @@
+package app.inv.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * 趋势报表的时间粒度，与 PostgreSQL date_trunc 的单位一一对应
+ */
+public enum TrendPeriod {
+    DAY,
+    WEEK,
+    MONTH,
+    QUARTER;
+    
+    public static TrendPeriod from(String value) {
+        if (value == null || value.isBlank()) {
+            return MONTH;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的统计周期: " + value);
+        }
+    }
+    
+    public String sqlUnit() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * 与 date_trunc 一致：周从周一开始，季度从1/4/7/10月开始
+     */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+        };
+    }
+    
+    public LocalDate next(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+            case QUARTER -> bucketStart.plusMonths(3);
+        };
+    }
+    
+    /**
+     * [startDate, endDate] 覆盖的桶数，结束早于开始时为 0
+     */
+    public long bucketCount(LocalDate startDate, LocalDate endDate) {
+        LocalDate first = truncate(startDate);
+        LocalDate last = truncate(endDate);
+        if (last.isBefore(first)) {
+            return 0;
+        }
+        return switch (this) {
+            case DAY -> ChronoUnit.DAYS.between(first, last) + 1;
+            case WEEK -> ChronoUnit.WEEKS.between(first, last) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(first, last) + 1;
+            case QUARTER -> ChronoUnit.MONTHS.between(first, last) / 3 + 1;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package app.inv.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class TrendPoint {
+    private LocalDate periodStart;
+    private BigDecimal inboundAmount;
+    private BigDecimal outboundAmount;
+    private BigDecimal netAmount;
+}
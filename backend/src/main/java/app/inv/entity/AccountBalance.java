@@ -0,0 +1,34 @@
+package app.inv.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "account_balances")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class AccountBalance {
+    
+    @Id
+    @Column(name = "account_id")
+    private UUID accountId;
+    
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+    
+    @Column(name = "debit_total", nullable = false, precision = 18, scale = 2)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+    
+    @Column(name = "credit_total", nullable = false, precision = 18, scale = 2)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -12,6 +12,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "categories")
+@EntityListeners(CategoryChangeListener.class)
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class Category {
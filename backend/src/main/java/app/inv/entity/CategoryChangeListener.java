@@ -0,0 +1,31 @@
+package app.inv.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.UUID;
+
+/**
+ * 品类增删改时发布事件，通知品类树快照失效。
+ * 由 Hibernate 通过 Spring 的 BeanContainer 实例化，因此可以注入依赖。
+ */
+public class CategoryChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public CategoryChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Category category) {
+        eventPublisher.publishEvent(new CategoriesChangedEvent(category.getId()));
+    }
+    
+    public record CategoriesChangedEvent(UUID categoryId) {
+    }
+}
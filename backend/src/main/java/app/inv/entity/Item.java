@@ -1,5 +1,6 @@
 package app.inv.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -22,7 +23,7 @@ import java.util.UUID;
 public class Item {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedUuidV7
     private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -73,6 +74,11 @@ public class Item {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt; // 软删除
     
+    // 数据库生成列（名称、品牌、颜色、位置的小写拼接），仅用于搜索
+    @JsonIgnore
+    @Column(name = "search_text", columnDefinition = "text", insertable = false, updatable = false)
+    private String searchText;
+    
     // 关联关系
     @OneToMany(mappedBy = "item", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<InventoryTransaction> transactions = new ArrayList<>();
@@ -0,0 +1,26 @@
+package app.inv.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "ledger_daily_rollups")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class LedgerDailyRollup {
+    
+    @EmbeddedId
+    private LedgerDailyRollupId id;
+    
+    @Column(name = "debit_total", nullable = false, precision = 18, scale = 2)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+    
+    @Column(name = "credit_total", nullable = false, precision = 18, scale = 2)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+    
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount = 0L;
+}
@@ -0,0 +1,31 @@
+package app.inv.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerDailyRollupId implements Serializable {
+    
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+    
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+    
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+    
+    // 分录category_code为空时记为空字符串，保证主键非空
+    @Column(name = "category_code", nullable = false, length = 50)
+    private String categoryCode;
+}
@@ -17,7 +17,7 @@ import java.util.UUID;
 public class LedgerEntry {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedUuidV7
     private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
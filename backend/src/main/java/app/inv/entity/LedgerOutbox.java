@@ -0,0 +1,46 @@
+package app.inv.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "ledger_outbox")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class LedgerOutbox {
+    
+    // 序列按50预分配，批量写入时仍可合并为JDBC批量语句
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_outbox_id_seq")
+    @SequenceGenerator(name = "ledger_outbox_id_seq", sequenceName = "ledger_outbox_id_seq", allocationSize = 50)
+    private Long id;
+    
+    // 交易表按月分区后主键为 (id, transaction_date)，数据库中不再有指向交易表的外键
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private InventoryTransaction transaction;
+    
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+    
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+    
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+    
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
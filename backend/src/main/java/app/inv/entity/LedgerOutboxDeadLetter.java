@@ -0,0 +1,47 @@
+package app.inv.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "ledger_outbox_dead_letters")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class LedgerOutboxDeadLetter {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "transaction_id", nullable = false, unique = true)
+    private UUID transactionId;
+    
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+    
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+    
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+    
+    // 原发件箱记录的创建时间
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @CreationTimestamp
+    @Column(name = "dead_lettered_at")
+    private LocalDateTime deadLetteredAt;
+}
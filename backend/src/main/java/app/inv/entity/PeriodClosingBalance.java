@@ -0,0 +1,36 @@
+package app.inv.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Entity
+@Table(name = "period_closing_balances")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class PeriodClosingBalance {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "period_id", nullable = false)
+    private AccountingPeriod period;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+    
+    @Column(name = "category_code", nullable = false, length = 50)
+    private String categoryCode;
+    
+    @Column(name = "debit_total", nullable = false, precision = 18, scale = 2)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+    
+    @Column(name = "credit_total", nullable = false, precision = 18, scale = 2)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+}
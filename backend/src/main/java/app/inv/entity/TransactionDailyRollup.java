@@ -0,0 +1,26 @@
+package app.inv.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "transaction_daily_rollups")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class TransactionDailyRollup {
+    
+    @EmbeddedId
+    private TransactionDailyRollupId id;
+    
+    @Column(name = "total_amount", nullable = false, precision = 18, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "quantity_total", nullable = false)
+    private Long quantityTotal = 0L;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount = 0L;
+}
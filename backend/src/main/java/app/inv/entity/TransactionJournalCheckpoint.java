@@ -0,0 +1,27 @@
+package app.inv.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "transaction_journal_checkpoints")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class TransactionJournalCheckpoint {
+
+    // 每个实例的日志目录对应一个名称
+    @Id
+    @Column(name = "journal_name", length = 100)
+    private String journalName;
+
+    @Column(name = "applied_offset", nullable = false)
+    private long appliedOffset;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
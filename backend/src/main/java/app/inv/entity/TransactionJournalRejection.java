@@ -0,0 +1,41 @@
+package app.inv.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "transaction_journal_rejections")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class TransactionJournalRejection {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "journal_name", nullable = false, length = 100)
+    private String journalName;
+    
+    // 与受理接口返回的 journalOffset 相同
+    @Column(name = "journal_offset", nullable = false)
+    private long journalOffset;
+    
+    // 记录无法解析时为空
+    @Column(name = "user_id")
+    private UUID userId;
+    
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+    
+    @Column(nullable = false, columnDefinition = "text")
+    private String reason;
+    
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
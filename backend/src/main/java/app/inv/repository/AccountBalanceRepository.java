@@ -0,0 +1,51 @@
+package app.inv.repository;
+
+import app.inv.entity.AccountBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, UUID> {
+    
+    Optional<AccountBalance> findByAccountIdAndUserId(UUID accountId, UUID userId);
+    
+    // 原子累加：冲突时UPDATE持有该账户行锁，并发记账按行串行化，不会丢失更新
+    @Modifying
+    @Query(value = "INSERT INTO account_balances (account_id, user_id, debit_total, credit_total, updated_at) " +
+                   "VALUES (:accountId, :userId, :debit, :credit, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (account_id) DO UPDATE SET " +
+                   "debit_total = account_balances.debit_total + EXCLUDED.debit_total, " +
+                   "credit_total = account_balances.credit_total + EXCLUDED.credit_total, " +
+                   "updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int applyDelta(@Param("accountId") UUID accountId,
+                   @Param("userId") UUID userId,
+                   @Param("debit") BigDecimal debit,
+                   @Param("credit") BigDecimal credit);
+    
+    // 重建期间阻塞并发的增量写入，读取不受影响
+    @Modifying
+    @Query(value = "LOCK TABLE account_balances IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+    
+    @Modifying
+    @Query(value = "DELETE FROM account_balances", nativeQuery = true)
+    int deleteAllBalances();
+    
+    @Modifying
+    @Query(value = "INSERT INTO account_balances (account_id, user_id, debit_total, credit_total, updated_at) " +
+                   "SELECT account_id, user_id, " +
+                   "COALESCE(SUM(CASE WHEN direction = 'DEBIT' THEN amount END), 0), " +
+                   "COALESCE(SUM(CASE WHEN direction = 'CREDIT' THEN amount END), 0), " +
+                   "CURRENT_TIMESTAMP " +
+                   "FROM ledger_entries GROUP BY account_id, user_id",
+           nativeQuery = true)
+    int rebuildFromLedger();
+}
@@ -0,0 +1,21 @@
+package app.inv.repository;
+
+import app.inv.entity.AccountingPeriod;
+import app.inv.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AccountingPeriodRepository extends JpaRepository<AccountingPeriod, UUID> {
+    
+    List<AccountingPeriod> findByUserOrderByPeriodEndDesc(User user);
+    
+    Optional<AccountingPeriod> findTopByUserOrderByPeriodEndDesc(User user);
+    
+    Optional<AccountingPeriod> findTopByUserAndPeriodEndLessThanEqualOrderByPeriodEndDesc(User user, LocalDate date);
+}
@@ -24,4 +24,8 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
     
     @Query("SELECT c FROM Category c WHERE c.parent.id = :parentId")
     List<Category> findByParentId(@Param("parentId") UUID parentId);
+    
+    // 品类树快照：一次取出全部 (id, name, parentId)
+    @Query("SELECT c.id, c.name, p.id FROM Category c LEFT JOIN c.parent p")
+    List<Object[]> findTreeRows();
 }
@@ -4,6 +4,7 @@ import app.inv.entity.InventoryTransaction;
 import app.inv.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,11 +19,11 @@ public interface InventoryTransactionRepository extends JpaRepository<InventoryT
     
     Page<InventoryTransaction> findByUserOrderByTransactionDateDesc(User user, Pageable pageable);
     
+    // 日期上下界总是存在（未指定时由 DateBounds 填入极值），以便裁剪分区
     @Query("SELECT t FROM InventoryTransaction t WHERE t.user = :user " +
            "AND (:type IS NULL OR t.type = :type) " +
            "AND (:itemId IS NULL OR t.item.id = :itemId) " +
-           "AND (:startDate IS NULL OR t.transactionDate >= :startDate) " +
-           "AND (:endDate IS NULL OR t.transactionDate <= :endDate)")
+           "AND t.transactionDate BETWEEN :startDate AND :endDate")
     Page<InventoryTransaction> findByUserWithFilters(@Param("user") User user,
                                                    @Param("type") InventoryTransaction.TransactionType type,
                                                    @Param("itemId") UUID itemId,
@@ -30,6 +31,23 @@ public interface InventoryTransactionRepository extends JpaRepository<InventoryT
                                                    @Param("endDate") LocalDate endDate,
                                                    Pageable pageable);
     
+    // 游标分页：按 (transactionDate DESC, id DESC) 定位，不执行COUNT
+    @Query("SELECT t FROM InventoryTransaction t WHERE t.user = :user " +
+           "AND (:type IS NULL OR t.type = :type) " +
+           "AND (:itemId IS NULL OR t.item.id = :itemId) " +
+           "AND t.transactionDate BETWEEN :startDate AND :endDate " +
+           "AND (:afterDate IS NULL OR t.transactionDate < :afterDate " +
+           "OR (t.transactionDate = :afterDate AND t.id < :afterId)) " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    Slice<InventoryTransaction> scrollByUserWithFilters(@Param("user") User user,
+                                                        @Param("type") InventoryTransaction.TransactionType type,
+                                                        @Param("itemId") UUID itemId,
+                                                        @Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate,
+                                                        @Param("afterDate") LocalDate afterDate,
+                                                        @Param("afterId") UUID afterId,
+                                                        Pageable pageable);
+    
     List<InventoryTransaction> findByUserAndTypeAndTransactionDateBetween(
             User user, InventoryTransaction.TransactionType type, LocalDate startDate, LocalDate endDate);
     
@@ -4,12 +4,15 @@ import app.inv.entity.Item;
 import app.inv.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,17 +21,75 @@ public interface ItemRepository extends JpaRepository<Item, UUID> {
     
     Page<Item> findByUserAndDeletedAtIsNull(User user, Pageable pageable);
     
+    // 不按品类过滤与按品类过滤各用一条查询：IN 列表不能为空，也不必为“不过滤”传入占位值
     @Query("SELECT i FROM Item i WHERE i.user = :user AND i.deletedAt IS NULL " +
-           "AND (:search IS NULL OR LOWER(i.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
-           "OR LOWER(i.brand) LIKE LOWER(CONCAT('%', :search, '%'))) " +
-           "AND (:categoryId IS NULL OR i.category.id = :categoryId) " +
+           "AND (:search IS NULL OR i.searchText LIKE LOWER(CONCAT('%', :search, '%'))) " +
            "AND (:status IS NULL OR i.status = :status)")
     Page<Item> findByUserWithFilters(@Param("user") User user,
                                     @Param("search") String search,
-                                    @Param("categoryId") UUID categoryId,
                                     @Param("status") Item.ItemStatus status,
                                     Pageable pageable);
     
+    @Query("SELECT i FROM Item i WHERE i.user = :user AND i.deletedAt IS NULL " +
+           "AND (:search IS NULL OR i.searchText LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "AND i.category.id IN :categoryIds " +
+           "AND (:status IS NULL OR i.status = :status)")
+    Page<Item> findByUserAndCategoriesWithFilters(@Param("user") User user,
+                                                 @Param("search") String search,
+                                                 @Param("categoryIds") Collection<UUID> categoryIds,
+                                                 @Param("status") Item.ItemStatus status,
+                                                 Pageable pageable);
+    
+    // 游标分页：按 (createdAt DESC, id DESC) 定位，不执行COUNT。
+    // createdAtUpper 为游标时间（无游标时为极值），使翻页条件成为 (user_id, created_at, id) 索引上的范围扫描
+    @Query("SELECT i FROM Item i WHERE i.user = :user AND i.deletedAt IS NULL " +
+           "AND (:search IS NULL OR i.searchText LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "AND (:status IS NULL OR i.status = :status) " +
+           "AND i.createdAt <= :createdAtUpper " +
+           "AND (:afterCreatedAt IS NULL OR i.createdAt < :afterCreatedAt " +
+           "OR (i.createdAt = :afterCreatedAt AND i.id < :afterId)) " +
+           "ORDER BY i.createdAt DESC, i.id DESC")
+    Slice<Item> scrollByUserWithFilters(@Param("user") User user,
+                                        @Param("search") String search,
+                                        @Param("status") Item.ItemStatus status,
+                                        @Param("createdAtUpper") LocalDateTime createdAtUpper,
+                                        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                        @Param("afterId") UUID afterId,
+                                        Pageable pageable);
+    
+    @Query("SELECT i FROM Item i WHERE i.user = :user AND i.deletedAt IS NULL " +
+           "AND (:search IS NULL OR i.searchText LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "AND i.category.id IN :categoryIds " +
+           "AND (:status IS NULL OR i.status = :status) " +
+           "AND i.createdAt <= :createdAtUpper " +
+           "AND (:afterCreatedAt IS NULL OR i.createdAt < :afterCreatedAt " +
+           "OR (i.createdAt = :afterCreatedAt AND i.id < :afterId)) " +
+           "ORDER BY i.createdAt DESC, i.id DESC")
+    Slice<Item> scrollByUserAndCategoriesWithFilters(@Param("user") User user,
+                                                     @Param("search") String search,
+                                                     @Param("categoryIds") Collection<UUID> categoryIds,
+                                                     @Param("status") Item.ItemStatus status,
+                                                     @Param("createdAtUpper") LocalDateTime createdAtUpper,
+                                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                     @Param("afterId") UUID afterId,
+                                                     Pageable pageable);
+    
+    // 相关度排序的搜索：子串匹配或单词近似匹配，均由 (user_id, search_text) 的 trigram 索引支持
+    @Query(value = "SELECT i.* FROM items i " +
+                   "WHERE i.user_id = :userId AND i.deleted_at IS NULL " +
+                   "AND (i.search_text LIKE :pattern OR :query <% i.search_text) " +
+                   "ORDER BY word_similarity(:query, i.search_text) DESC, i.created_at DESC, i.id DESC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Item> searchByUser(@Param("userId") UUID userId,
+                            @Param("query") String query,
+                            @Param("pattern") String pattern,
+                            @Param("limit") int limit);
+    
+    // 联想索引加载：只取名称与品牌
+    @Query("SELECT i.name, i.brand FROM Item i WHERE i.user.id = :userId AND i.deletedAt IS NULL")
+    List<Object[]> findSuggestTermsByUserId(@Param("userId") UUID userId);
+    
     List<Item> findByUserAndStatusAndDeletedAtIsNull(User user, Item.ItemStatus status);
     
     @Query("SELECT i FROM Item i WHERE i.user = :user AND i.deletedAt IS NULL " +
@@ -41,8 +102,19 @@ public interface ItemRepository extends JpaRepository<Item, UUID> {
            "AND i.status = 'ACTIVE' AND i.deletedAt IS NULL")
     Double getTotalValueByUser(@Param("user") User user);
     
+    @Query("SELECT SUM(i.purchasePrice) FROM Item i WHERE i.user = :user " +
+           "AND i.status = 'ACTIVE' AND i.deletedAt IS NULL AND i.category.id IN :categoryIds")
+    Double getTotalValueByUserAndCategoryIds(@Param("user") User user,
+                                             @Param("categoryIds") Collection<UUID> categoryIds);
+    
     @Query("SELECT i.category.name, SUM(i.purchasePrice) FROM Item i " +
            "WHERE i.user = :user AND i.status = 'ACTIVE' AND i.deletedAt IS NULL " +
            "GROUP BY i.category.name")
     List<Object[]> getValueByCategory(@Param("user") User user);
+    
+    // LEFT JOIN 保留未分类物品（品类ID为NULL的一组）
+    @Query("SELECT c.id, SUM(i.purchasePrice), COUNT(i) FROM Item i LEFT JOIN i.category c " +
+           "WHERE i.user = :user AND i.status = 'ACTIVE' AND i.deletedAt IS NULL " +
+           "GROUP BY c.id")
+    List<Object[]> getValueAndCountByCategoryId(@Param("user") User user);
 }
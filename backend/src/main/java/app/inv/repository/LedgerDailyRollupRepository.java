@@ -0,0 +1,89 @@
+package app.inv.repository;
+
+import app.inv.entity.LedgerDailyRollup;
+import app.inv.entity.LedgerDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LedgerDailyRollupRepository extends JpaRepository<LedgerDailyRollup, LedgerDailyRollupId> {
+    
+    @Query("SELECT r.id.categoryCode, SUM(r.debitTotal + r.creditTotal) FROM LedgerDailyRollup r " +
+           "WHERE r.id.userId = :userId AND r.id.rollupDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.id.categoryCode")
+    List<Object[]> getAmountByCategoryAndDateRange(@Param("userId") UUID userId,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT r.id.accountId, r.id.categoryCode, SUM(r.debitTotal), SUM(r.creditTotal) " +
+           "FROM LedgerDailyRollup r WHERE r.id.userId = :userId " +
+           "AND (:afterDate IS NULL OR r.id.rollupDate > :afterDate) " +
+           "AND r.id.rollupDate <= :endDate " +
+           "GROUP BY r.id.accountId, r.id.categoryCode")
+    List<Object[]> getAccountCategoryTotals(@Param("userId") UUID userId,
+                                           @Param("afterDate") LocalDate afterDate,
+                                           @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT SUM(r.debitTotal), SUM(r.creditTotal) FROM LedgerDailyRollup r " +
+           "WHERE r.id.userId = :userId AND r.id.accountId = :accountId " +
+           "AND (:afterDate IS NULL OR r.id.rollupDate > :afterDate) " +
+           "AND r.id.rollupDate <= :endDate")
+    List<Object[]> getAccountTotals(@Param("userId") UUID userId,
+                                   @Param("accountId") UUID accountId,
+                                   @Param("afterDate") LocalDate afterDate,
+                                   @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT r.id.categoryCode, SUM(r.debitTotal - r.creditTotal) FROM LedgerDailyRollup r " +
+           "WHERE r.id.userId = :userId " +
+           "AND (:afterDate IS NULL OR r.id.rollupDate > :afterDate) " +
+           "AND r.id.rollupDate <= :endDate " +
+           "GROUP BY r.id.categoryCode")
+    List<Object[]> getCategoryBalances(@Param("userId") UUID userId,
+                                      @Param("afterDate") LocalDate afterDate,
+                                      @Param("endDate") LocalDate endDate);
+    
+    @Modifying
+    @Query(value = "INSERT INTO ledger_daily_rollups (user_id, rollup_date, account_id, category_code, " +
+                   "debit_total, credit_total, entry_count) " +
+                   "VALUES (:userId, :rollupDate, :accountId, :categoryCode, :debit, :credit, :entryCount) " +
+                   "ON CONFLICT (user_id, rollup_date, account_id, category_code) DO UPDATE SET " +
+                   "debit_total = ledger_daily_rollups.debit_total + EXCLUDED.debit_total, " +
+                   "credit_total = ledger_daily_rollups.credit_total + EXCLUDED.credit_total, " +
+                   "entry_count = ledger_daily_rollups.entry_count + EXCLUDED.entry_count",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") UUID userId,
+                   @Param("rollupDate") LocalDate rollupDate,
+                   @Param("accountId") UUID accountId,
+                   @Param("categoryCode") String categoryCode,
+                   @Param("debit") BigDecimal debit,
+                   @Param("credit") BigDecimal credit,
+                   @Param("entryCount") long entryCount);
+    
+    @Modifying
+    @Query(value = "LOCK TABLE ledger_daily_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForBackfill();
+    
+    @Modifying
+    @Query(value = "DELETE FROM ledger_daily_rollups", nativeQuery = true)
+    int deleteAllRollups();
+    
+    @Modifying
+    @Query(value = "INSERT INTO ledger_daily_rollups (user_id, rollup_date, account_id, category_code, " +
+                   "debit_total, credit_total, entry_count) " +
+                   "SELECT user_id, transaction_date, account_id, COALESCE(category_code, ''), " +
+                   "COALESCE(SUM(CASE WHEN direction = 'DEBIT' THEN amount END), 0), " +
+                   "COALESCE(SUM(CASE WHEN direction = 'CREDIT' THEN amount END), 0), " +
+                   "COUNT(*) " +
+                   "FROM ledger_entries " +
+                   "GROUP BY user_id, transaction_date, account_id, COALESCE(category_code, '')",
+           nativeQuery = true)
+    int backfillFromLedger();
+}
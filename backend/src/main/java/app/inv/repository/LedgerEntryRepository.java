@@ -4,6 +4,7 @@ import app.inv.entity.LedgerEntry;
 import app.inv.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,16 +19,31 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, UUID>
     
     Page<LedgerEntry> findByUserOrderByTransactionDateDesc(User user, Pageable pageable);
     
+    // 日期上下界总是存在（未指定时由 DateBounds 填入极值），以便裁剪分区
     @Query("SELECT l FROM LedgerEntry l WHERE l.user = :user " +
            "AND (:accountId IS NULL OR l.account.id = :accountId) " +
-           "AND (:startDate IS NULL OR l.transactionDate >= :startDate) " +
-           "AND (:endDate IS NULL OR l.transactionDate <= :endDate)")
+           "AND l.transactionDate BETWEEN :startDate AND :endDate")
     Page<LedgerEntry> findByUserWithFilters(@Param("user") User user,
                                            @Param("accountId") UUID accountId,
                                            @Param("startDate") LocalDate startDate,
                                            @Param("endDate") LocalDate endDate,
                                            Pageable pageable);
     
+    // 游标分页：按 (transactionDate DESC, id DESC) 定位，不执行COUNT
+    @Query("SELECT l FROM LedgerEntry l WHERE l.user = :user " +
+           "AND (:accountId IS NULL OR l.account.id = :accountId) " +
+           "AND l.transactionDate BETWEEN :startDate AND :endDate " +
+           "AND (:afterDate IS NULL OR l.transactionDate < :afterDate " +
+           "OR (l.transactionDate = :afterDate AND l.id < :afterId)) " +
+           "ORDER BY l.transactionDate DESC, l.id DESC")
+    Slice<LedgerEntry> scrollByUserWithFilters(@Param("user") User user,
+                                               @Param("accountId") UUID accountId,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate,
+                                               @Param("afterDate") LocalDate afterDate,
+                                               @Param("afterId") UUID afterId,
+                                               Pageable pageable);
+    
     @Query("SELECT l.direction, SUM(l.amount) FROM LedgerEntry l " +
            "WHERE l.user = :user AND l.account.id = :accountId " +
            "AND l.transactionDate BETWEEN :startDate AND :endDate " +
@@ -0,0 +1,14 @@
+package app.inv.repository;
+
+import app.inv.entity.LedgerOutboxDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Repository
+public interface LedgerOutboxDeadLetterRepository extends JpaRepository<LedgerOutboxDeadLetter, Long> {
+    
+    long countByUserIdAndTransactionDateLessThanEqual(UUID userId, LocalDate date);
+}
@@ -0,0 +1,45 @@
+package app.inv.repository;
+
+import app.inv.entity.LedgerOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LedgerOutboxRepository extends JpaRepository<LedgerOutbox, Long> {
+    
+    // 认领一批到期记录：已被其他记账线程锁定的行直接跳过，多个线程、多个实例互不阻塞
+    @Query(value = "SELECT * FROM ledger_outbox WHERE next_attempt_at <= CURRENT_TIMESTAMP " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<LedgerOutbox> claimBatch(@Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM ledger_outbox WHERE id = :id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<LedgerOutbox> claimById(@Param("id") Long id);
+    
+    @Query("SELECT MAX(o.id) FROM LedgerOutbox o WHERE o.userId = :userId")
+    Long findMaxIdByUserId(@Param("userId") UUID userId);
+    
+    boolean existsByUserIdAndIdLessThanEqual(UUID userId, Long id);
+    
+    @Query("SELECT COUNT(o) > 0 FROM LedgerOutbox o WHERE o.userId = :userId " +
+           "AND o.transaction.transactionDate <= :date")
+    boolean existsPendingByUserIdThrough(@Param("userId") UUID userId, @Param("date") LocalDate date);
+    
+    // 发件箱正常情况下只有少量积压，直接聚合
+    @Query("SELECT MIN(o.createdAt) FROM LedgerOutbox o")
+    LocalDateTime findOldestCreatedAt();
+    
+    @Modifying
+    @Query("UPDATE LedgerOutbox o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :nextAttemptAt, " +
+           "o.lastError = :error WHERE o.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("error") String error);
+}
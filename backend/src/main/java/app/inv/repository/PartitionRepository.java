@@ -0,0 +1,25 @@
+package app.inv.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * 按月范围分区表的分区管理，调用 V9 迁移中的 create_month_partition 函数
+ */
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * 创建 month 所在月份的分区，已存在时返回 false
+     */
+    public boolean createMonthPartition(String table, LocalDate month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT create_month_partition(?::regclass, ?)", Boolean.class, table, month));
+    }
+}
@@ -0,0 +1,28 @@
+package app.inv.repository;
+
+import app.inv.entity.AccountingPeriod;
+import app.inv.entity.PeriodClosingBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PeriodClosingBalanceRepository extends JpaRepository<PeriodClosingBalance, UUID> {
+    
+    @Query("SELECT b.account.id, b.categoryCode, b.debitTotal, b.creditTotal FROM PeriodClosingBalance b " +
+           "WHERE b.period = :period")
+    List<Object[]> getBalancesByPeriod(@Param("period") AccountingPeriod period);
+    
+    @Query("SELECT SUM(b.debitTotal), SUM(b.creditTotal) FROM PeriodClosingBalance b " +
+           "WHERE b.period = :period AND b.account.id = :accountId")
+    List<Object[]> getAccountTotalsByPeriod(@Param("period") AccountingPeriod period,
+                                            @Param("accountId") UUID accountId);
+    
+    @Query("SELECT b.categoryCode, SUM(b.debitTotal - b.creditTotal) FROM PeriodClosingBalance b " +
+           "WHERE b.period = :period GROUP BY b.categoryCode")
+    List<Object[]> getCategoryBalancesByPeriod(@Param("period") AccountingPeriod period);
+}
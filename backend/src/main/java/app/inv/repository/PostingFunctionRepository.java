@@ -0,0 +1,58 @@
+package app.inv.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 调用数据库记账函数 post_inventory_transactions_v1：整批交易序列化为一个JSON参数，一次往返写完。
+ * 使用当前事务的连接，与同一事务中的JPA读写一起提交或回滚。
+ */
+@Repository
+@RequiredArgsConstructor
+public class PostingFunctionRepository {
+    
+    private static final String POST_TRANSACTIONS =
+            "SELECT transaction_id, created_at FROM post_inventory_transactions_v1(?, ?::jsonb, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * @param async 为 true 时只写发件箱，不生成分录
+     * @return 写入的每笔交易的ID与数据库生成的创建时间
+     */
+    public List<PostedTransaction> post(UUID userId, List<PostingRow> rows, boolean async) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("无法序列化记账数据", e);
+        }
+        return jdbcTemplate.query(POST_TRANSACTIONS, (rs, rowNum) -> new PostedTransaction(
+                rs.getObject(1, UUID.class), rs.getObject(2, LocalDateTime.class)), userId, json, async);
+    }
+    
+    /**
+     * 一笔交易，字段与数据库类型 posting_row_v1 对应；不生成分录时科目、摘要与分录ID为空
+     */
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public record PostingRow(UUID transactionId, UUID itemId, UUID accountId, String type, String reason,
+                             Integer quantity, BigDecimal unitPrice, BigDecimal totalAmount,
+                             LocalDate transactionDate, String notes, String debitCode, String creditCode,
+                             String ledgerNote, UUID debitEntryId, UUID creditEntryId) {
+    }
+    
+    public record PostedTransaction(UUID transactionId, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,49 @@
+package app.inv.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * 基于PostgreSQL执行计划的行数估算，用于替代列表分页中的COUNT(*)。
+ * 结果来自planner统计信息（pg_statistic），是近似值。
+ */
+@Repository
+@RequiredArgsConstructor
+public class RowCountEstimator {
+    
+    private static final String ITEMS_BY_USER =
+            "SELECT 1 FROM items WHERE user_id = ? AND deleted_at IS NULL";
+    private static final String TRANSACTIONS_BY_USER =
+            "SELECT 1 FROM inventory_transactions WHERE user_id = ?";
+    private static final String LEDGER_ENTRIES_BY_USER =
+            "SELECT 1 FROM ledger_entries WHERE user_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    public long estimateItems(UUID userId) {
+        return estimate(ITEMS_BY_USER, userId);
+    }
+    
+    public long estimateTransactions(UUID userId) {
+        return estimate(TRANSACTIONS_BY_USER, userId);
+    }
+    
+    public long estimateLedgerEntries(UUID userId) {
+        return estimate(LEDGER_ENTRIES_BY_USER, userId);
+    }
+    
+    private long estimate(String sql, Object... args) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+        try {
+            return objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("无法解析执行计划", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package app.inv.repository;
+
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.TransactionDailyRollup;
+import app.inv.entity.TransactionDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TransactionDailyRollupRepository
+        extends JpaRepository<TransactionDailyRollup, TransactionDailyRollupId> {
+    
+    @Query("SELECT SUM(r.totalAmount) FROM TransactionDailyRollup r " +
+           "WHERE r.id.userId = :userId AND r.id.type = :type " +
+           "AND r.id.rollupDate BETWEEN :startDate AND :endDate")
+    Double getTotalAmountByUserAndTypeAndDateRange(@Param("userId") UUID userId,
+                                                   @Param("type") InventoryTransaction.TransactionType type,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT r.id.reason, SUM(r.totalAmount) FROM TransactionDailyRollup r " +
+           "WHERE r.id.userId = :userId AND r.id.type = 'OUT' " +
+           "AND r.id.rollupDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.id.reason")
+    List<Object[]> getOutboundAmountByReason(@Param("userId") UUID userId,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+    
+    /**
+     * 一次扫描按粒度分桶，入库与出库通过 FILTER 在同一聚合中计算
+     */
+    @Query(value = "SELECT CAST(date_trunc(:unit, CAST(rollup_date AS timestamp)) AS date) AS bucket, " +
+                   "COALESCE(SUM(total_amount) FILTER (WHERE type = 'IN'), 0), " +
+                   "COALESCE(SUM(total_amount) FILTER (WHERE type = 'OUT'), 0) " +
+                   "FROM transaction_daily_rollups " +
+                   "WHERE user_id = :userId AND rollup_date BETWEEN :startDate AND :endDate " +
+                   "GROUP BY bucket ORDER BY bucket",
+           nativeQuery = true)
+    List<Object[]> getAmountSeries(@Param("userId") UUID userId,
+                                   @Param("unit") String unit,
+                                   @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+    
+    @Modifying
+    @Query(value = "INSERT INTO transaction_daily_rollups (user_id, rollup_date, type, reason, " +
+                   "total_amount, quantity_total, transaction_count) " +
+                   "VALUES (:userId, :rollupDate, :type, :reason, :amount, :quantity, :transactionCount) " +
+                   "ON CONFLICT (user_id, rollup_date, type, reason) DO UPDATE SET " +
+                   "total_amount = transaction_daily_rollups.total_amount + EXCLUDED.total_amount, " +
+                   "quantity_total = transaction_daily_rollups.quantity_total + EXCLUDED.quantity_total, " +
+                   "transaction_count = transaction_daily_rollups.transaction_count + EXCLUDED.transaction_count",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") UUID userId,
+                   @Param("rollupDate") LocalDate rollupDate,
+                   @Param("type") String type,
+                   @Param("reason") String reason,
+                   @Param("amount") BigDecimal amount,
+                   @Param("quantity") long quantity,
+                   @Param("transactionCount") long transactionCount);
+    
+    @Modifying
+    @Query(value = "LOCK TABLE transaction_daily_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForBackfill();
+    
+    @Modifying
+    @Query(value = "DELETE FROM transaction_daily_rollups", nativeQuery = true)
+    int deleteAllRollups();
+    
+    @Modifying
+    @Query(value = "INSERT INTO transaction_daily_rollups (user_id, rollup_date, type, reason, " +
+                   "total_amount, quantity_total, transaction_count) " +
+                   "SELECT user_id, transaction_date, type, COALESCE(reason, ''), " +
+                   "SUM(total_amount), SUM(COALESCE(quantity, 0)), COUNT(*) " +
+                   "FROM inventory_transactions " +
+                   "GROUP BY user_id, transaction_date, type, COALESCE(reason, '')",
+           nativeQuery = true)
+    int backfillFromTransactions();
+}
@@ -0,0 +1,22 @@
+package app.inv.repository;
+
+import app.inv.entity.TransactionJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionJournalCheckpointRepository extends JpaRepository<TransactionJournalCheckpoint, String> {
+
+    // 只前进不后退：重复应用同一批或乱序提交时不会把检查点改回较小的偏移量
+    @Modifying
+    @Query(value = "INSERT INTO transaction_journal_checkpoints (journal_name, applied_offset, updated_at) " +
+                   "VALUES (:journalName, :offset, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (journal_name) DO UPDATE SET " +
+                   "applied_offset = GREATEST(transaction_journal_checkpoints.applied_offset, EXCLUDED.applied_offset), " +
+                   "updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int advance(@Param("journalName") String journalName, @Param("offset") long offset);
+}
@@ -0,0 +1,17 @@
+package app.inv.repository;
+
+import app.inv.entity.TransactionJournalRejection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TransactionJournalRejectionRepository extends JpaRepository<TransactionJournalRejection, Long> {
+    
+    List<TransactionJournalRejection> findByUserIdOrderByIdDesc(UUID userId, Pageable pageable);
+    
+    List<TransactionJournalRejection> findByUserIdAndJournalOffset(UUID userId, long journalOffset);
+}
@@ -0,0 +1,23 @@
+package app.inv.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * 携带用户ID的 UserDetails，供不含用户ID声明的旧令牌在查库认证后构建 {@link JwtPrincipal}
+ */
+@Getter
+public class AppUserDetails extends User {
+
+    private final UUID userId;
+
+    public AppUserDetails(UUID userId, String username, String password,
+                          Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.userId = userId;
+    }
+}
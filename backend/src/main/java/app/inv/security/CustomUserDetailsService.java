@@ -22,10 +22,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByUsernameOrEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("用户不存在: " + username));
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPasswordHash())
-                .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")))
-                .build();
+        return new AppUserDetails(user.getId(), user.getUsername(), user.getPasswordHash(),
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
     }
 }
@@ -1,12 +1,17 @@
 package app.inv.security;
 
 import app.inv.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,43 +20,104 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @RequiredArgsConstructor
-public class JwtAuthenticationFilter extends OncePerRequestFilter {
+public class JwtAuthenticationFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final String OUTCOME_ANONYMOUS = "anonymous";
+    private static final String OUTCOME_CLAIMS = "claims";
+    private static final String OUTCOME_DATABASE = "database";
+    private static final String OUTCOME_REJECTED = "rejected";
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    // 未绑定到 MeterRegistry（如切片测试）时为 null，不记录
+    private volatile Map<String, Timer> authenticationTimers;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
+        long start = System.nanoTime();
+        String outcome = OUTCOME_REJECTED;
+        try {
+            outcome = authenticate(request);
+        } finally {
+            Map<String, Timer> timers = authenticationTimers;
+            if (timers != null) {
+                timers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    /**
+     * 按指标名 auth.jwt 记录认证耗时（不含后续过滤器链），outcome 只有四种取值
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, Timer> timers = new HashMap<>();
+        for (String outcome : List.of(OUTCOME_ANONYMOUS, OUTCOME_CLAIMS, OUTCOME_DATABASE, OUTCOME_REJECTED)) {
+            timers.put(outcome, Timer.builder("auth.jwt").tag("outcome", outcome).register(registry));
+        }
+        authenticationTimers = timers;
+    }
+    
+    private String authenticate(HttpServletRequest request) {
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwt = null;
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            return OUTCOME_ANONYMOUS;
+        }
         
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                logger.error("JWT token is invalid", e);
+        String jwt = authorizationHeader.substring(7);
+        String username = null;
+        try {
+            // 携带用户ID的令牌直接由声明构建认证主体，不查询数据库
+            Optional<JwtPrincipal> principal = jwtUtil.authenticate(jwt);
+            if (principal.isPresent()) {
+                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    setAuthentication(request, principal.get(), principal.get().getRoles().stream()
+                            .map(SimpleGrantedAuthority::new)
+                            .toList());
+                }
+                return OUTCOME_CLAIMS;
             }
+            username = jwtUtil.extractUsername(jwt);
+        } catch (Exception e) {
+            logger.error("JWT token is invalid", e);
         }
         
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
             
             if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                // 与声明路径使用同一种认证主体，控制器统一通过 @CurrentUser 取当前用户
+                Object principal = userDetails instanceof AppUserDetails details
+                        ? new JwtPrincipal(details.getUserId(), details.getUsername(), details.getAuthorities().stream()
+                                .map(GrantedAuthority::getAuthority)
+                                .toList())
+                        : userDetails;
+                setAuthentication(request, principal, userDetails.getAuthorities());
+                return OUTCOME_DATABASE;
             }
         }
-        
-        filterChain.doFilter(request, response);
+        return OUTCOME_REJECTED;
+    }
+    
+    private void setAuthentication(HttpServletRequest request, Object principal,
+                                   Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authToken = 
+            new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
     }
 }
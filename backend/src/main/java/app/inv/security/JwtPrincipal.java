@@ -0,0 +1,16 @@
+package app.inv.security;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 由已验证的JWT声明构建的认证主体，无需查询数据库
+ */
+@Value
+public class JwtPrincipal {
+    UUID userId;
+    String username;
+    List<String> roles;
+}
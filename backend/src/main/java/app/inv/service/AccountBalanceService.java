@@ -0,0 +1,68 @@
+package app.inv.service;
+
+import app.inv.entity.AccountBalance;
+import app.inv.entity.LedgerEntry;
+import app.inv.entity.User;
+import app.inv.repository.AccountBalanceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class AccountBalanceService {
+    
+    private final AccountBalanceRepository accountBalanceRepository;
+    
+    /**
+     * 将分录增量累加到账户余额表，必须在写入分录的同一事务中调用。
+     * 同一账户的多条分录先在内存中合并，每个账户只执行一次upsert；
+     * 按账户ID排序加锁，避免并发批次之间相互死锁。
+     */
+    public void applyEntries(Iterable<LedgerEntry> entries) {
+        Map<UUID, Delta> deltas = new TreeMap<>();
+        for (LedgerEntry entry : entries) {
+            Delta delta = deltas.computeIfAbsent(entry.getAccount().getId(),
+                    id -> new Delta(entry.getUser().getId()));
+            if (entry.getDirection() == LedgerEntry.Direction.DEBIT) {
+                delta.debit = delta.debit.add(entry.getAmount());
+            } else {
+                delta.credit = delta.credit.add(entry.getAmount());
+            }
+        }
+        
+        deltas.forEach((accountId, delta) ->
+                accountBalanceRepository.applyDelta(accountId, delta.userId, delta.debit, delta.credit));
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<AccountBalance> getBalance(User user, UUID accountId) {
+        return accountBalanceRepository.findByAccountIdAndUserId(accountId, user.getId());
+    }
+    
+    /**
+     * 根据ledger_entries全量重建余额表，返回重建的账户数。
+     */
+    public int rebuildAll() {
+        accountBalanceRepository.lockForRebuild();
+        accountBalanceRepository.deleteAllBalances();
+        return accountBalanceRepository.rebuildFromLedger();
+    }
+    
+    private static final class Delta {
+        private final UUID userId;
+        private BigDecimal debit = BigDecimal.ZERO;
+        private BigDecimal credit = BigDecimal.ZERO;
+        
+        private Delta(UUID userId) {
+            this.userId = userId;
+        }
+    }
+}
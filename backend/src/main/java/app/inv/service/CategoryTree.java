@@ -0,0 +1,117 @@
+package app.inv.service;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 品类树的不可变快照。构建时一次性计算每个节点的子树ID集合，
+ * 按子树过滤时直接取集合，不再逐层加载 parent/children。
+ */
+public final class CategoryTree {
+
+    @Getter
+    private final long version;
+    @Getter
+    private final List<Node> roots;
+    private final Map<UUID, Node> nodes;
+    private final Map<UUID, Set<UUID>> subtreeIds;
+
+    private CategoryTree(long version, List<Node> roots, Map<UUID, Node> nodes, Map<UUID, Set<UUID>> subtreeIds) {
+        this.version = version;
+        this.roots = roots;
+        this.nodes = nodes;
+        this.subtreeIds = subtreeIds;
+    }
+
+    /**
+     * @param rows 每行为 (id, name, parentId)
+     */
+    public static CategoryTree build(List<Object[]> rows, long version) {
+        Map<UUID, String> names = new HashMap<>();
+        Map<UUID, List<UUID>> childrenByParent = new HashMap<>();
+        List<UUID> rootIds = new ArrayList<>();
+        for (Object[] row : rows) {
+            UUID id = (UUID) row[0];
+            UUID parentId = (UUID) row[2];
+            names.put(id, (String) row[1]);
+            if (parentId == null) {
+                rootIds.add(id);
+            } else {
+                childrenByParent.computeIfAbsent(parentId, k -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Map<UUID, Node> nodes = new HashMap<>();
+        Map<UUID, Set<UUID>> subtreeIds = new HashMap<>();
+        List<Node> roots = new ArrayList<>();
+        for (UUID rootId : rootIds) {
+            roots.add(buildNode(rootId, null, 0, names, childrenByParent, nodes, subtreeIds));
+        }
+        roots.sort(Comparator.comparing(Node::getName));
+        return new CategoryTree(version, Collections.unmodifiableList(roots),
+                Collections.unmodifiableMap(nodes), Collections.unmodifiableMap(subtreeIds));
+    }
+
+    private static Node buildNode(UUID id, UUID parentId, int depth, Map<UUID, String> names,
+                                  Map<UUID, List<UUID>> childrenByParent,
+                                  Map<UUID, Node> nodes, Map<UUID, Set<UUID>> subtreeIds) {
+        Set<UUID> subtree = new HashSet<>();
+        subtree.add(id);
+        List<Node> children = new ArrayList<>();
+        // 每个节点只有一个父节点，从根出发不会进入环；成环的数据不可达，自然被忽略
+        for (UUID childId : childrenByParent.getOrDefault(id, List.of())) {
+            Node child = buildNode(childId, id, depth + 1, names, childrenByParent, nodes, subtreeIds);
+            children.add(child);
+            subtree.addAll(subtreeIds.get(childId));
+        }
+        children.sort(Comparator.comparing(Node::getName));
+
+        Node node = new Node(id, names.get(id), parentId, depth, Collections.unmodifiableList(children));
+        nodes.put(id, node);
+        subtreeIds.put(id, Collections.unmodifiableSet(subtree));
+        return node;
+    }
+
+    public Optional<Node> find(UUID id) {
+        return Optional.ofNullable(nodes.get(id));
+    }
+
+    public Collection<Node> getNodes() {
+        return nodes.values();
+    }
+
+    /**
+     * 该品类及其所有子孙品类的ID；品类不存在时只返回自身
+     */
+    public Set<UUID> subtreeIds(UUID id) {
+        return subtreeIds.getOrDefault(id, Set.of(id));
+    }
+
+    @Getter
+    public static final class Node {
+        private final UUID id;
+        private final String name;
+        private final UUID parentId;
+        private final int depth;
+        private final List<Node> children;
+
+        private Node(UUID id, String name, UUID parentId, int depth, List<Node> children) {
+            this.id = id;
+            this.name = name;
+            this.parentId = parentId;
+            this.depth = depth;
+            this.children = children;
+        }
+    }
+}
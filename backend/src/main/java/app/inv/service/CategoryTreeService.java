@@ -0,0 +1,55 @@
+package app.inv.service;
+
+import app.inv.entity.CategoryChangeListener;
+import app.inv.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 持有品类树快照。品类变更提交后版本号递增，下次读取时整体重建（一次查询）。
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryTreeService {
+
+    private final CategoryRepository categoryRepository;
+    private final AtomicLong version = new AtomicLong();
+    private volatile CategoryTree snapshot;
+
+    public CategoryTree getTree() {
+        CategoryTree current = snapshot;
+        if (current != null && current.getVersion() == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long expectedVersion = version.get();
+            if (current == null || current.getVersion() != expectedVersion) {
+                // 加载期间若再次变更，版本号不一致，下次读取会重新构建
+                current = CategoryTree.build(categoryRepository.findTreeRows(), expectedVersion);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 品类过滤条件：includeDescendants 时包含全部子孙品类；categoryId 为空时返回 null 表示不过滤
+     */
+    public Set<UUID> resolveCategoryFilter(UUID categoryId, boolean includeDescendants) {
+        if (categoryId == null) {
+            return null;
+        }
+        return includeDescendants ? getTree().subtreeIds(categoryId) : Set.of(categoryId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriesChanged(CategoryChangeListener.CategoriesChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
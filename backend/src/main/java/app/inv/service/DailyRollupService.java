@@ -0,0 +1,101 @@
+package app.inv.service;
+
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.LedgerDailyRollupId;
+import app.inv.entity.LedgerEntry;
+import app.inv.entity.TransactionDailyRollupId;
+import app.inv.repository.LedgerDailyRollupRepository;
+import app.inv.repository.TransactionDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 维护分录与交易的日汇总表，报表按日汇总行聚合而不是扫描原始明细。
+ * 写入方法必须在写入明细的同一事务中调用；同一汇总键的多行先在内存合并，
+ * 再按键排序逐个upsert，避免并发批次之间相互死锁。
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class DailyRollupService {
+    
+    private static final Comparator<LedgerDailyRollupId> LEDGER_KEY_ORDER =
+            Comparator.comparing(LedgerDailyRollupId::getUserId)
+                    .thenComparing(LedgerDailyRollupId::getRollupDate)
+                    .thenComparing(LedgerDailyRollupId::getAccountId)
+                    .thenComparing(LedgerDailyRollupId::getCategoryCode);
+    
+    private static final Comparator<TransactionDailyRollupId> TRANSACTION_KEY_ORDER =
+            Comparator.comparing(TransactionDailyRollupId::getUserId)
+                    .thenComparing(TransactionDailyRollupId::getRollupDate)
+                    .thenComparing(TransactionDailyRollupId::getType)
+                    .thenComparing(TransactionDailyRollupId::getReason);
+    
+    private final LedgerDailyRollupRepository ledgerDailyRollupRepository;
+    private final TransactionDailyRollupRepository transactionDailyRollupRepository;
+    
+    public void applyLedgerEntries(Iterable<LedgerEntry> entries) {
+        Map<LedgerDailyRollupId, LedgerDelta> deltas = new TreeMap<>(LEDGER_KEY_ORDER);
+        for (LedgerEntry entry : entries) {
+            LedgerDailyRollupId key = new LedgerDailyRollupId(entry.getUser().getId(), entry.getTransactionDate(),
+                    entry.getAccount().getId(), entry.getCategoryCode() != null ? entry.getCategoryCode() : "");
+            LedgerDelta delta = deltas.computeIfAbsent(key, k -> new LedgerDelta());
+            if (entry.getDirection() == LedgerEntry.Direction.DEBIT) {
+                delta.debit = delta.debit.add(entry.getAmount());
+            } else {
+                delta.credit = delta.credit.add(entry.getAmount());
+            }
+            delta.count++;
+        }
+        
+        deltas.forEach((key, delta) -> ledgerDailyRollupRepository.applyDelta(key.getUserId(), key.getRollupDate(),
+                key.getAccountId(), key.getCategoryCode(), delta.debit, delta.credit, delta.count));
+    }
+    
+    public void applyTransactions(Iterable<InventoryTransaction> transactions) {
+        Map<TransactionDailyRollupId, TransactionDelta> deltas = new TreeMap<>(TRANSACTION_KEY_ORDER);
+        for (InventoryTransaction transaction : transactions) {
+            TransactionDailyRollupId key = new TransactionDailyRollupId(transaction.getUser().getId(),
+                    transaction.getTransactionDate(), transaction.getType(),
+                    transaction.getReason() != null ? transaction.getReason().name()
+                            : TransactionDailyRollupId.NO_REASON);
+            TransactionDelta delta = deltas.computeIfAbsent(key, k -> new TransactionDelta());
+            delta.amount = delta.amount.add(transaction.getTotalAmount());
+            delta.quantity += transaction.getQuantity() != null ? transaction.getQuantity() : 0;
+            delta.count++;
+        }
+        
+        deltas.forEach((key, delta) -> transactionDailyRollupRepository.applyDelta(key.getUserId(),
+                key.getRollupDate(), key.getType().name(), key.getReason(), delta.amount, delta.quantity, delta.count));
+    }
+    
+    /**
+     * 根据原始明细全量重建两张日汇总表，返回重建的汇总行数。
+     */
+    public int backfillAll() {
+        ledgerDailyRollupRepository.lockForBackfill();
+        transactionDailyRollupRepository.lockForBackfill();
+        ledgerDailyRollupRepository.deleteAllRollups();
+        transactionDailyRollupRepository.deleteAllRollups();
+        return ledgerDailyRollupRepository.backfillFromLedger()
+                + transactionDailyRollupRepository.backfillFromTransactions();
+    }
+    
+    private static final class LedgerDelta {
+        private BigDecimal debit = BigDecimal.ZERO;
+        private BigDecimal credit = BigDecimal.ZERO;
+        private long count;
+    }
+    
+    private static final class TransactionDelta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long quantity;
+        private long count;
+    }
+}
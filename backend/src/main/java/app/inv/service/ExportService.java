@@ -0,0 +1,236 @@
+package app.inv.service;
+
+import app.inv.dto.ExportFormat;
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 分录与交易的流式导出。
+ * 在只读事务中用带fetchSize的JDBC游标逐行读取，直接写入响应流，
+ * 不创建实体、不进入持久化上下文，内存占用与导出行数无关。
+ */
+@Service
+public class ExportService {
+    
+    private static final String[] LEDGER_COLUMNS = {
+            "id", "transaction_date", "direction", "amount", "account_id", "item_id",
+            "category_code", "note", "created_at"
+    };
+    
+    private static final String[] TRANSACTION_COLUMNS = {
+            "id", "transaction_date", "type", "reason", "item_id", "quantity",
+            "unit_price", "total_amount", "notes", "created_at"
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper, @Value("${app.export-fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+    
+    public void exportLedger(User user, UUID accountId, LocalDate startDate, LocalDate endDate,
+                             ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", LEDGER_COLUMNS))
+                .append(" FROM ledger_entries WHERE user_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(user.getId());
+        if (accountId != null) {
+            sql.append(" AND account_id = ?");
+            args.add(accountId);
+        }
+        appendDateRange(sql, args, startDate, endDate);
+        sql.append(" ORDER BY transaction_date, id");
+        
+        export(sql.toString(), args, LEDGER_COLUMNS, format, gzip, out);
+    }
+    
+    public void exportTransactions(User user, InventoryTransaction.TransactionType type, UUID itemId,
+                                   LocalDate startDate, LocalDate endDate,
+                                   ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", TRANSACTION_COLUMNS))
+                .append(" FROM inventory_transactions WHERE user_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(user.getId());
+        if (type != null) {
+            sql.append(" AND type = ?");
+            args.add(type.name());
+        }
+        if (itemId != null) {
+            sql.append(" AND item_id = ?");
+            args.add(itemId);
+        }
+        appendDateRange(sql, args, startDate, endDate);
+        sql.append(" ORDER BY transaction_date, id");
+        
+        export(sql.toString(), args, TRANSACTION_COLUMNS, format, gzip, out);
+    }
+    
+    private void appendDateRange(StringBuilder sql, List<Object> args, LocalDate startDate, LocalDate endDate) {
+        if (startDate != null) {
+            sql.append(" AND transaction_date >= ?");
+            args.add(startDate);
+        }
+        if (endDate != null) {
+            sql.append(" AND transaction_date <= ?");
+            args.add(endDate);
+        }
+    }
+    
+    private void export(String sql, List<Object> args, String[] columns, ExportFormat format,
+                        boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        try (RowWriter writer = format == ExportFormat.NDJSON
+                ? new NdjsonRowWriter(objectMapper, target, columns)
+                : new CsvRowWriter(target, columns)) {
+            writer.writeHeader();
+            // PostgreSQL只在关闭自动提交时使用游标按fetchSize分批读取，因此必须在事务中执行
+            readOnlyTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.query(sql, rs -> {
+                        writer.writeRow(readRow(rs, columns.length));
+                    }, args.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private Object[] readRow(ResultSet rs, int columnCount) throws SQLException {
+        Object[] values = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            Object value = rs.getObject(i + 1);
+            if (value instanceof Date date) {
+                value = date.toLocalDate();
+            } else if (value instanceof Timestamp timestamp) {
+                value = timestamp.toLocalDateTime();
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+    
+    private interface RowWriter extends AutoCloseable {
+        void writeHeader();
+        
+        void writeRow(Object[] values);
+        
+        @Override
+        void close() throws IOException;
+    }
+    
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final String[] columns;
+        
+        private CsvRowWriter(OutputStream out, String[] columns) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.columns = columns;
+        }
+        
+        @Override
+        public void writeHeader() {
+            writeLine(columns);
+        }
+        
+        @Override
+        public void writeRow(Object[] values) {
+            writeLine(values);
+        }
+        
+        private void writeLine(Object[] values) {
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(escape(values[i]));
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        private String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+            return text;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+    
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final String[] columns;
+        
+        private NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out, String[] columns) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+        
+        @Override
+        public void writeHeader() {
+            // NDJSON每行自带字段名，无需表头
+        }
+        
+        @Override
+        public void writeRow(Object[] values) {
+            try {
+                generator.writeStartObject();
+                for (int i = 0; i < columns.length; i++) {
+                    generator.writeFieldName(columns[i]);
+                    generator.writeObject(values[i]);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package app.inv.service;
 
+import app.inv.dto.CursorPage;
 import app.inv.entity.Item;
 import app.inv.entity.User;
 import app.inv.repository.ItemRepository;
+import app.inv.repository.RowCountEstimator;
+import app.inv.util.CursorCodec;
+import app.inv.util.DateBounds;
+import app.inv.util.MetricsSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,7 +22,9 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -21,7 +32,16 @@ import java.util.UUID;
 @Transactional
 public class ItemService {
     
+    private static final Tags LIST_TAGS = Tags.of("endpoint", "list");
+    private static final Tags SCROLL_TAGS = Tags.of("endpoint", "scroll");
+    private static final Tags SEARCH_TAGS = Tags.of("endpoint", "search");
+    
     private final ItemRepository itemRepository;
+    private final RowCountEstimator rowCountEstimator;
+    private final ReportCache reportCache;
+    private final TypeaheadService typeaheadService;
+    private final CategoryTreeService categoryTreeService;
+    private final MeterRegistry meterRegistry;
     
     public Item createItem(User user, String name, BigDecimal purchasePrice, LocalDate purchaseDate,
                           String brand, String size, String color, String location, String images) {
@@ -37,16 +57,80 @@ public class ItemService {
         item.setImages(images);
         item.setStatus(Item.ItemStatus.ACTIVE);
         
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        reportCache.invalidateUser(user.getId());
+        typeaheadService.itemAdded(user.getId(), name, brand);
+        return saved;
     }
     
     public Page<Item> getItemsByUser(User user, Pageable pageable) {
         return itemRepository.findByUserAndDeletedAtIsNull(user, pageable);
     }
     
-    public Page<Item> getItemsByUserWithFilters(User user, String search, UUID categoryId, 
+    public Page<Item> getItemsByUserWithFilters(User user, String search, UUID categoryId,
+                                               boolean includeSubcategories,
                                                Item.ItemStatus status, Pageable pageable) {
-        return itemRepository.findByUserWithFilters(user, search, categoryId, status, pageable);
+        Set<UUID> categoryIds = categoryTreeService.resolveCategoryFilter(categoryId, includeSubcategories);
+        // categoryIds 为 null 表示不按品类过滤
+        Page<Item> page = MetricsSupport.time(meterRegistry, "item.search", LIST_TAGS,
+                () -> categoryIds == null
+                        ? itemRepository.findByUserWithFilters(user, search, status, pageable)
+                        : itemRepository.findByUserAndCategoriesWithFilters(user, search, categoryIds, status,
+                                pageable));
+        MetricsSupport.rows(meterRegistry, "item.search.rows", LIST_TAGS, page.getNumberOfElements());
+        return page;
+    }
+    
+    public CursorPage<Item> scrollItemsByUserWithFilters(User user, String search, UUID categoryId,
+                                                         boolean includeSubcategories,
+                                                         Item.ItemStatus status, String cursor, int size,
+                                                         boolean includeEstimate) {
+        LocalDateTime afterCreatedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            afterCreatedAt = position.sortKeyAsDateTime();
+            afterId = position.getId();
+        }
+        
+        Set<UUID> categoryIds = categoryTreeService.resolveCategoryFilter(categoryId, includeSubcategories);
+        LocalDateTime afterCreatedAtKey = afterCreatedAt;
+        UUID afterIdKey = afterId;
+        LocalDateTime createdAtUpper = DateBounds.upperTime(afterCreatedAtKey);
+        PageRequest pageRequest = PageRequest.of(0, CursorPage.clampSize(size));
+        Slice<Item> slice = MetricsSupport.time(meterRegistry, "item.search", SCROLL_TAGS,
+                () -> categoryIds == null
+                        ? itemRepository.scrollByUserWithFilters(user, search, status, createdAtUpper,
+                                afterCreatedAtKey, afterIdKey, pageRequest)
+                        : itemRepository.scrollByUserAndCategoriesWithFilters(user, search, categoryIds, status,
+                                createdAtUpper, afterCreatedAtKey, afterIdKey, pageRequest));
+        MetricsSupport.rows(meterRegistry, "item.search.rows", SCROLL_TAGS, slice.getNumberOfElements());
+        
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            Item last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        Long estimatedTotal = includeEstimate ? rowCountEstimator.estimateItems(user.getId()) : null;
+        
+        return new CursorPage<>(slice.getContent(), nextCursor, slice.hasNext(), estimatedTotal);
+    }
+    
+    /**
+     * 按相关度搜索物品，query为空时返回空列表
+     */
+    public List<Item> searchItems(User user, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        // 转义LIKE通配符，用户输入按字面匹配
+        String pattern = "%" + normalized.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        int boundedLimit = Math.max(1, Math.min(limit, 100));
+        List<Item> items = MetricsSupport.time(meterRegistry, "item.search", SEARCH_TAGS,
+                () -> itemRepository.searchByUser(user.getId(), normalized, pattern, boundedLimit));
+        MetricsSupport.rows(meterRegistry, "item.search.rows", SEARCH_TAGS, items.size());
+        return items;
     }
     
     public Optional<Item> getItemById(UUID id) {
@@ -57,6 +141,8 @@ public class ItemService {
                           String brand, String size, String color, String location, String images) {
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("物品不存在"));
+        String oldName = item.getName();
+        String oldBrand = item.getBrand();
         
         item.setName(name);
         item.setPurchasePrice(purchasePrice);
@@ -67,15 +153,25 @@ public class ItemService {
         item.setLocation(location);
         item.setImages(images);
         
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        reportCache.invalidateUser(item.getUser().getId());
+        if (item.getDeletedAt() == null) {
+            typeaheadService.itemChanged(item.getUser().getId(), oldName, oldBrand, name, brand);
+        }
+        return saved;
     }
     
     public void deleteItem(UUID id) {
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("物品不存在"));
+        boolean active = item.getDeletedAt() == null;
         
         item.setDeletedAt(LocalDateTime.now());
         itemRepository.save(item);
+        reportCache.invalidateUser(item.getUser().getId());
+        if (active) {
+            typeaheadService.itemRemoved(item.getUser().getId(), item.getName(), item.getBrand());
+        }
     }
     
     public List<Item> getItemsByUserAndStatus(User user, Item.ItemStatus status) {
@@ -91,7 +187,23 @@ public class ItemService {
         return total != null ? total : 0.0;
     }
     
+    /**
+     * 指定品类（含子孙品类）下在库物品的总价值
+     */
+    public Double getTotalValueByUserAndCategory(User user, UUID categoryId) {
+        Double total = itemRepository.getTotalValueByUserAndCategoryIds(user,
+                categoryTreeService.resolveCategoryFilter(categoryId, true));
+        return total != null ? total : 0.0;
+    }
+    
     public List<Object[]> getValueByCategory(User user) {
         return itemRepository.getValueByCategory(user);
     }
+    
+    /**
+     * 按品类ID汇总在库物品价值与数量，每行为 (categoryId, value, count)，未分类物品的 categoryId 为 null
+     */
+    public List<Object[]> getValueAndCountByCategoryId(User user) {
+        return itemRepository.getValueAndCountByCategoryId(user);
+    }
 }
@@ -0,0 +1,252 @@
+package app.inv.service;
+
+import app.inv.entity.Account;
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.LedgerEntry;
+import app.inv.entity.LedgerOutbox;
+import app.inv.entity.LedgerOutboxDeadLetter;
+import app.inv.repository.AccountRepository;
+import app.inv.repository.InventoryTransactionRepository;
+import app.inv.repository.LedgerOutboxDeadLetterRepository;
+import app.inv.repository.LedgerOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 异步记账：认领发件箱记录，按批生成分录并更新账户余额与日汇总，成功后删除记录。
+ * 认领使用 FOR UPDATE SKIP LOCKED，任意数量的记账线程（包括多个实例）可并行处理同一张发件箱表。
+ * 重试 max-attempts 次仍失败的记录移入死信表，不再重试。
+ */
+@Slf4j
+@Service
+@Transactional
+public class LedgerOutboxService {
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final LedgerOutboxRepository ledgerOutboxRepository;
+    private final LedgerOutboxDeadLetterRepository ledgerOutboxDeadLetterRepository;
+    private final InventoryTransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionService transactionService;
+    private final ReportCache reportCache;
+    private final Timer postingLag;
+    private final boolean asyncPosting;
+    private final Duration retryBackoff;
+    private final int maxAttempts;
+    private final Duration waitTimeout;
+
+    public LedgerOutboxService(LedgerOutboxRepository ledgerOutboxRepository,
+                               LedgerOutboxDeadLetterRepository ledgerOutboxDeadLetterRepository,
+                               InventoryTransactionRepository transactionRepository,
+                               AccountRepository accountRepository,
+                               TransactionService transactionService,
+                               ReportCache reportCache,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.ledger-posting.async:false}") boolean asyncPosting,
+                               @Value("${app.ledger-posting.retry-backoff:10s}") Duration retryBackoff,
+                               @Value("${app.ledger-posting.max-attempts:10}") int maxAttempts,
+                               @Value("${app.ledger-posting.wait-timeout:5s}") Duration waitTimeout) {
+        this.ledgerOutboxRepository = ledgerOutboxRepository;
+        this.ledgerOutboxDeadLetterRepository = ledgerOutboxDeadLetterRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.transactionService = transactionService;
+        this.reportCache = reportCache;
+        this.asyncPosting = asyncPosting;
+        this.retryBackoff = retryBackoff;
+        this.maxAttempts = maxAttempts;
+        this.waitTimeout = waitTimeout;
+        // 从交易提交到分录提交的间隔
+        this.postingLag = Timer.builder("ledger.posting.lag").register(meterRegistry);
+    }
+
+    /**
+     * 认领并记账一批记录，返回处理的条数（0 表示当前没有到期记录）。
+     * 任一记录失败时整批回滚，抛出的异常带有本批记录ID，由调用方逐条重试定位失败记录。
+     */
+    public int postBatch(int limit) {
+        return postClaimed(ledgerOutboxRepository.claimBatch(limit));
+    }
+
+    /**
+     * 单独记账指定记录，用于批次失败后定位失败的记录；已被其他线程认领或已完成时返回 0
+     */
+    public int postById(Long id) {
+        return postClaimed(ledgerOutboxRepository.claimById(id));
+    }
+
+    private int postClaimed(List<LedgerOutbox> claimed) {
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        try {
+            post(claimed);
+            // 在方法内刷新，约束冲突等错误在这里抛出而不是在提交时
+            ledgerOutboxRepository.flush();
+        } catch (RuntimeException e) {
+            throw new PostingFailedException(claimed.stream().map(LedgerOutbox::getId).toList(), e);
+        }
+        return claimed.size();
+    }
+
+    /**
+     * 记录失败：累加重试次数，按次数线性退避后再被认领；失败次数达到 max-attempts 时移入死信表。
+     * 返回该记录是否被移入死信表；记录已被其他线程认领或已完成时不做处理
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean recordFailure(Long id, Throwable error) {
+        String message = String.valueOf(error.getMessage());
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        List<LedgerOutbox> claimed = ledgerOutboxRepository.claimById(id);
+        if (claimed.isEmpty()) {
+            return false;
+        }
+        LedgerOutbox record = claimed.get(0);
+        int attempts = record.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            moveToDeadLetters(record, attempts, message);
+            return true;
+        }
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(retryBackoff.multipliedBy(attempts));
+        ledgerOutboxRepository.recordFailure(id, nextAttemptAt, message);
+        return false;
+    }
+
+    /**
+     * 按 app.ledger-posting.wait-timeout 等待该用户的交易全部记账，供查询接口的 waitForPosted 选项使用
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean awaitPosted(UUID userId) {
+        return awaitPosted(userId, waitTimeout);
+    }
+
+    /**
+     * 等待该用户当前已提交的交易全部记账，超时返回 false。同步记账模式下直接返回 true。
+     * 轮询之间不占用数据库连接。
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean awaitPosted(UUID userId, Duration timeout) {
+        if (!asyncPosting) {
+            return true;
+        }
+        Long lastId = ledgerOutboxRepository.findMaxIdByUserId(userId);
+        if (lastId == null) {
+            return true;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (ledgerOutboxRepository.existsByUserIdAndIdLessThanEqual(userId, lastId)) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 最早一条未记账记录的等待时长（秒），发件箱为空时为 0
+     */
+    @Transactional(readOnly = true)
+    public double oldestPendingAgeSeconds() {
+        LocalDateTime oldest = ledgerOutboxRepository.findOldestCreatedAt();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    private void moveToDeadLetters(LedgerOutbox record, int attempts, String message) {
+        LedgerOutboxDeadLetter deadLetter = new LedgerOutboxDeadLetter();
+        deadLetter.setTransactionId(record.getTransaction().getId());
+        deadLetter.setUserId(record.getUserId());
+        deadLetter.setAccountId(record.getAccountId());
+        deadLetter.setTransactionDate(record.getTransaction().getTransactionDate());
+        deadLetter.setAttempts(attempts);
+        deadLetter.setLastError(message);
+        deadLetter.setCreatedAt(record.getCreatedAt());
+        ledgerOutboxDeadLetterRepository.save(deadLetter);
+        ledgerOutboxRepository.delete(record);
+        log.error("Ledger outbox record {} for transaction {} failed {} times, moved to dead letters: {}",
+                record.getId(), deadLetter.getTransactionId(), attempts, message);
+    }
+
+    private void post(List<LedgerOutbox> claimed) {
+        // 交易与账户各一次批量加载
+        Set<UUID> transactionIds = new HashSet<>();
+        Set<UUID> accountIds = new HashSet<>();
+        for (LedgerOutbox record : claimed) {
+            transactionIds.add(record.getTransaction().getId());
+            accountIds.add(record.getAccountId());
+        }
+        Map<UUID, InventoryTransaction> transactions = transactionRepository.findAllById(transactionIds).stream()
+                .collect(Collectors.toMap(InventoryTransaction::getId, Function.identity()));
+        Map<UUID, Account> accounts = accountRepository.findAllById(accountIds).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        List<LedgerEntry> entries = new ArrayList<>(claimed.size() * 2);
+        Set<UUID> userIds = new HashSet<>();
+        for (LedgerOutbox record : claimed) {
+            InventoryTransaction transaction = transactions.get(record.getTransaction().getId());
+            Account account = accounts.get(record.getAccountId());
+            if (transaction == null || account == null) {
+                // 外键级联删除后不会出现，防御性跳过
+                log.warn("Skipping ledger outbox record {}: transaction or account missing", record.getId());
+                continue;
+            }
+            entries.addAll(transactionService.buildLedgerEntries(transaction.getUser(), transaction.getItem(),
+                    transaction.getType(), transaction.getTotalAmount(), transaction.getTransactionDate(), account,
+                    transaction.getReason()));
+            userIds.add(record.getUserId());
+        }
+
+        transactionService.postLedgerEntries(entries);
+        ledgerOutboxRepository.deleteAllByIdInBatch(claimed.stream().map(LedgerOutbox::getId).toList());
+        userIds.forEach(reportCache::invalidateUser);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (LedgerOutbox record : claimed) {
+            if (record.getCreatedAt() != null) {
+                postingLag.record(Duration.between(record.getCreatedAt(), now));
+            }
+        }
+    }
+
+    /**
+     * 一批记录记账失败，已整批回滚
+     */
+    public static class PostingFailedException extends RuntimeException {
+
+        private final List<Long> outboxIds;
+
+        PostingFailedException(List<Long> outboxIds, Throwable cause) {
+            super("记账失败: " + cause.getMessage(), cause);
+            this.outboxIds = outboxIds;
+        }
+
+        public List<Long> getOutboxIds() {
+            return outboxIds;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package app.inv.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步记账线程池（app.ledger-posting.async=true 时启用）。每个线程循环认领一批发件箱记录记账，
+ * 没有到期记录时按 poll-interval 休眠。批次失败时逐条重试，只有失败的记录进入退避，不阻塞其余记录；
+ * 失败达到 max-attempts 次的记录移入死信表，按指标 ledger.posting.dead.letters 计数。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.ledger-posting.async", havingValue = "true")
+public class LedgerPostingWorker implements SmartLifecycle {
+
+    private final LedgerOutboxService ledgerOutboxService;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final Counter failures;
+    private final Counter deadLetters;
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public LedgerPostingWorker(LedgerOutboxService ledgerOutboxService, MeterRegistry meterRegistry,
+                               @Value("${app.ledger-posting.workers:4}") int workers,
+                               @Value("${app.ledger-posting.batch-size:200}") int batchSize,
+                               @Value("${app.ledger-posting.poll-interval:200ms}") Duration pollInterval) {
+        this.ledgerOutboxService = ledgerOutboxService;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.failures = meterRegistry.counter("ledger.posting.failures");
+        this.deadLetters = meterRegistry.counter("ledger.posting.dead.letters");
+        // 积压程度：最早一条未记账记录已等待的秒数
+        Gauge.builder("ledger.outbox.oldest.age", ledgerOutboxService, LedgerOutboxService::oldestPendingAgeSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        AtomicInteger sequence = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "ledger-posting-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::runLoop);
+        }
+        log.info("Started {} ledger posting workers (batch size {})", workers, batchSize);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        executor.shutdown();
+        try {
+            // 正在处理的批次执行完再退出，未完成的记录留在发件箱中由下次启动继续处理
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runLoop() {
+        while (running) {
+            int posted;
+            try {
+                posted = postNextBatch();
+            } catch (RuntimeException e) {
+                // 认领本身失败（如数据库不可用），稍后重试
+                log.error("Ledger posting worker error", e);
+                posted = 0;
+            }
+            if (posted < batchSize && !sleep()) {
+                return;
+            }
+        }
+    }
+
+    private int postNextBatch() {
+        try {
+            return ledgerOutboxService.postBatch(batchSize);
+        } catch (LedgerOutboxService.PostingFailedException e) {
+            log.warn("Ledger posting batch of {} failed, retrying individually: {}",
+                    e.getOutboxIds().size(), e.getMessage());
+            return postIndividually(e);
+        }
+    }
+
+    private int postIndividually(LedgerOutboxService.PostingFailedException batchFailure) {
+        int posted = 0;
+        for (Long id : batchFailure.getOutboxIds()) {
+            try {
+                posted += ledgerOutboxService.postById(id);
+            } catch (LedgerOutboxService.PostingFailedException e) {
+                failures.increment();
+                log.error("Ledger posting failed for outbox record {}", id, e.getCause());
+                // recordFailure 在独立事务中提交后返回，计数不会多记
+                if (ledgerOutboxService.recordFailure(id, e.getCause())) {
+                    deadLetters.increment();
+                }
+            }
+        }
+        return posted;
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(pollIntervalMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
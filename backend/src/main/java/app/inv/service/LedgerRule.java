@@ -0,0 +1,39 @@
+package app.inv.service;
+
+import app.inv.entity.InventoryTransaction;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 交易的记账规则：每笔入库/出库生成借贷金额相等的一对分录，调整类交易不生成分录。
+ * 记账与造数工具共用这一份规则。
+ */
+@Getter
+@RequiredArgsConstructor
+public enum LedgerRule {
+
+    // 入库：借：存货，贷：现金/银行
+    PURCHASE("INVENTORY", "CASH", "物品入库"),
+    // 转售：借：现金，贷：存货
+    SALE("CASH", "INVENTORY", "物品转售"),
+    // 丢弃/赠与：借：损失，贷：存货
+    DISPOSAL("LOSS", "INVENTORY", "物品处置");
+
+    private final String debitCode;
+    private final String creditCode;
+    private final String note;
+
+    /**
+     * @return 不生成分录的交易返回 null
+     */
+    public static LedgerRule of(InventoryTransaction.TransactionType type,
+                                InventoryTransaction.TransactionReason reason) {
+        if (type == InventoryTransaction.TransactionType.IN) {
+            return PURCHASE;
+        }
+        if (type == InventoryTransaction.TransactionType.OUT) {
+            return reason == InventoryTransaction.TransactionReason.SELL ? SALE : DISPOSAL;
+        }
+        return null;
+    }
+}
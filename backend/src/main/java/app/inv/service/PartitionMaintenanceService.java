@@ -0,0 +1,68 @@
+package app.inv.service;
+
+import app.inv.repository.PartitionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 交易表与分录表按月分区的维护任务：启动时和每天定时为当前月及之后 months-ahead 个月建好分区，
+ * 新数据始终落在对应月份的分区里，而不是默认分区。创建函数可重复执行，多实例同时运行也安全。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.partitions.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceService {
+    
+    static final List<String> PARTITIONED_TABLES = List.of("inventory_transactions", "ledger_entries");
+    
+    private final PartitionRepository partitionRepository;
+    private final MeterRegistry meterRegistry;
+    private final int monthsAhead;
+    
+    public PartitionMaintenanceService(PartitionRepository partitionRepository, MeterRegistry meterRegistry,
+                                       @Value("${app.partitions.months-ahead:3}") int monthsAhead) {
+        this.partitionRepository = partitionRepository;
+        this.meterRegistry = meterRegistry;
+        this.monthsAhead = monthsAhead;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitions.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        try {
+            createPartitions(LocalDate.now());
+        } catch (DataAccessException e) {
+            // 下次定时执行会重试；在此之前新数据落在默认分区，不影响写入
+            log.warn("Failed to create upcoming partitions: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 创建 today 所在月到之后 months-ahead 个月的分区，返回新建的分区数
+     */
+    int createPartitions(LocalDate today) {
+        LocalDate firstMonth = today.withDayOfMonth(1);
+        int created = 0;
+        for (String table : PARTITIONED_TABLES) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                LocalDate month = firstMonth.plusMonths(i);
+                if (partitionRepository.createMonthPartition(table, month)) {
+                    created++;
+                    meterRegistry.counter("partition.created", "table", table).increment();
+                    log.info("Created partition of {} for {}", table, month);
+                }
+            }
+        }
+        return created;
+    }
+}
@@ -0,0 +1,170 @@
+package app.inv.service;
+
+import app.inv.entity.AccountingPeriod;
+import app.inv.entity.PeriodClosingBalance;
+import app.inv.entity.User;
+import app.inv.repository.AccountRepository;
+import app.inv.repository.AccountingPeriodRepository;
+import app.inv.repository.LedgerDailyRollupRepository;
+import app.inv.repository.LedgerOutboxDeadLetterRepository;
+import app.inv.repository.LedgerOutboxRepository;
+import app.inv.repository.PeriodClosingBalanceRepository;
+import app.inv.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 月度结账：冻结当月及之前的分录，并写入截至期末的按账户、科目的累计余额快照。
+ * 之后的余额与趋势查询只需读取最近一次快照，再加上期末之后的增量。
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class PeriodCloseService {
+    
+    private final AccountingPeriodRepository accountingPeriodRepository;
+    private final PeriodClosingBalanceRepository periodClosingBalanceRepository;
+    private final LedgerDailyRollupRepository ledgerDailyRollupRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final LedgerOutboxRepository ledgerOutboxRepository;
+    private final LedgerOutboxDeadLetterRepository ledgerOutboxDeadLetterRepository;
+    // 仅在 app.transaction-journal.enabled=true 时存在；按需获取，避免与 TransactionService 循环依赖
+    private final ObjectProvider<TransactionJournalService> transactionJournalService;
+    
+    public AccountingPeriod closeMonth(User user, YearMonth month) {
+        LocalDate periodEnd = month.atEndOfMonth();
+        if (!periodEnd.isBefore(LocalDate.now())) {
+            throw new RuntimeException("只能结账已结束的月份");
+        }
+        
+        // 排他锁与补记历史分录时的共享锁互斥，保证快照不会漏掉并发写入的分录
+        userRepository.findByIdForUpdate(user.getId())
+                .orElseThrow(() -> new RuntimeException("用户不存在"));
+        
+        Optional<AccountingPeriod> latest = accountingPeriodRepository.findTopByUserOrderByPeriodEndDesc(user);
+        if (latest.isPresent() && !periodEnd.isAfter(latest.get().getPeriodEnd())) {
+            throw new RuntimeException("该月份已结账");
+        }
+        // 异步记账模式下，发件箱中本期及之前的交易尚未生成分录，快照会漏记
+        if (ledgerOutboxRepository.existsPendingByUserIdThrough(user.getId(), periodEnd)) {
+            throw new RuntimeException("存在尚未完成记账的交易，请稍后再结账");
+        }
+        // 多次记账失败而移入死信表的交易没有分录，需修复后重新放回发件箱记账，否则一直不能结账
+        long deadLetters = ledgerOutboxDeadLetterRepository.countByUserIdAndTransactionDateLessThanEqual(
+                user.getId(), periodEnd);
+        if (deadLetters > 0) {
+            throw new RuntimeException("存在 " + deadLetters + " 笔记账失败的交易，需处理后才能结账");
+        }
+        // 日志模式下，已受理但尚未入库的本期交易同样会被快照漏记
+        TransactionJournalService journal = transactionJournalService.getIfAvailable();
+        if (journal != null && journal.hasPendingThrough(user.getId(), periodEnd)) {
+            throw new RuntimeException("交易日志中存在尚未入库的本期交易，请稍后再结账");
+        }
+        
+        // 上期快照 + 上期末至本期末的日汇总增量
+        Map<String, BigDecimal[]> closing = new LinkedHashMap<>();
+        Map<String, UUID> accountIds = new HashMap<>();
+        if (latest.isPresent()) {
+            for (Object[] row : periodClosingBalanceRepository.getBalancesByPeriod(latest.get())) {
+                accumulate(closing, accountIds, (UUID) row[0], (String) row[1], (BigDecimal) row[2], (BigDecimal) row[3]);
+            }
+        }
+        LocalDate afterDate = latest.map(AccountingPeriod::getPeriodEnd).orElse(null);
+        for (Object[] row : ledgerDailyRollupRepository.getAccountCategoryTotals(user.getId(), afterDate, periodEnd)) {
+            accumulate(closing, accountIds, (UUID) row[0], (String) row[1], (BigDecimal) row[2], (BigDecimal) row[3]);
+        }
+        
+        AccountingPeriod period = new AccountingPeriod();
+        period.setUser(user);
+        period.setPeriodStart(month.atDay(1));
+        period.setPeriodEnd(periodEnd);
+        AccountingPeriod savedPeriod = accountingPeriodRepository.save(period);
+        
+        List<PeriodClosingBalance> balances = new ArrayList<>(closing.size());
+        closing.forEach((key, totals) -> {
+            PeriodClosingBalance balance = new PeriodClosingBalance();
+            balance.setPeriod(savedPeriod);
+            balance.setAccount(accountRepository.getReferenceById(accountIds.get(key)));
+            balance.setCategoryCode(key.substring(key.indexOf('|') + 1));
+            balance.setDebitTotal(totals[0]);
+            balance.setCreditTotal(totals[1]);
+            balances.add(balance);
+        });
+        periodClosingBalanceRepository.saveAll(balances);
+        
+        return savedPeriod;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<AccountingPeriod> getClosedPeriods(User user) {
+        return accountingPeriodRepository.findByUserOrderByPeriodEndDesc(user);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<AccountingPeriod> findLatestClosedPeriod(User user, LocalDate onOrBefore) {
+        return accountingPeriodRepository.findTopByUserAndPeriodEndLessThanEqualOrderByPeriodEndDesc(user, onOrBefore);
+    }
+    
+    /**
+     * 返回已结账的最后一天，未结账返回null。
+     * earliestDate早于当月时（补记历史分录）会对用户行加共享锁，与结账互斥；
+     * 当月及以后的分录不可能落入已结账或正在结账的期间，无需加锁。
+     */
+    public LocalDate getClosedThrough(User user, LocalDate earliestDate) {
+        if (earliestDate.isBefore(LocalDate.now().withDayOfMonth(1))) {
+            userRepository.findByIdForShare(user.getId());
+        }
+        return accountingPeriodRepository.findTopByUserOrderByPeriodEndDesc(user)
+                .map(AccountingPeriod::getPeriodEnd)
+                .orElse(null);
+    }
+    
+    public void assertPeriodOpen(User user, LocalDate transactionDate) {
+        LocalDate closedThrough = getClosedThrough(user, transactionDate);
+        if (closedThrough != null && !transactionDate.isAfter(closedThrough)) {
+            throw new RuntimeException("会计期间已结账");
+        }
+    }
+    
+    /**
+     * 截至指定日期的各科目余额（借方-贷方）：最近快照 + 之后的日汇总增量。
+     */
+    @Transactional(readOnly = true)
+    public Map<String, BigDecimal> getCategoryBalancesAsOf(User user, LocalDate date) {
+        Map<String, BigDecimal> balances = new HashMap<>();
+        Optional<AccountingPeriod> period = findLatestClosedPeriod(user, date);
+        if (period.isPresent()) {
+            for (Object[] row : periodClosingBalanceRepository.getCategoryBalancesByPeriod(period.get())) {
+                balances.merge((String) row[0], (BigDecimal) row[1], BigDecimal::add);
+            }
+        }
+        LocalDate afterDate = period.map(AccountingPeriod::getPeriodEnd).orElse(null);
+        for (Object[] row : ledgerDailyRollupRepository.getCategoryBalances(user.getId(), afterDate, date)) {
+            balances.merge((String) row[0], (BigDecimal) row[1], BigDecimal::add);
+        }
+        return balances;
+    }
+    
+    private void accumulate(Map<String, BigDecimal[]> closing, Map<String, UUID> accountIds,
+                            UUID accountId, String categoryCode, BigDecimal debit, BigDecimal credit) {
+        String key = accountId + "|" + categoryCode;
+        accountIds.putIfAbsent(key, accountId);
+        BigDecimal[] totals = closing.computeIfAbsent(key, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+        totals[0] = totals[0].add(debit);
+        totals[1] = totals[1].add(credit);
+    }
+}
@@ -0,0 +1,12 @@
+package app.inv.service;
+
+/**
+ * 交易的写入方式，按部署通过 app.posting.engine 选择，见 DEPLOYMENT.md 4.9
+ */
+public enum PostingEngine {
+
+    // 实体经 Hibernate 批量写入，每张表至少一条语句
+    JPA,
+    // 一批交易一次调用数据库函数 post_inventory_transactions_v1（V10 迁移）
+    FUNCTION
+}
@@ -0,0 +1,211 @@
+package app.inv.service;
+
+import app.inv.config.QueryCounter;
+import app.inv.dto.TransactionBatchResult;
+import app.inv.dto.TransactionRequest;
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.User;
+import app.inv.util.UuidV7;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 记账方式基准：在当前数据库中分别用 JPA 与数据库函数逐笔记账（每笔一个事务，与 POST /transactions 一致），
+ * 比较吞吐、延迟和每笔执行的SQL条数。每个线程使用独立的用户与账户，避免余额行上的锁竞争掩盖往返开销；
+ * 基准用户及其数据在结束后删除。
+ */
+@Slf4j
+@Service
+@Profile("benchmark")
+public class PostingEngineBenchmark {
+
+    private static final String USERNAME_PREFIX = "posting-benchmark-";
+    private static final int ITEMS_PER_USER = 200;
+
+    private final TransactionService transactionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public PostingEngineBenchmark(TransactionService transactionService, JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.transactionService = transactionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<Result> run(int transactions, int threads) {
+        List<Result> results = new ArrayList<>();
+        try {
+            for (PostingEngine engine : PostingEngine.values()) {
+                results.add(run(engine, transactions, threads));
+            }
+        } finally {
+            // 交易、分录、余额与汇总都随用户级联删除
+            int deleted = jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", USERNAME_PREFIX + "%");
+            log.info("Removed {} benchmark users", deleted);
+        }
+        return results;
+    }
+
+    private Result run(PostingEngine engine, int transactions, int threads) {
+        List<Fixture> fixtures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            fixtures.add(createFixture(engine, i));
+        }
+        int perThread = Math.max(1, transactions / threads);
+        // 预热：JIT、连接池与执行计划缓存
+        int warmup = Math.min(1000, Math.max(1, perThread / 10));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Worker>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                Worker worker = new Worker(engine, fixtures.get(i), warmup, perThread, i);
+                futures.add(executor.submit(() -> {
+                    worker.run();
+                    return worker;
+                }));
+            }
+
+            long[] latencies = new long[perThread * threads];
+            long statements = 0;
+            int failures = 0;
+            long measuredStarted = Long.MAX_VALUE;
+            int offset = 0;
+            for (Future<Worker> future : futures) {
+                Worker worker = future.get();
+                System.arraycopy(worker.latencies, 0, latencies, offset, perThread);
+                offset += perThread;
+                statements += worker.statements;
+                failures += worker.failures;
+                measuredStarted = Math.min(measuredStarted, worker.measuredStarted);
+            }
+            long finished = System.nanoTime();
+            Arrays.sort(latencies);
+
+            Result result = new Result(engine.name(), latencies.length, threads,
+                    latencies.length / (Math.max(finished - measuredStarted, 1) / 1_000_000_000.0),
+                    percentile(latencies, 0.5) / 1_000_000.0, percentile(latencies, 0.99) / 1_000_000.0,
+                    (double) statements / latencies.length, failures);
+            log.info("{}: {} transactions on {} threads, {} tx/s, p50 {} ms, p99 {} ms, {} statements/tx, {} failed",
+                    result.engine(), result.transactions(), threads, Math.round(result.transactionsPerSecond()),
+                    String.format("%.2f", result.p50Millis()), String.format("%.2f", result.p99Millis()),
+                    String.format("%.1f", result.statementsPerTransaction()), failures);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("记账基准被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("记账基准执行失败: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Fixture createFixture(PostingEngine engine, int index) {
+        UUID userId = UuidV7.next();
+        UUID accountId = UuidV7.next();
+        UUID[] itemIds = new UUID[ITEMS_PER_USER];
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO users (id, username, password_hash) VALUES (?, ?, ?)", userId,
+                    USERNAME_PREFIX + engine.name().toLowerCase() + "-" + index + "-" + userId, "-");
+            jdbcTemplate.update("INSERT INTO accounts (id, user_id, name, type) VALUES (?, ?, ?, 'CASH')",
+                    accountId, userId, "基准账户");
+            List<Object[]> items = new ArrayList<>(ITEMS_PER_USER);
+            for (int i = 0; i < ITEMS_PER_USER; i++) {
+                itemIds[i] = UuidV7.next();
+                items.add(new Object[]{itemIds[i], userId, "基准物品" + i, BigDecimal.valueOf(100), LocalDate.now()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO items (id, user_id, name, purchase_price, purchase_date, status) "
+                    + "VALUES (?, ?, ?, ?, ?, 'ACTIVE')", items);
+        });
+        User user = new User();
+        user.setId(userId);
+        return new Fixture(user, accountId, itemIds);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private record Fixture(User user, UUID accountId, UUID[] itemIds) {
+    }
+
+    private final class Worker {
+
+        private final PostingEngine engine;
+        private final Fixture fixture;
+        private final int warmup;
+        private final long[] latencies;
+        private final SplittableRandom random;
+        private long statements;
+        private int failures;
+        private long measuredStarted;
+
+        private Worker(PostingEngine engine, Fixture fixture, int warmup, int measured, int seed) {
+            this.engine = engine;
+            this.fixture = fixture;
+            this.warmup = warmup;
+            this.latencies = new long[measured];
+            this.random = new SplittableRandom(seed);
+        }
+
+        private void run() {
+            for (int i = 0; i < warmup; i++) {
+                post(i);
+            }
+            measuredStarted = System.nanoTime();
+            for (int i = 0; i < latencies.length; i++) {
+                long started = System.nanoTime();
+                try (QueryCounter.Scope scope = QueryCounter.open()) {
+                    if (!post(warmup + i)) {
+                        failures++;
+                    }
+                    statements += scope.getCount();
+                }
+                latencies[i] = System.nanoTime() - started;
+            }
+        }
+
+        // 依次对每件物品入库、再出库转售，交替进行
+        private boolean post(int sequence) {
+            int item = sequence % ITEMS_PER_USER;
+            boolean inbound = (sequence / ITEMS_PER_USER) % 2 == 0;
+            TransactionRequest request = new TransactionRequest();
+            request.setItemId(fixture.itemIds()[item]);
+            request.setAccountId(fixture.accountId());
+            request.setType(inbound ? InventoryTransaction.TransactionType.IN
+                    : InventoryTransaction.TransactionType.OUT);
+            request.setReason(inbound ? InventoryTransaction.TransactionReason.PURCHASE
+                    : InventoryTransaction.TransactionReason.SELL);
+            request.setUnitPrice(BigDecimal.valueOf(1_000 + random.nextInt(100_000), 2));
+            request.setTransactionDate(LocalDate.now());
+            List<TransactionBatchResult> results = transactionTemplate.execute(status ->
+                    transactionService.createTransactionBatch(fixture.user(), List.of(request), engine));
+            return results != null && results.get(0).isSuccess();
+        }
+    }
+
+    /**
+     * @param statementsPerTransaction 每笔的SQL条数（含提交前的校验查询），需开启 app.query-budget 才会统计
+     */
+    public record Result(String engine, int transactions, int threads, double transactionsPerSecond,
+                         double p50Millis, double p99Millis, double statementsPerTransaction, int failures) {
+    }
+}
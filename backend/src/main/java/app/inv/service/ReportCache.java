@@ -0,0 +1,145 @@
+package app.inv.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 按用户隔离的报表结果缓存：容量上限 + TTL + LRU 淘汰。
+ * 每个用户维护一个版本号，写操作提交后换成新版本号，旧版本的条目不再命中并随LRU淘汰，
+ * 因此失效只影响该用户，且不会被提交前开始计算的结果回填。
+ * 版本号取自全局递增序列、从不复用，没有缓存条目的用户的版本号可以随时丢弃，版本表的大小因此与缓存容量同阶。
+ */
+@Component
+public class ReportCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<Key, Entry> entries;
+    private final Map<UUID, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicLong generationSequence = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ReportCache(@Value("${app.report-cache.max-size:1000}") int maxSize,
+                       @Value("${app.report-cache.ttl:5m}") Duration ttl,
+                       MeterRegistry meterRegistry) {
+        this(maxSize, ttl, Clock.systemUTC());
+        FunctionCounter.builder("report.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("report.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss").register(meterRegistry);
+        Gauge.builder("report.cache.size", this, ReportCache::size).register(meterRegistry);
+    }
+
+    ReportCache(int maxSize, Duration ttl, Clock clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > ReportCache.this.maxSize;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID userId, String report, List<?> params, Supplier<T> loader) {
+        Key key = new Key(userId, generation(userId), report, params);
+        long now = clock.millis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return (T) entry.value;
+            }
+        }
+
+        // 在锁外计算，避免慢查询阻塞其他用户
+        misses.incrementAndGet();
+        T value = loader.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(value, now + ttlMillis));
+            if (generations.size() > 2 * maxSize) {
+                pruneGenerations(now);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 使该用户的全部报表失效；在事务中调用时推迟到提交之后执行
+     */
+    public void invalidateUser(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generations.remove(userId);
+                }
+            });
+        } else {
+            generations.remove(userId);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    int generationCount() {
+        return generations.size();
+    }
+
+    // 删除后下次读取分配新的版本号，等同于递增
+    private long generation(UUID userId) {
+        return generations.computeIfAbsent(userId, id -> generationSequence.incrementAndGet());
+    }
+
+    // 持有 entries 锁时调用：清除过期条目，再丢弃已没有任何条目的用户的版本号
+    private void pruneGenerations(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        Set<UUID> cachedUsers = new HashSet<>();
+        for (Key key : entries.keySet()) {
+            cachedUsers.add(key.userId());
+        }
+        generations.keySet().retainAll(cachedUsers);
+    }
+
+    private record Key(UUID userId, long generation, String report, List<?> params) {
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+}
@@ -1,38 +1,83 @@
 package app.inv.service;
 
+import app.inv.dto.CategoryValueNode;
+import app.inv.dto.CursorPage;
+import app.inv.dto.TrendPeriod;
+import app.inv.dto.TrendPoint;
 import app.inv.entity.*;
+import app.inv.repository.LedgerDailyRollupRepository;
 import app.inv.repository.LedgerEntryRepository;
+import app.inv.repository.PeriodClosingBalanceRepository;
+import app.inv.repository.RowCountEstimator;
+import app.inv.util.CursorCodec;
+import app.inv.util.DateBounds;
+import app.inv.util.MetricsSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ReportService {
     
+    // 处置收益报表中未填写原因的出库
+    static final String UNSPECIFIED_REASON = "UNSPECIFIED";
+    // 趋势报表单次最多返回的统计周期数
+    static final int MAX_TREND_BUCKETS = 1000;
+    
     private final ItemService itemService;
     private final TransactionService transactionService;
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountBalanceService accountBalanceService;
+    private final LedgerDailyRollupRepository ledgerDailyRollupRepository;
+    private final PeriodCloseService periodCloseService;
+    private final PeriodClosingBalanceRepository periodClosingBalanceRepository;
+    private final RowCountEstimator rowCountEstimator;
+    private final ReportCache reportCache;
+    private final CategoryTreeService categoryTreeService;
+    private final MeterRegistry meterRegistry;
+    
+    public Map<String, Object> getInventoryValueReport(User user, UUID categoryId) {
+        // 报表按品类名称分组并汇总品类子树，品类树版本作为缓存键的一部分，品类增删改后不再命中旧结果
+        long treeVersion = categoryTreeService.getTree().getVersion();
+        return timed("inventory-value", () -> reportCache.get(user.getId(), "inventory-value",
+                Arrays.asList(categoryId, treeVersion), () -> buildInventoryValueReport(user, categoryId)));
+    }
     
-    public Map<String, Object> getInventoryValueReport(User user) {
+    private Map<String, Object> buildInventoryValueReport(User user, UUID categoryId) {
         Map<String, Object> report = new HashMap<>();
         
         // 总库存价值
         Double totalValue = itemService.getTotalValueByUser(user);
         report.put("totalValue", totalValue);
         
+        // 指定品类（含子孙品类）的库存价值
+        if (categoryId != null) {
+            report.put("categoryId", categoryId);
+            report.put("categoryTotalValue", itemService.getTotalValueByUserAndCategory(user, categoryId));
+        }
+        
         // 按品类分组
         List<Object[]> categoryValues = itemService.getValueByCategory(user);
+        recordRows("inventory-value", categoryValues.size());
         Map<String, Double> categoryMap = new HashMap<>();
         for (Object[] row : categoryValues) {
             String categoryName = (String) row[0];
@@ -44,74 +89,249 @@ public class ReportService {
         return report;
     }
     
+    public Map<String, Object> getCategoryValueTreeReport(User user) {
+        CategoryTree tree = categoryTreeService.getTree();
+        // 品类树版本作为缓存键的一部分，品类变更后不会命中旧结构
+        return timed("category-value-tree", () -> reportCache.get(user.getId(), "category-value-tree",
+                Arrays.asList(tree.getVersion()), () -> buildCategoryValueTreeReport(user, tree)));
+    }
+    
+    private Map<String, Object> buildCategoryValueTreeReport(User user, CategoryTree tree) {
+        Map<String, Object> report = new HashMap<>();
+        
+        // 一次聚合取出各品类自身的合计，再沿品类树自底向上累加
+        Map<UUID, Object[]> ownTotals = new HashMap<>();
+        CategoryValueNode uncategorized = new CategoryValueNode(null, "未分类");
+        List<Object[]> valueRows = itemService.getValueAndCountByCategoryId(user);
+        recordRows("category-value-tree", valueRows.size());
+        for (Object[] row : valueRows) {
+            UUID categoryId = (UUID) row[0];
+            if (categoryId != null && tree.find(categoryId).isPresent()) {
+                ownTotals.put(categoryId, row);
+            } else {
+                // 未分类或品类不在树中的物品统一归入未分类，保证各节点之和等于总价值
+                addOwn(uncategorized, row);
+            }
+        }
+        uncategorized.setValue(uncategorized.getOwnValue());
+        uncategorized.setItemCount(uncategorized.getOwnItemCount());
+        
+        List<CategoryValueNode> categories = new ArrayList<>();
+        BigDecimal totalValue = uncategorized.getValue();
+        long totalItemCount = uncategorized.getItemCount();
+        for (CategoryTree.Node root : tree.getRoots()) {
+            CategoryValueNode node = rollUp(root, ownTotals);
+            categories.add(node);
+            totalValue = totalValue.add(node.getValue());
+            totalItemCount += node.getItemCount();
+        }
+        
+        report.put("totalValue", totalValue);
+        report.put("totalItemCount", totalItemCount);
+        report.put("categories", categories);
+        report.put("uncategorized", uncategorized);
+        
+        return report;
+    }
+    
+    private CategoryValueNode rollUp(CategoryTree.Node category, Map<UUID, Object[]> ownTotals) {
+        CategoryValueNode node = new CategoryValueNode(category.getId(), category.getName());
+        Object[] own = ownTotals.get(category.getId());
+        if (own != null) {
+            addOwn(node, own);
+        }
+        BigDecimal value = node.getOwnValue();
+        long itemCount = node.getOwnItemCount();
+        for (CategoryTree.Node child : category.getChildren()) {
+            CategoryValueNode childNode = rollUp(child, ownTotals);
+            node.getChildren().add(childNode);
+            value = value.add(childNode.getValue());
+            itemCount += childNode.getItemCount();
+        }
+        node.setValue(value);
+        node.setItemCount(itemCount);
+        return node;
+    }
+    
+    private static void addOwn(CategoryValueNode node, Object[] row) {
+        BigDecimal value = row[1] == null ? BigDecimal.ZERO : (BigDecimal) row[1];
+        node.setOwnValue(node.getOwnValue().add(value));
+        node.setOwnItemCount(node.getOwnItemCount() + ((Number) row[2]).longValue());
+    }
+    
     public Map<String, Object> getDisposalProfitReport(User user, LocalDate startDate, LocalDate endDate) {
+        return timed("disposal-profit", () -> reportCache.get(user.getId(), "disposal-profit",
+                Arrays.asList(startDate, endDate), () -> buildDisposalProfitReport(user, startDate, endDate)));
+    }
+    
+    private Map<String, Object> buildDisposalProfitReport(User user, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> report = new HashMap<>();
         
         // 转售收益
         List<Object[]> outboundAmounts = transactionService.getOutboundAmountByReason(user, startDate, endDate);
+        recordRows("disposal-profit", outboundAmounts.size());
         Map<String, Double> reasonMap = new HashMap<>();
         for (Object[] row : outboundAmounts) {
             String reason = (String) row[0];
             Double amount = ((BigDecimal) row[1]).doubleValue();
-            reasonMap.put(reason, amount);
+            // 未填写原因的出库在汇总表中记为空字符串，报表中给出明确的标签
+            reasonMap.put(TransactionDailyRollupId.NO_REASON.equals(reason) ? UNSPECIFIED_REASON : reason, amount);
         }
         report.put("disposalAmounts", reasonMap);
         
         return report;
     }
     
-    public Map<String, Object> getTrendsReport(User user, LocalDate startDate, LocalDate endDate) {
+    public Map<String, Object> getTrendsReport(User user, TrendPeriod period, LocalDate startDate, LocalDate endDate) {
+        // 空桶在内存中逐个补零，区间过长时拒绝而不是生成超大序列
+        if (period.bucketCount(startDate, endDate) > MAX_TREND_BUCKETS) {
+            throw new IllegalArgumentException("统计区间过长，最多 " + MAX_TREND_BUCKETS + " 个统计周期");
+        }
+        return timed("trends", () -> reportCache.get(user.getId(), "trends",
+                Arrays.asList(period, startDate, endDate), () -> buildTrendsReport(user, period, startDate, endDate)));
+    }
+    
+    private Map<String, Object> buildTrendsReport(User user, TrendPeriod period, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> report = new HashMap<>();
         
-        // 入库金额
-        Double inboundAmount = transactionService.getTotalAmountByUserAndTypeAndDateRange(
-                user, InventoryTransaction.TransactionType.IN, startDate, endDate);
-        report.put("inboundAmount", inboundAmount);
+        // 单次聚合取出所有有数据的桶，空桶在内存中补零
+        Map<LocalDate, Object[]> rows = new HashMap<>();
+        for (Object[] row : transactionService.getAmountSeries(user, period, startDate, endDate)) {
+            rows.put(toLocalDate(row[0]), row);
+        }
+        recordRows("trends", rows.size());
         
-        // 出库金额
-        Double outboundAmount = transactionService.getTotalAmountByUserAndTypeAndDateRange(
-                user, InventoryTransaction.TransactionType.OUT, startDate, endDate);
+        List<TrendPoint> series = new ArrayList<>();
+        BigDecimal inboundAmount = BigDecimal.ZERO;
+        BigDecimal outboundAmount = BigDecimal.ZERO;
+        for (LocalDate bucket = period.truncate(startDate); !bucket.isAfter(endDate); bucket = period.next(bucket)) {
+            Object[] row = rows.get(bucket);
+            BigDecimal inbound = row == null ? BigDecimal.ZERO : (BigDecimal) row[1];
+            BigDecimal outbound = row == null ? BigDecimal.ZERO : (BigDecimal) row[2];
+            series.add(new TrendPoint(bucket, inbound, outbound, inbound.subtract(outbound)));
+            inboundAmount = inboundAmount.add(inbound);
+            outboundAmount = outboundAmount.add(outbound);
+        }
+        
+        report.put("period", period);
+        report.put("series", series);
+        report.put("inboundAmount", inboundAmount);
         report.put("outboundAmount", outboundAmount);
+        report.put("netAmount", inboundAmount.subtract(outboundAmount));
         
-        // 净额
-        Double netAmount = inboundAmount - outboundAmount;
-        report.put("netAmount", netAmount);
+        // 期末账面存货余额：最近结账快照 + 之后的增量
+        Map<String, BigDecimal> categoryBalances = periodCloseService.getCategoryBalancesAsOf(user, endDate);
+        report.put("inventoryBalance", categoryBalances.getOrDefault("INVENTORY", BigDecimal.ZERO));
         
         return report;
     }
     
     public Page<LedgerEntry> getLedgerEntries(User user, UUID accountId, LocalDate startDate, 
                                            LocalDate endDate, Pageable pageable) {
-        return ledgerEntryRepository.findByUserWithFilters(user, accountId, startDate, endDate, pageable);
+        Page<LedgerEntry> page = timed("ledger", () -> ledgerEntryRepository.findByUserWithFilters(
+                user, accountId, DateBounds.lower(startDate), DateBounds.upper(endDate), pageable));
+        recordRows("ledger", page.getNumberOfElements());
+        return page;
+    }
+    
+    public CursorPage<LedgerEntry> scrollLedgerEntries(User user, UUID accountId, LocalDate startDate,
+                                                       LocalDate endDate, String cursor, int size,
+                                                       boolean includeEstimate) {
+        LocalDate afterDate = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            afterDate = position.sortKeyAsDate();
+            afterId = position.getId();
+        }
+        
+        LocalDate afterDateKey = afterDate;
+        UUID afterIdKey = afterId;
+        Slice<LedgerEntry> slice = timed("ledger-scroll", () -> ledgerEntryRepository.scrollByUserWithFilters(
+                user, accountId, DateBounds.lower(startDate), DateBounds.upper(endDate, afterDateKey), afterDateKey,
+                afterIdKey, PageRequest.of(0, CursorPage.clampSize(size))));
+        recordRows("ledger-scroll", slice.getNumberOfElements());
+        
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            LedgerEntry last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = CursorCodec.encode(last.getTransactionDate(), last.getId());
+        }
+        Long estimatedTotal = includeEstimate ? rowCountEstimator.estimateLedgerEntries(user.getId()) : null;
+        
+        return new CursorPage<>(slice.getContent(), nextCursor, slice.hasNext(), estimatedTotal);
     }
     
     public Map<String, Object> getAccountBalance(User user, UUID accountId, LocalDate startDate, LocalDate endDate) {
+        return timed("account-balance", () -> buildAccountBalance(user, accountId, startDate, endDate));
+    }
+    
+    private Map<String, Object> buildAccountBalance(User user, UUID accountId, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> balance = new HashMap<>();
         
-        List<Object[]> balanceData = ledgerEntryRepository.getAccountBalanceByDateRange(user, accountId, startDate, endDate);
+        BigDecimal debitTotal = BigDecimal.ZERO;
+        BigDecimal creditTotal = BigDecimal.ZERO;
         
-        Double debitTotal = 0.0;
-        Double creditTotal = 0.0;
-        
-        for (Object[] row : balanceData) {
-            String direction = (String) row[0];
-            Double amount = ((BigDecimal) row[1]).doubleValue();
-            
-            if ("DEBIT".equals(direction)) {
-                debitTotal += amount;
-            } else if ("CREDIT".equals(direction)) {
-                creditTotal += amount;
+        if (startDate == null && endDate == null) {
+            // 全部累计余额：一次读取余额汇总行
+            Optional<AccountBalance> snapshot = accountBalanceService.getBalance(user, accountId);
+            if (snapshot.isPresent()) {
+                debitTotal = snapshot.get().getDebitTotal();
+                creditTotal = snapshot.get().getCreditTotal();
+            }
+        } else if (startDate == null) {
+            // 截至endDate的余额：最近一次结账快照 + 期末之后的日汇总增量
+            Optional<AccountingPeriod> period = periodCloseService.findLatestClosedPeriod(user, endDate);
+            if (period.isPresent()) {
+                for (Object[] row : periodClosingBalanceRepository.getAccountTotalsByPeriod(period.get(), accountId)) {
+                    debitTotal = debitTotal.add(row[0] != null ? (BigDecimal) row[0] : BigDecimal.ZERO);
+                    creditTotal = creditTotal.add(row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO);
+                }
+            }
+            LocalDate afterDate = period.map(AccountingPeriod::getPeriodEnd).orElse(null);
+            for (Object[] row : ledgerDailyRollupRepository.getAccountTotals(user.getId(), accountId, afterDate, endDate)) {
+                debitTotal = debitTotal.add(row[0] != null ? (BigDecimal) row[0] : BigDecimal.ZERO);
+                creditTotal = creditTotal.add(row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO);
+            }
+        } else {
+            // 区间发生额：按日汇总扫描
+            LocalDate rangeEnd = endDate != null ? endDate : LocalDate.now();
+            for (Object[] row : ledgerDailyRollupRepository.getAccountTotals(user.getId(), accountId,
+                    startDate.minusDays(1), rangeEnd)) {
+                debitTotal = debitTotal.add(row[0] != null ? (BigDecimal) row[0] : BigDecimal.ZERO);
+                creditTotal = creditTotal.add(row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO);
             }
         }
         
         balance.put("debitTotal", debitTotal);
         balance.put("creditTotal", creditTotal);
-        balance.put("balance", debitTotal - creditTotal);
+        balance.put("balance", debitTotal.subtract(creditTotal));
         
         return balance;
     }
     
     public List<Object[]> getAmountByCategory(User user, LocalDate startDate, LocalDate endDate) {
-        return ledgerEntryRepository.getAmountByCategoryAndDateRange(user, startDate, endDate);
+        List<Object[]> amounts = timed("amount-by-category", () ->
+                ledgerDailyRollupRepository.getAmountByCategoryAndDateRange(user.getId(), startDate, endDate));
+        recordRows("amount-by-category", amounts.size());
+        return amounts;
+    }
+    
+    /**
+     * 报表耗时，缓存命中时也计入（即调用方看到的耗时），命中率见 report.cache.requests
+     */
+    private <T> T timed(String report, Supplier<T> action) {
+        return MetricsSupport.time(meterRegistry, "report.generation", Tags.of("report", report), action);
+    }
+    
+    private void recordRows(String report, long count) {
+        MetricsSupport.rows(meterRegistry, "report.rows", Tags.of("report", report), count);
+    }
+    
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
     }
 }
@@ -0,0 +1,314 @@
+package app.inv.service;
+
+import app.inv.entity.Account;
+import app.inv.entity.Item;
+import app.inv.repository.CategoryRepository;
+import app.inv.repository.PartitionRepository;
+import app.inv.util.CopyRowWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * 压测造数：用 COPY 批量导入用户、账户、物品、交易与分录，导入后重建账户余额与日汇总。
+ * 按外键依赖分三个阶段（用户 → 账户、物品 → 交易、分录），同一阶段内各表、各分片并行导入，
+ * 每个分片一个连接、一条 COPY。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyntheticDataGenerator {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int LOADTEST_ITEM_IDS = 50;
+
+    private final DataSource dataSource;
+    private final CategoryRepository categoryRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final AccountBalanceService accountBalanceService;
+    private final DailyRollupService dailyRollupService;
+    private final PartitionRepository partitionRepository;
+
+    /**
+     * @return 各表导入的行数
+     */
+    public Map<String, Long> generate(Options options) {
+        List<UUID> categoryIds = categoryRepository.findTreeRows().stream()
+                .map(row -> (UUID) row[0])
+                .sorted()
+                .collect(Collectors.toList());
+        SyntheticDataset dataset = new SyntheticDataset(new SyntheticDataset.Settings(options.seed(),
+                options.itemsPerUser(), options.outRatio(), options.adjustRatio(), options.historyDays(),
+                options.endDate(), options.usernamePrefix()), categoryIds);
+        // 所有造数用户共用同一个密码，只计算一次哈希
+        String passwordHash = passwordEncoder.encode(options.password());
+
+        Map<String, Long> rows = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(options.parallelism() * 2);
+        try {
+            copyPhase(executor, dataset, options, passwordHash, rows, Table.USERS);
+            copyPhase(executor, dataset, options, passwordHash, rows, Table.ACCOUNTS, Table.ITEMS);
+            createPartitions(options);
+            copyPhase(executor, dataset, options, passwordHash, rows, Table.TRANSACTIONS, Table.LEDGER_ENTRIES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long started = System.nanoTime();
+        int balances = accountBalanceService.rebuildAll();
+        int rollups = dailyRollupService.backfillAll();
+        analyze();
+        log.info("Rebuilt {} account balances and {} daily rollup rows in {} ms", balances, rollups,
+                (System.nanoTime() - started) / 1_000_000);
+
+        if (options.loadtestConfig() != null) {
+            writeLoadtestConfig(dataset, options);
+        }
+        return rows;
+    }
+
+    // 交易与分录的日期覆盖整个造数区间，先建好各月分区，避免历史数据全部落入默认分区
+    private void createPartitions(Options options) {
+        LocalDate firstMonth = options.endDate().minusDays(options.historyDays()).withDayOfMonth(1);
+        int created = 0;
+        for (LocalDate month = firstMonth; !month.isAfter(options.endDate()); month = month.plusMonths(1)) {
+            for (Table table : List.of(Table.TRANSACTIONS, Table.LEDGER_ENTRIES)) {
+                if (partitionRepository.createMonthPartition(table.tableName, month)) {
+                    created++;
+                }
+            }
+        }
+        log.info("Created {} monthly partitions for the generated date range", created);
+    }
+
+    private void copyPhase(ExecutorService executor, SyntheticDataset dataset, Options options, String passwordHash,
+                           Map<String, Long> rows, Table... tables) {
+        long started = System.nanoTime();
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (Table table : tables) {
+            for (int slice = 0; slice < options.parallelism(); slice++) {
+                int current = slice;
+                tasks.add(() -> copySlice(table, current, dataset, options, passwordHash));
+            }
+        }
+
+        List<Future<Long>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("造数被中断");
+        }
+        int index = 0;
+        for (Table table : tables) {
+            long tableRows = 0;
+            for (int slice = 0; slice < options.parallelism(); slice++) {
+                tableRows += result(futures.get(index++), table);
+            }
+            rows.put(table.tableName, tableRows);
+            log.info("Copied {} rows into {}", tableRows, table.tableName);
+        }
+        log.info("Copy phase {} finished in {} ms", List.of(tables), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private long result(Future<Long> future, Table table) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("造数被中断");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("导入 " + table.tableName + " 失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 导入一个分片：用户序号 slice, slice + parallelism, ... 的全部行，整个分片在一条 COPY（一个事务）中
+     */
+    private long copySlice(Table table, int slice, SyntheticDataset dataset, Options options, String passwordHash)
+            throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            PGCopyOutputStream copy = new PGCopyOutputStream(pgConnection,
+                    "COPY " + table.tableName + " (" + table.columns + ") FROM STDIN", BUFFER_SIZE);
+            long[] count = new long[1];
+            try {
+                CopyRowWriter writer = new CopyRowWriter(new BufferedWriter(
+                        new OutputStreamWriter(copy, StandardCharsets.UTF_8), BUFFER_SIZE));
+                SyntheticDataset.RowSink sink = sink(table, writer, passwordHash, count);
+                for (int userIndex = slice; userIndex < options.users(); userIndex += options.parallelism()) {
+                    dataset.generateUser(userIndex, sink);
+                }
+                // 关闭时结束 COPY 并提交
+                writer.close();
+            } catch (IOException | RuntimeException e) {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+                throw e;
+            }
+            return count[0];
+        }
+    }
+
+    private static SyntheticDataset.RowSink sink(Table table, CopyRowWriter writer, String passwordHash, long[] count) {
+        return switch (table) {
+            case USERS -> new SyntheticDataset.RowSink() {
+                @Override
+                public void user(UUID id, String username, LocalDateTime createdAt) throws IOException {
+                    writer.column(id).column(username).column(passwordHash).column(createdAt).column(createdAt);
+                    writer.endRow();
+                    count[0]++;
+                }
+            };
+            case ACCOUNTS -> new SyntheticDataset.RowSink() {
+                @Override
+                public void account(UUID id, UUID userId, String name, Account.AccountType type,
+                                    LocalDateTime createdAt) throws IOException {
+                    writer.column(id).column(userId).column(name).column(type).column(createdAt);
+                    writer.endRow();
+                    count[0]++;
+                }
+            };
+            case ITEMS -> new SyntheticDataset.RowSink() {
+                @Override
+                public void item(SyntheticDataset.ItemRow item) throws IOException {
+                    writer.column(item.id()).column(item.userId()).column(item.name()).column(item.categoryId())
+                            .column(item.brand()).column(item.size()).column(item.color())
+                            .cents(item.priceCents()).column(item.purchaseDate()).column(item.location())
+                            .column(item.status()).column(item.createdAt()).column(item.createdAt());
+                    writer.endRow();
+                    count[0]++;
+                }
+            };
+            case TRANSACTIONS -> new SyntheticDataset.RowSink() {
+                @Override
+                public void transaction(SyntheticDataset.TransactionRow transaction) throws IOException {
+                    writer.column(transaction.id()).column(transaction.userId()).column(transaction.itemId())
+                            .column(transaction.type()).column(1).cents(transaction.amountCents())
+                            .cents(transaction.amountCents()).column(transaction.date())
+                            .column(transaction.reason()).column(transaction.createdAt());
+                    writer.endRow();
+                    count[0]++;
+                }
+            };
+            case LEDGER_ENTRIES -> new SyntheticDataset.RowSink() {
+                @Override
+                public void ledgerEntry(SyntheticDataset.LedgerRow entry) throws IOException {
+                    writer.column(entry.id()).column(entry.userId()).column(entry.date()).cents(entry.amountCents())
+                            .column(entry.direction()).column(entry.accountId()).column(entry.itemId())
+                            .column(entry.categoryCode()).column(entry.note()).column(entry.createdAt());
+                    writer.endRow();
+                    count[0]++;
+                }
+            };
+        };
+    }
+
+    private void analyze() {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE users, accounts, items, inventory_transactions, ledger_entries");
+        } catch (SQLException e) {
+            throw new RuntimeException("更新统计信息失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 把第一个造数用户的账号、在库物品和账户写成压测配置，供 loadtest 的 --config 使用
+     */
+    private void writeLoadtestConfig(SyntheticDataset dataset, Options options) {
+        List<UUID> itemIds = new ArrayList<>();
+        List<UUID> accountIds = new ArrayList<>();
+        try {
+            dataset.generateUser(0, new SyntheticDataset.RowSink() {
+                @Override
+                public void account(UUID id, UUID userId, String name, Account.AccountType type,
+                                    LocalDateTime createdAt) {
+                    accountIds.add(id);
+                }
+
+                @Override
+                public void item(SyntheticDataset.ItemRow item) {
+                    if (item.status() == Item.ItemStatus.ACTIVE && itemIds.size() < LOADTEST_ITEM_IDS) {
+                        itemIds.add(item.id());
+                    }
+                }
+            });
+
+            Path file = options.loadtestConfig();
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write("username=" + dataset.username(0) + "\n");
+                writer.write("password=" + options.password() + "\n");
+                writer.write("transaction.item-ids=" + join(itemIds) + "\n");
+                writer.write("transaction.account-ids=" + join(accountIds) + "\n");
+            }
+            log.info("Wrote load test config to {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            throw new RuntimeException("写入压测配置失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static String join(List<UUID> ids) {
+        return ids.stream().map(UUID::toString).collect(Collectors.joining(","));
+    }
+
+    private enum Table {
+        USERS("users", "id, username, password_hash, created_at, updated_at"),
+        ACCOUNTS("accounts", "id, user_id, name, type, created_at"),
+        ITEMS("items", "id, user_id, name, category_id, brand, size, color, purchase_price, purchase_date, "
+                + "location, status, created_at, updated_at"),
+        TRANSACTIONS("inventory_transactions", "id, user_id, item_id, type, quantity, unit_price, total_amount, "
+                + "transaction_date, reason, created_at"),
+        LEDGER_ENTRIES("ledger_entries", "id, user_id, transaction_date, amount, direction, account_id, item_id, "
+                + "category_code, note, created_at");
+
+        private final String tableName;
+        private final String columns;
+
+        Table(String tableName, String columns) {
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * @param parallelism    每张表的并行分片数（连接池至少需要 2 倍于此的连接）
+     * @param endDate        数据的最晚日期，购买与出库日期都不晚于它
+     * @param loadtestConfig 为空时不写压测配置
+     */
+    public record Options(int users, int itemsPerUser, double outRatio, double adjustRatio, int historyDays,
+                          LocalDate endDate, long seed, String usernamePrefix, String password, int parallelism,
+                          Path loadtestConfig) {
+    }
+}
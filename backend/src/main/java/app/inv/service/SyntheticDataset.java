@@ -0,0 +1,225 @@
+package app.inv.service;
+
+import app.inv.entity.Account;
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.Item;
+import app.inv.entity.LedgerEntry;
+import app.inv.util.UuidV7;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * 造数的数据模型。每个用户的数据（含全部ID）只由种子和用户序号决定，
+ * 因此各表可以分别、并行地重新生成后导入，外键天然一致，内存中不需要保留任何ID。
+ * 分录按 {@link LedgerRule} 生成，与 {@link TransactionService} 记账一致。
+ */
+final class SyntheticDataset {
+
+    private static final String[] NOUNS = {"外套", "衬衫", "T恤", "卫衣", "牛仔裤", "休闲裤", "连衣裙", "半身裙",
+            "运动鞋", "跑鞋", "帆布鞋", "皮鞋", "双肩包", "手提包", "手表", "围巾", "帽子", "墨镜"};
+    private static final String[] BRANDS = {"Nike", "Adidas", "Uniqlo", "Zara", "H&M", "李宁", "安踏", "New Balance",
+            "Converse", "Vans", "Coach", "Casio", "Levi's", "MUJI", "The North Face", "Puma"};
+    private static final String[] COLORS = {"黑色", "白色", "灰色", "藏青", "蓝色", "红色", "卡其", "绿色", "米色"};
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "XXL", "38", "39", "40", "41", "42", "43", "均码"};
+    private static final String[] LOCATIONS = {"主卧衣柜", "次卧衣柜", "鞋柜", "储物间", "收纳箱A", "收纳箱B", "玄关"};
+
+    // 出库原因分布：转售居多
+    private static final InventoryTransaction.TransactionReason[] OUT_REASONS = {
+            InventoryTransaction.TransactionReason.SELL, InventoryTransaction.TransactionReason.DISPOSE,
+            InventoryTransaction.TransactionReason.GIFT, InventoryTransaction.TransactionReason.LOST};
+    private static final double[] OUT_REASON_WEIGHTS = {0.5, 0.75, 0.9, 1.0};
+
+    // 价格对数正态分布：中位数 200 元
+    private static final double PRICE_LOG_MEDIAN = Math.log(20_000);
+    private static final double PRICE_LOG_SIGMA = 0.9;
+    private static final double UNCATEGORIZED_RATIO = 0.05;
+    private static final int MEAN_HOLDING_DAYS = 180;
+
+    private final Settings settings;
+    private final List<UUID> categoryIds;
+    // 品类按 Zipf 分布选取：排名靠前的品类物品更多
+    private final double[] categoryCumulative;
+
+    SyntheticDataset(Settings settings, List<UUID> categoryIds) {
+        this.settings = settings;
+        this.categoryIds = categoryIds;
+        this.categoryCumulative = new double[categoryIds.size()];
+        double total = 0;
+        for (int i = 0; i < categoryIds.size(); i++) {
+            total += 1.0 / (i + 1);
+            categoryCumulative[i] = total;
+        }
+        for (int i = 0; i < categoryCumulative.length; i++) {
+            categoryCumulative[i] /= total;
+        }
+    }
+
+    String username(int userIndex) {
+        return String.format("%s-%06d", settings.usernamePrefix(), userIndex);
+    }
+
+    /**
+     * 按固定顺序生成一个用户的全部行，交给 sink；sink 只处理自己关心的表
+     */
+    void generateUser(int userIndex, RowSink sink) throws IOException {
+        SplittableRandom random = new SplittableRandom(settings.seed() ^ (userIndex * 0x9E3779B97F4A7C15L));
+        LocalDate endDate = settings.endDate();
+        LocalDate startDate = endDate.minusDays(settings.historyDays());
+
+        LocalDateTime userCreatedAt = startDate.atTime(9, 0);
+        UUID userId = uuid(userCreatedAt, random);
+        sink.user(userId, username(userIndex), userCreatedAt);
+
+        LocalDateTime accountCreatedAt = startDate.atTime(9, 5);
+        UUID cash = uuid(accountCreatedAt, random);
+        UUID bank = uuid(accountCreatedAt, random);
+        UUID platform = uuid(accountCreatedAt, random);
+        sink.account(cash, userId, "现金", Account.AccountType.CASH, accountCreatedAt);
+        sink.account(bank, userId, "银行卡", Account.AccountType.BANK, accountCreatedAt);
+        sink.account(platform, userId, "二手平台", Account.AccountType.PLATFORM, accountCreatedAt);
+
+        // 每个用户的物品数在平均值的 50%~150% 之间
+        int itemCount = Math.max(1, (int) Math.round(settings.itemsPerUser() * (0.5 + random.nextDouble())));
+        for (int i = 0; i < itemCount; i++) {
+            UUID categoryId = pickCategory(random);
+            String noun = pick(NOUNS, random);
+            String brand = pick(BRANDS, random);
+            String color = pick(COLORS, random);
+            String size = pick(SIZES, random);
+            String location = pick(LOCATIONS, random);
+            long priceCents = Math.min(5_000_000, Math.max(500,
+                    Math.round(Math.exp(PRICE_LOG_MEDIAN + PRICE_LOG_SIGMA * random.nextGaussian()))));
+            // 购买日期偏向近期
+            long daysAgo = Math.min(settings.historyDays() - 1,
+                    (long) (-Math.log(1 - random.nextDouble()) * settings.historyDays() / 3));
+            LocalDate purchaseDate = endDate.minusDays(daysAgo);
+            LocalDateTime createdAt = purchaseDate.atTime(8 + random.nextInt(14), random.nextInt(60), random.nextInt(60));
+            UUID itemId = uuid(createdAt, random);
+
+            post(sink, random, userId, itemId, random.nextDouble() < 0.6 ? cash : bank,
+                    InventoryTransaction.TransactionType.IN, InventoryTransaction.TransactionReason.PURCHASE,
+                    priceCents, purchaseDate, createdAt);
+
+            if (random.nextDouble() < settings.adjustRatio()) {
+                LocalDate adjustDate = purchaseDate.plusDays(random.nextInt((int) daysAgo + 1));
+                post(sink, random, userId, itemId, cash, InventoryTransaction.TransactionType.ADJUST,
+                        InventoryTransaction.TransactionReason.ADJUST, priceCents, adjustDate, adjustDate.atTime(20, 0));
+            }
+
+            Item.ItemStatus status = Item.ItemStatus.ACTIVE;
+            if (random.nextDouble() < settings.outRatio()) {
+                long holdingDays = (long) (-Math.log(1 - random.nextDouble()) * MEAN_HOLDING_DAYS);
+                LocalDate outDate = purchaseDate.plusDays(holdingDays);
+                InventoryTransaction.TransactionReason reason = pickOutReason(random);
+                // 转售价在原价的 30%~120% 之间，其余处置按原价核销
+                long amountCents = reason == InventoryTransaction.TransactionReason.SELL
+                        ? Math.max(100, Math.round(priceCents * (0.3 + 0.9 * random.nextDouble())))
+                        : priceCents;
+                if (!outDate.isAfter(endDate)) {
+                    post(sink, random, userId, itemId,
+                            reason == InventoryTransaction.TransactionReason.SELL ? platform : cash,
+                            InventoryTransaction.TransactionType.OUT, reason, amountCents, outDate,
+                            outDate.atTime(12, 0));
+                    status = Item.ItemStatus.REMOVED;
+                }
+            }
+
+            sink.item(new ItemRow(itemId, userId, brand + " " + color + noun, categoryId, brand, size, color,
+                    priceCents, purchaseDate, location, status, createdAt));
+        }
+    }
+
+    private void post(RowSink sink, SplittableRandom random, UUID userId, UUID itemId, UUID accountId,
+                      InventoryTransaction.TransactionType type, InventoryTransaction.TransactionReason reason,
+                      long amountCents, LocalDate date, LocalDateTime createdAt) throws IOException {
+        sink.transaction(new TransactionRow(uuid(createdAt, random), userId, itemId, type, reason, amountCents, date,
+                createdAt));
+        LedgerRule rule = LedgerRule.of(type, reason);
+        if (rule == null) {
+            return;
+        }
+        sink.ledgerEntry(new LedgerRow(uuid(createdAt, random), userId, date, amountCents, LedgerEntry.Direction.DEBIT,
+                accountId, itemId, rule.getDebitCode(), rule.getNote(), createdAt));
+        sink.ledgerEntry(new LedgerRow(uuid(createdAt, random), userId, date, amountCents, LedgerEntry.Direction.CREDIT,
+                accountId, itemId, rule.getCreditCode(), rule.getNote(), createdAt));
+    }
+
+    private UUID pickCategory(SplittableRandom random) {
+        double u = random.nextDouble();
+        if (categoryIds.isEmpty() || u < UNCATEGORIZED_RATIO) {
+            return null;
+        }
+        double target = (u - UNCATEGORIZED_RATIO) / (1 - UNCATEGORIZED_RATIO);
+        for (int i = 0; i < categoryCumulative.length; i++) {
+            if (target < categoryCumulative[i]) {
+                return categoryIds.get(i);
+            }
+        }
+        return categoryIds.get(categoryIds.size() - 1);
+    }
+
+    private static InventoryTransaction.TransactionReason pickOutReason(SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < OUT_REASON_WEIGHTS.length; i++) {
+            if (u < OUT_REASON_WEIGHTS[i]) {
+                return OUT_REASONS[i];
+            }
+        }
+        return OUT_REASONS[OUT_REASONS.length - 1];
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // 与实体主键一致的版本7 UUID，时间戳取行的创建时间（按UTC换算，与运行环境时区无关），随机位来自带种子的生成器
+    private static UUID uuid(LocalDateTime createdAt, SplittableRandom random) {
+        return UuidV7.of(createdAt.toInstant(ZoneOffset.UTC).toEpochMilli(), random.nextInt(), random.nextLong());
+    }
+
+    record Settings(long seed, int itemsPerUser, double outRatio, double adjustRatio, int historyDays,
+                    LocalDate endDate, String usernamePrefix) {
+    }
+
+    record ItemRow(UUID id, UUID userId, String name, UUID categoryId, String brand, String size, String color,
+                   long priceCents, LocalDate purchaseDate, String location, Item.ItemStatus status,
+                   LocalDateTime createdAt) {
+    }
+
+    record TransactionRow(UUID id, UUID userId, UUID itemId, InventoryTransaction.TransactionType type,
+                          InventoryTransaction.TransactionReason reason, long amountCents, LocalDate date,
+                          LocalDateTime createdAt) {
+    }
+
+    record LedgerRow(UUID id, UUID userId, LocalDate date, long amountCents, LedgerEntry.Direction direction,
+                     UUID accountId, UUID itemId, String categoryCode, String note, LocalDateTime createdAt) {
+    }
+
+    /**
+     * 行的接收方，默认忽略；每个导入任务只实现自己负责的表
+     */
+    interface RowSink {
+
+        default void user(UUID id, String username, LocalDateTime createdAt) throws IOException {
+        }
+
+        default void account(UUID id, UUID userId, String name, Account.AccountType type,
+                             LocalDateTime createdAt) throws IOException {
+        }
+
+        default void item(ItemRow item) throws IOException {
+        }
+
+        default void transaction(TransactionRow transaction) throws IOException {
+        }
+
+        default void ledgerEntry(LedgerRow entry) throws IOException {
+        }
+    }
+}
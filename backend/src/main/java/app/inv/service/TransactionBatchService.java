@@ -0,0 +1,120 @@
+package app.inv.service;
+
+import app.inv.dto.TransactionBatchResult;
+import app.inv.dto.TransactionRequest;
+import app.inv.entity.User;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 批量交易导入：流式解析JSON数组，按chunk提交到TransactionService，
+ * 每个chunk是一个独立事务，整个请求体不会一次性载入内存。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionBatchService {
+    
+    private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    
+    @Value("${app.batch-chunk-size:500}")
+    private int chunkSize;
+    
+    public List<TransactionBatchResult> importTransactions(User user, InputStream body) throws IOException {
+        List<TransactionBatchResult> results = new ArrayList<>();
+        List<TransactionRequest> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("请求体必须是JSON数组");
+            }
+            
+            int index = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("JSON数组不完整");
+                }
+                JsonNode node = objectMapper.readTree(parser);
+                int rowIndex = index++;
+                
+                TransactionRequest request;
+                try {
+                    request = objectMapper.treeToValue(node, TransactionRequest.class);
+                } catch (IOException e) {
+                    results.add(TransactionBatchResult.failure(rowIndex, "数据格式错误"));
+                    continue;
+                }
+                
+                String violation = validate(request);
+                if (violation != null) {
+                    results.add(TransactionBatchResult.failure(rowIndex, violation));
+                    continue;
+                }
+                
+                chunk.add(request);
+                chunkIndexes.add(rowIndex);
+                if (chunk.size() >= chunkSize) {
+                    results.addAll(flushChunk(user, chunk, chunkIndexes));
+                }
+            }
+        }
+        
+        if (!chunk.isEmpty()) {
+            results.addAll(flushChunk(user, chunk, chunkIndexes));
+        }
+        
+        results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return results;
+    }
+    
+    private List<TransactionBatchResult> flushChunk(User user, List<TransactionRequest> chunk,
+                                                    List<Integer> chunkIndexes) {
+        List<TransactionBatchResult> chunkResults = new ArrayList<>(chunk.size());
+        try {
+            // 校验失败的行不进入批次，批内下标通过chunkIndexes映射回原始下标
+            List<TransactionBatchResult> saved = transactionService.createTransactionBatch(user, chunk);
+            for (TransactionBatchResult result : saved) {
+                result.setIndex(chunkIndexes.get(result.getIndex()));
+                chunkResults.add(result);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Transaction batch of {} rows rolled back", chunk.size(), e);
+            for (Integer rowIndex : chunkIndexes) {
+                chunkResults.add(TransactionBatchResult.failure(rowIndex, "批次写入失败，已回滚"));
+            }
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+        return chunkResults;
+    }
+    
+    private String validate(TransactionRequest request) {
+        Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
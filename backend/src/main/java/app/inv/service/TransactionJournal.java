@@ -0,0 +1,178 @@
+package app.inv.service;
+
+import app.inv.entity.TransactionJournalCheckpoint;
+import app.inv.repository.TransactionJournalCheckpointRepository;
+import app.inv.util.JournalFile;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易日志的组提交写入：请求线程把记录放入队列，单个写线程取出当前排队的全部记录（至多 max-group-size 条），
+ * 依次追加后只刷盘一次，再通知这一组的请求线程。刷盘期间到达的请求自然归入下一组，
+ * 并发越高每次刷盘分摊的请求越多。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.transaction-journal.enabled", havingValue = "true")
+public class TransactionJournal {
+
+    private final JournalFile file;
+    private final String name;
+    private final int maxGroupSize;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final Timer fsyncTimer;
+    private final DistributionSummary groupSize;
+
+    private volatile boolean closed;
+    private volatile long appliedOffset;
+
+    public TransactionJournal(TransactionJournalCheckpointRepository checkpointRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.transaction-journal.name:default}") String name,
+                              @Value("${app.transaction-journal.directory:./data/journal}") Path directory,
+                              @Value("${app.transaction-journal.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${app.transaction-journal.max-group-size:1000}") int maxGroupSize)
+            throws IOException {
+        this.name = name;
+        this.maxGroupSize = maxGroupSize;
+        this.appliedOffset = checkpointRepository.findById(name)
+                .map(TransactionJournalCheckpoint::getAppliedOffset)
+                .orElse(0L);
+        this.file = JournalFile.open(directory, Math.toIntExact(segmentSize.toBytes()), appliedOffset);
+        if (file.endOffset() < appliedOffset) {
+            // 日志目录被替换或丢失了一部分，继续写入会产生与检查点重叠的偏移量
+            throw new IllegalStateException("交易日志 " + name + " 的末尾 " + file.endOffset()
+                    + " 早于已应用的检查点 " + appliedOffset);
+        }
+        log.info("Opened transaction journal {} at {} (checkpoint {}, end {})",
+                name, directory.toAbsolutePath(), appliedOffset, file.endOffset());
+
+        this.fsyncTimer = Timer.builder("transaction.journal.fsync").register(meterRegistry);
+        this.groupSize = DistributionSummary.builder("transaction.journal.group.size").register(meterRegistry);
+        // 积压：已写入但尚未应用到数据库的字节数
+        Gauge.builder("transaction.journal.lag", this, journal -> journal.file.durableOffset() - journal.appliedOffset)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::writeLoop, "transaction-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 追加一条记录，记录刷盘后返回的 future 完成，值为该记录之后的偏移量
+     */
+    public CompletableFuture<Long> append(byte[] payload) {
+        PendingAppend pending = new PendingAppend(payload, new CompletableFuture<>());
+        if (closed) {
+            pending.result().completeExceptionally(new IllegalStateException("交易日志已关闭"));
+            return pending.result();
+        }
+        queue.add(pending);
+        return pending.result();
+    }
+
+    public List<JournalFile.Record> read(long fromOffset, int maxRecords) {
+        return file.read(fromOffset, maxRecords);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAppliedOffset() {
+        return appliedOffset;
+    }
+
+    /**
+     * 应用线程提交一批后调用：记录进度并删除已完整应用的段
+     */
+    public void markApplied(long offset) {
+        appliedOffset = offset;
+        try {
+            synchronized (file) {
+                file.deleteSegmentsBefore(offset);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete applied journal segments before {}", offset, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        // 写线程处理完已排队的记录后退出
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        synchronized (file) {
+            file.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> group = new ArrayList<>(maxGroupSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                if (queue.isEmpty()) {
+                    continue;
+                }
+            }
+            queue.drainTo(group, maxGroupSize - group.size());
+            writeGroup(group);
+            group.clear();
+        }
+    }
+
+    private void writeGroup(List<PendingAppend> group) {
+        List<Long> offsets = new ArrayList<>(group.size());
+        synchronized (file) {
+            for (PendingAppend pending : group) {
+                try {
+                    offsets.add(file.append(pending.payload()));
+                } catch (IOException | RuntimeException e) {
+                    // 单条记录失败（如超过段大小）不影响同组其他记录
+                    offsets.add(null);
+                    pending.result().completeExceptionally(e);
+                }
+            }
+            try {
+                long start = System.nanoTime();
+                file.force();
+                fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                log.error("Transaction journal fsync failed", e);
+                group.forEach(pending -> pending.result().completeExceptionally(e));
+                return;
+            }
+        }
+        groupSize.record(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            if (offsets.get(i) != null) {
+                group.get(i).result().complete(offsets.get(i));
+            }
+        }
+    }
+
+    private record PendingAppend(byte[] payload, CompletableFuture<Long> result) {
+    }
+}
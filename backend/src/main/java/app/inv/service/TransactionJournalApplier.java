@@ -0,0 +1,162 @@
+package app.inv.service;
+
+import app.inv.util.JournalFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易日志应用线程：从检查点开始按顺序读取已刷盘的日志记录，每 batch-size 条一个事务写入数据库。
+ * 启动时即从检查点重放上次未应用的记录。数据库写入失败时整批回滚，退避后从同一位置重试；
+ * 同一批连续失败 max-apply-attempts 次后改为逐条应用这一批，单条记录仍连续失败 max-apply-attempts 次
+ * 即视为无法入账，写入拒绝表后跳过，不再阻塞后续记录。数据库不可用时写入拒绝表同样失败，记录不会被跳过。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.transaction-journal.enabled", havingValue = "true")
+public class TransactionJournalApplier implements SmartLifecycle {
+
+    private final TransactionJournal journal;
+    private final TransactionJournalService journalService;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long retryBackoffMillis;
+    private final int maxAttempts;
+    private final Counter failures;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public TransactionJournalApplier(TransactionJournal journal, TransactionJournalService journalService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.transaction-journal.apply-batch-size:1000}") int batchSize,
+                                     @Value("${app.transaction-journal.poll-interval:100ms}") Duration pollInterval,
+                                     @Value("${app.transaction-journal.retry-backoff:5s}") Duration retryBackoff,
+                                     @Value("${app.transaction-journal.max-apply-attempts:5}") int maxAttempts) {
+        this.journal = journal;
+        this.journalService = journalService;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.retryBackoffMillis = retryBackoff.toMillis();
+        this.maxAttempts = maxAttempts;
+        this.failures = meterRegistry.counter("transaction.journal.apply.failures");
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::runLoop, "transaction-journal-applier");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Started transaction journal applier from offset {}", journal.getAppliedOffset());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            // 不中断线程，正在应用的批次提交后退出，其余记录下次启动时重放
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runLoop() {
+        long offset = journal.getAppliedOffset();
+        // 逐条应用到这个偏移量为止（反复失败的那一批的末尾）
+        long isolateUntil = offset;
+        int attempts = 0;
+        while (running) {
+            List<JournalFile.Record> records;
+            long next;
+            try {
+                records = journal.read(offset, offset < isolateUntil ? 1 : batchSize);
+                if (records.isEmpty()) {
+                    if (!sleep(pollIntervalMillis)) {
+                        return;
+                    }
+                    continue;
+                }
+                next = records.get(records.size() - 1).nextOffset();
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.error("Failed to read transaction journal at offset {}, retrying in {} ms",
+                        offset, retryBackoffMillis, e);
+                if (!sleep(retryBackoffMillis)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                journalService.applyBatch(records, next);
+            } catch (RuntimeException e) {
+                failures.increment();
+                attempts++;
+                if (attempts >= maxAttempts && records.size() > 1) {
+                    // 找出导致整批失败的记录，其余记录照常入账
+                    log.warn("Applying {} journal records from offset {} failed {} times, applying one by one",
+                            records.size(), offset, attempts, e);
+                    isolateUntil = next;
+                    attempts = 0;
+                    continue;
+                }
+                if (attempts >= maxAttempts && skip(records.get(0), e)) {
+                    attempts = 0;
+                    offset = next;
+                    journal.markApplied(offset);
+                    continue;
+                }
+                log.error("Failed to apply transaction journal from offset {} (attempt {}), retrying in {} ms",
+                        offset, attempts, retryBackoffMillis, e);
+                if (!sleep(retryBackoffMillis)) {
+                    return;
+                }
+                continue;
+            }
+            attempts = 0;
+            offset = next;
+            journal.markApplied(offset);
+        }
+    }
+
+    private boolean skip(JournalFile.Record record, RuntimeException cause) {
+        try {
+            journalService.rejectRecord(record, "连续 " + maxAttempts + " 次入库失败: " + cause.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Failed to reject journal record at offset {}", record.offset(), e);
+            return false;
+        }
+        log.error("Skipped journal record at offset {} after {} failed attempts", record.offset(), maxAttempts, cause);
+        return true;
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
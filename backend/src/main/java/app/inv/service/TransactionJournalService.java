@@ -0,0 +1,209 @@
+package app.inv.service;
+
+import app.inv.dto.TransactionBatchResult;
+import app.inv.dto.TransactionRequest;
+import app.inv.entity.TransactionJournalRejection;
+import app.inv.entity.User;
+import app.inv.repository.TransactionJournalCheckpointRepository;
+import app.inv.repository.TransactionJournalRejectionRepository;
+import app.inv.repository.UserRepository;
+import app.inv.util.JournalFile;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 日志模式的交易受理与应用（app.transaction-journal.enabled=true 时启用）。
+ * 受理：校验后写入本地交易日志，刷盘即返回，不等待数据库提交。
+ * 应用：按日志顺序把一批记录按用户分组写入交易与分录，检查点在同一事务中前进，
+ * 崩溃后从检查点重放，已提交的批次不会重复入账。
+ * 受理后在应用时被拒绝的记录写入 transaction_journal_rejections，客户端按受理时返回的偏移量查询。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.transaction-journal.enabled", havingValue = "true")
+public class TransactionJournalService {
+
+    private static final int PENDING_SCAN_BATCH = 1000;
+
+    private final TransactionJournal journal;
+    private final TransactionService transactionService;
+    private final UserRepository userRepository;
+    private final TransactionJournalCheckpointRepository checkpointRepository;
+    private final TransactionJournalRejectionRepository rejectionRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration appendTimeout;
+    private final Counter rejected;
+
+    public TransactionJournalService(TransactionJournal journal,
+                                     TransactionService transactionService,
+                                     UserRepository userRepository,
+                                     TransactionJournalCheckpointRepository checkpointRepository,
+                                     TransactionJournalRejectionRepository rejectionRepository,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.transaction-journal.append-timeout:5s}") Duration appendTimeout) {
+        this.journal = journal;
+        this.transactionService = transactionService;
+        this.userRepository = userRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.rejectionRepository = rejectionRepository;
+        this.objectMapper = objectMapper;
+        this.appendTimeout = appendTimeout;
+        this.rejected = meterRegistry.counter("transaction.journal.rejected");
+    }
+
+    /**
+     * 校验并写入交易日志，刷盘后返回该记录之后的日志偏移量。
+     * 交易此时尚未入库，由 TransactionJournalApplier 异步写入。
+     */
+    public long accept(User user, TransactionRequest request) {
+        String rejection = transactionService.checkTransaction(user, request);
+        if (rejection != null) {
+            throw new RuntimeException(rejection);
+        }
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(new JournaledTransaction(user.getId(), request));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("交易序列化失败: " + e.getMessage(), e);
+        }
+        try {
+            return journal.append(payload).get(appendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 记录可能仍会写入，客户端重试前应先查询
+            throw new RuntimeException("交易日志写入超时");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("交易日志写入失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("交易日志写入被中断");
+        }
+    }
+
+    /**
+     * 应用一批日志记录并把检查点推进到 nextOffset，二者在同一事务中提交。
+     * 受理后才失效的记录（如物品已删除、期间已结账）与无法解析的记录写入拒绝表，不阻塞后续记录。
+     */
+    @Transactional
+    public void applyBatch(List<JournalFile.Record> records, long nextOffset) {
+        // 同一用户的记录保持日志顺序，合并为一次批量写入
+        Map<UUID, List<JournalFile.Record>> recordsByUser = new LinkedHashMap<>();
+        Map<UUID, List<TransactionRequest>> requestsByUser = new LinkedHashMap<>();
+        for (JournalFile.Record record : records) {
+            JournaledTransaction entry = decode(record);
+            if (entry == null) {
+                reject(record, null, "记录无法解析");
+                continue;
+            }
+            recordsByUser.computeIfAbsent(entry.userId(), id -> new ArrayList<>()).add(record);
+            requestsByUser.computeIfAbsent(entry.userId(), id -> new ArrayList<>()).add(entry.request());
+        }
+        for (Map.Entry<UUID, List<TransactionRequest>> group : requestsByUser.entrySet()) {
+            User user = userRepository.getReferenceById(group.getKey());
+            List<TransactionBatchResult> results = transactionService.createTransactionBatch(user, group.getValue());
+            for (TransactionBatchResult result : results) {
+                if (!result.isSuccess()) {
+                    reject(recordsByUser.get(group.getKey()).get(result.getIndex()), group.getKey(), result.getMessage());
+                }
+            }
+        }
+        checkpointRepository.advance(journal.getName(), nextOffset);
+    }
+
+    /**
+     * 跳过一条反复应用失败的记录：写入拒绝表并把检查点推进到它之后，二者在同一事务中提交
+     */
+    @Transactional
+    public void rejectRecord(JournalFile.Record record, String reason) {
+        JournaledTransaction entry = decode(record);
+        reject(record, entry != null ? entry.userId() : null, reason);
+        checkpointRepository.advance(journal.getName(), record.nextOffset());
+    }
+
+    /**
+     * 查询该用户在应用时被拒绝的交易，journalOffset 为受理时返回的偏移量，为空时返回最近的记录
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionJournalRejection> getRejections(User user, Long journalOffset, int limit) {
+        if (journalOffset != null) {
+            return rejectionRepository.findByUserIdAndJournalOffset(user.getId(), journalOffset);
+        }
+        return rejectionRepository.findByUserIdOrderByIdDesc(user.getId(), PageRequest.of(0, limit));
+    }
+
+    /**
+     * 本实例的交易日志中是否有该用户已受理、尚未入库且日期不晚于 date 的交易。
+     * 结账前调用：这些交易入库前生成的快照会漏记它们，入库时又会因期间已结账被拒绝。
+     */
+    public boolean hasPendingThrough(UUID userId, LocalDate date) {
+        long offset = journal.getAppliedOffset();
+        while (true) {
+            // 应用线程会删除已应用的段，每次从不早于检查点的位置读取
+            List<JournalFile.Record> records = journal.read(Math.max(offset, journal.getAppliedOffset()),
+                    PENDING_SCAN_BATCH);
+            if (records.isEmpty()) {
+                return false;
+            }
+            for (JournalFile.Record record : records) {
+                JournaledTransaction entry = decode(record);
+                if (entry != null && entry.userId().equals(userId)
+                        && !entry.request().getTransactionDate().isAfter(date)) {
+                    return true;
+                }
+            }
+            offset = records.get(records.size() - 1).nextOffset();
+        }
+    }
+
+    private void reject(JournalFile.Record record, UUID userId, String reason) {
+        TransactionJournalRejection rejection = new TransactionJournalRejection();
+        rejection.setJournalName(journal.getName());
+        rejection.setJournalOffset(record.nextOffset());
+        rejection.setUserId(userId);
+        // 无法解析的记录可能含有数据库文本类型不接受的字节，按Base64保存
+        rejection.setPayload(userId != null ? new String(record.payload(), StandardCharsets.UTF_8)
+                : Base64.getEncoder().encodeToString(record.payload()));
+        rejection.setReason(reason);
+        rejectionRepository.save(rejection);
+        rejected.increment();
+        log.error("Journaled transaction at offset {} rejected at apply time ({}): user {}",
+                record.offset(), reason, userId);
+    }
+
+    private JournaledTransaction decode(JournalFile.Record record) {
+        try {
+            return objectMapper.readValue(record.payload(), JournaledTransaction.class);
+        } catch (IOException e) {
+            log.error("Undecodable journal record at offset {}", record.offset(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 日志中的一条记录：已通过受理校验的交易请求
+     */
+    record JournaledTransaction(UUID userId, TransactionRequest request) {
+    }
+}
@@ -1,18 +1,50 @@
 package app.inv.service;
 
+import app.inv.dto.CursorPage;
+import app.inv.dto.TransactionBatchResult;
+import app.inv.dto.TransactionRequest;
+import app.inv.dto.TrendPeriod;
 import app.inv.entity.*;
+import app.inv.repository.AccountRepository;
 import app.inv.repository.InventoryTransactionRepository;
+import app.inv.repository.ItemRepository;
 import app.inv.repository.LedgerEntryRepository;
+import app.inv.repository.LedgerOutboxRepository;
+import app.inv.repository.PostingFunctionRepository;
+import app.inv.repository.RowCountEstimator;
+import app.inv.repository.TransactionDailyRollupRepository;
+import app.inv.util.CursorCodec;
+import app.inv.util.DateBounds;
+import app.inv.util.MetricsSupport;
+import app.inv.util.UuidV7;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +53,27 @@ public class TransactionService {
     
     private final InventoryTransactionRepository transactionRepository;
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final ItemRepository itemRepository;
+    private final AccountRepository accountRepository;
+    private final AccountBalanceService accountBalanceService;
+    private final DailyRollupService dailyRollupService;
+    private final TransactionDailyRollupRepository transactionDailyRollupRepository;
+    private final PeriodCloseService periodCloseService;
+    private final RowCountEstimator rowCountEstimator;
+    private final ReportCache reportCache;
+    private final LedgerOutboxRepository ledgerOutboxRepository;
+    private final PostingFunctionRepository postingFunctionRepository;
+    private final MeterRegistry meterRegistry;
+    
+    // 开启后分录由 LedgerPostingWorker 异步生成，交易只写发件箱
+    @Value("${app.ledger-posting.async:false}")
+    private boolean asyncPosting;
+    
+    @Value("${app.posting.engine:jpa}")
+    private PostingEngine postingEngine = PostingEngine.JPA;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     public InventoryTransaction createTransaction(User user, Item item, 
                                                 InventoryTransaction.TransactionType type,
@@ -28,33 +81,146 @@ public class TransactionService {
                                                 LocalDate transactionDate,
                                                 InventoryTransaction.TransactionReason reason,
                                                 String notes, Account account) {
+        // 耗时不含提交，提交由外层事务代理完成
+        return MetricsSupport.time(meterRegistry, "transaction.posting", Tags.of("type", String.valueOf(type)),
+                () -> postTransaction(user, item, type, quantity, unitPrice, transactionDate, reason, notes, account));
+    }
+    
+    private InventoryTransaction postTransaction(User user, Item item, InventoryTransaction.TransactionType type,
+                                                 Integer quantity, BigDecimal unitPrice, LocalDate transactionDate,
+                                                 InventoryTransaction.TransactionReason reason,
+                                                 String notes, Account account) {
+        periodCloseService.assertPeriodOpen(user, transactionDate);
         
-        BigDecimal totalAmount = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        InventoryTransaction transaction = buildTransaction(user, item, type, quantity, unitPrice,
+                transactionDate, reason, notes);
         
-        InventoryTransaction transaction = new InventoryTransaction();
-        transaction.setUser(user);
-        transaction.setItem(item);
-        transaction.setType(type);
-        transaction.setQuantity(quantity);
-        transaction.setUnitPrice(unitPrice);
-        transaction.setTotalAmount(totalAmount);
-        transaction.setTransactionDate(transactionDate);
-        transaction.setReason(reason);
-        transaction.setNotes(notes);
+        if (postingEngine == PostingEngine.FUNCTION) {
+            postThroughFunction(user, List.of(transaction), List.of(account));
+            reportCache.invalidateUser(user.getId());
+            countPosted(List.of(transaction));
+            return transaction;
+        }
         
         InventoryTransaction savedTransaction = transactionRepository.save(transaction);
+        dailyRollupService.applyTransactions(List.of(transaction));
         
-        // 生成记账分录
-        generateLedgerEntries(user, item, type, totalAmount, transactionDate, account, reason);
+        if (asyncPosting) {
+            ledgerOutboxRepository.save(buildOutboxRecord(savedTransaction, account));
+        } else {
+            // 生成记账分录
+            generateLedgerEntries(user, item, type, transaction.getTotalAmount(), transactionDate, account, reason);
+        }
         
         // 更新物品状态
         if (type == InventoryTransaction.TransactionType.OUT) {
             item.setStatus(Item.ItemStatus.REMOVED);
         }
         
+        reportCache.invalidateUser(user.getId());
+        countPosted(List.of(transaction));
         return savedTransaction;
     }
     
+    /**
+     * 批量创建交易（单个事务内的一批）。
+     * 物品与账户按批次一次性加载，交易与分录通过saveAll写入，
+     * 配合hibernate.jdbc.batch_size与order_inserts合并为JDBC批量语句。
+     * 单行校验失败只影响该行；数据库异常会回滚整批，由调用方标记整批失败。
+     * 返回结果的index为该行在requests中的下标。
+     */
+    public List<TransactionBatchResult> createTransactionBatch(User user, List<TransactionRequest> requests) {
+        return createTransactionBatch(user, requests, postingEngine);
+    }
+    
+    // 包内可见，供记账方式基准在同一进程中对比两种写入方式
+    List<TransactionBatchResult> createTransactionBatch(User user, List<TransactionRequest> requests,
+                                                        PostingEngine engine) {
+        Set<UUID> itemIds = requests.stream().map(TransactionRequest::getItemId).collect(Collectors.toSet());
+        Set<UUID> accountIds = requests.stream().map(TransactionRequest::getAccountId).collect(Collectors.toSet());
+        Map<UUID, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<UUID, Account> accounts = accountRepository.findAllById(accountIds).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        LocalDate earliestDate = requests.stream().map(TransactionRequest::getTransactionDate)
+                .min(LocalDate::compareTo).orElse(LocalDate.now());
+        LocalDate closedThrough = periodCloseService.getClosedThrough(user, earliestDate);
+        
+        TransactionBatchResult[] results = new TransactionBatchResult[requests.size()];
+        List<InventoryTransaction> transactions = new ArrayList<>(requests.size());
+        List<Integer> transactionPositions = new ArrayList<>(requests.size());
+        List<Account> transactionAccounts = new ArrayList<>(requests.size());
+        List<LedgerEntry> entries = new ArrayList<>(requests.size() * 2);
+        
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequest request = requests.get(i);
+            Item item = items.get(request.getItemId());
+            Account account = accounts.get(request.getAccountId());
+            String rejection = rejectReason(user, item, account, closedThrough, request);
+            if (rejection != null) {
+                results[i] = TransactionBatchResult.failure(i, rejection);
+                continue;
+            }
+            
+            InventoryTransaction transaction = buildTransaction(user, item, request.getType(),
+                    request.getQuantity(), request.getUnitPrice(), request.getTransactionDate(),
+                    request.getReason(), request.getNotes());
+            transactions.add(transaction);
+            transactionPositions.add(i);
+            transactionAccounts.add(account);
+            // 函数记账在数据库中生成分录并更新物品状态，托管的物品实体在函数返回后重新读取，提交时不会多出UPDATE
+            if (engine == PostingEngine.JPA) {
+                if (!asyncPosting) {
+                    entries.addAll(buildLedgerEntries(user, item, request.getType(), transaction.getTotalAmount(),
+                            request.getTransactionDate(), account, request.getReason()));
+                }
+                if (request.getType() == InventoryTransaction.TransactionType.OUT) {
+                    item.setStatus(Item.ItemStatus.REMOVED);
+                }
+            }
+        }
+        
+        if (engine == PostingEngine.FUNCTION) {
+            if (!transactions.isEmpty()) {
+                postThroughFunction(user, transactions, transactionAccounts);
+            }
+        } else {
+            transactionRepository.saveAll(transactions);
+            dailyRollupService.applyTransactions(transactions);
+            if (asyncPosting) {
+                List<LedgerOutbox> outbox = new ArrayList<>(transactions.size());
+                for (int i = 0; i < transactions.size(); i++) {
+                    outbox.add(buildOutboxRecord(transactions.get(i), transactionAccounts.get(i)));
+                }
+                ledgerOutboxRepository.saveAll(outbox);
+            } else {
+                postLedgerEntries(entries);
+            }
+        }
+        if (!transactions.isEmpty()) {
+            reportCache.invalidateUser(user.getId());
+            countPosted(transactions);
+        }
+        
+        for (int i = 0; i < transactions.size(); i++) {
+            int position = transactionPositions.get(i);
+            results[position] = TransactionBatchResult.success(position, transactions.get(i).getId());
+        }
+        
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * 按批量导入的同一套规则校验单笔交易，不写入任何数据；通过时返回 null，否则返回失败原因
+     */
+    @Transactional(readOnly = true)
+    public String checkTransaction(User user, TransactionRequest request) {
+        Item item = itemRepository.findById(request.getItemId()).orElse(null);
+        Account account = accountRepository.findById(request.getAccountId()).orElse(null);
+        LocalDate closedThrough = periodCloseService.getClosedThrough(user, request.getTransactionDate());
+        return rejectReason(user, item, account, closedThrough, request);
+    }
+    
     public Page<InventoryTransaction> getTransactionsByUser(User user, Pageable pageable) {
         return transactionRepository.findByUserOrderByTransactionDateDesc(user, pageable);
     }
@@ -63,7 +229,35 @@ public class TransactionService {
                                                                      InventoryTransaction.TransactionType type,
                                                                      UUID itemId, LocalDate startDate, LocalDate endDate,
                                                                      Pageable pageable) {
-        return transactionRepository.findByUserWithFilters(user, type, itemId, startDate, endDate, pageable);
+        return transactionRepository.findByUserWithFilters(user, type, itemId, DateBounds.lower(startDate),
+                DateBounds.upper(endDate), pageable);
+    }
+    
+    public CursorPage<InventoryTransaction> scrollTransactionsByUserWithFilters(User user,
+                                                                              InventoryTransaction.TransactionType type,
+                                                                              UUID itemId, LocalDate startDate,
+                                                                              LocalDate endDate, String cursor,
+                                                                              int size, boolean includeEstimate) {
+        LocalDate afterDate = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            afterDate = position.sortKeyAsDate();
+            afterId = position.getId();
+        }
+        
+        Slice<InventoryTransaction> slice = transactionRepository.scrollByUserWithFilters(user, type, itemId,
+                DateBounds.lower(startDate), DateBounds.upper(endDate, afterDate), afterDate, afterId,
+                PageRequest.of(0, CursorPage.clampSize(size)));
+        
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            InventoryTransaction last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = CursorCodec.encode(last.getTransactionDate(), last.getId());
+        }
+        Long estimatedTotal = includeEstimate ? rowCountEstimator.estimateTransactions(user.getId()) : null;
+        
+        return new CursorPage<>(slice.getContent(), nextCursor, slice.hasNext(), estimatedTotal);
     }
     
     public List<InventoryTransaction> getTransactionsByUserAndTypeAndDateRange(
@@ -73,44 +267,171 @@ public class TransactionService {
     
     public Double getTotalAmountByUserAndTypeAndDateRange(User user, InventoryTransaction.TransactionType type,
                                                          LocalDate startDate, LocalDate endDate) {
-        Double total = transactionRepository.getTotalAmountByUserAndTypeAndDateRange(user, type, startDate, endDate);
+        Double total = transactionDailyRollupRepository.getTotalAmountByUserAndTypeAndDateRange(
+                user.getId(), type, startDate, endDate);
         return total != null ? total : 0.0;
     }
     
     public List<Object[]> getOutboundAmountByReason(User user, LocalDate startDate, LocalDate endDate) {
-        return transactionRepository.getOutboundAmountByReason(user, startDate, endDate);
+        return transactionDailyRollupRepository.getOutboundAmountByReason(user.getId(), startDate, endDate);
+    }
+    
+    public List<Object[]> getAmountSeries(User user, TrendPeriod period, LocalDate startDate, LocalDate endDate) {
+        return transactionDailyRollupRepository.getAmountSeries(user.getId(), period.sqlUnit(), startDate, endDate);
+    }
+    
+    private InventoryTransaction buildTransaction(User user, Item item,
+                                                  InventoryTransaction.TransactionType type,
+                                                  Integer quantity, BigDecimal unitPrice,
+                                                  LocalDate transactionDate,
+                                                  InventoryTransaction.TransactionReason reason,
+                                                  String notes) {
+        BigDecimal totalAmount = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setUser(user);
+        transaction.setItem(item);
+        transaction.setType(type);
+        transaction.setQuantity(quantity);
+        transaction.setUnitPrice(unitPrice);
+        transaction.setTotalAmount(totalAmount);
+        transaction.setTransactionDate(transactionDate);
+        transaction.setReason(reason);
+        transaction.setNotes(notes);
+        return transaction;
+    }
+    
+    private String rejectReason(User user, Item item, Account account, LocalDate closedThrough,
+                                TransactionRequest request) {
+        if (item == null || item.getDeletedAt() != null || !isOwnedBy(item.getUser(), user)) {
+            return "物品不存在";
+        }
+        if (account == null || !isOwnedBy(account.getUser(), user)) {
+            return "账户不存在";
+        }
+        if (closedThrough != null && !request.getTransactionDate().isAfter(closedThrough)) {
+            return "会计期间已结账";
+        }
+        return null;
+    }
+    
+    private boolean isOwnedBy(User owner, User user) {
+        return owner != null && Objects.equals(owner.getId(), user.getId());
     }
     
     private void generateLedgerEntries(User user, Item item, InventoryTransaction.TransactionType type,
                                      BigDecimal amount, LocalDate transactionDate, Account account,
                                      InventoryTransaction.TransactionReason reason) {
-        
-        if (type == InventoryTransaction.TransactionType.IN) {
-            // 入库：借：存货，贷：现金/银行
-            createLedgerEntry(user, transactionDate, amount, LedgerEntry.Direction.DEBIT, 
-                           account, item, "INVENTORY", "物品入库");
-            createLedgerEntry(user, transactionDate, amount, LedgerEntry.Direction.CREDIT, 
-                           account, item, "CASH", "物品入库");
-        } else if (type == InventoryTransaction.TransactionType.OUT) {
-            if (reason == InventoryTransaction.TransactionReason.SELL) {
-                // 转售：借：现金，贷：存货+收益
-                createLedgerEntry(user, transactionDate, amount, LedgerEntry.Direction.DEBIT, 
-                               account, item, "CASH", "物品转售");
-                createLedgerEntry(user, transactionDate, amount, LedgerEntry.Direction.CREDIT, 
-                               account, item, "INVENTORY", "物品转售");
+        MetricsSupport.time(meterRegistry, "ledger.generation", Tags.of("type", String.valueOf(type)), () -> {
+            List<LedgerEntry> entries = buildLedgerEntries(user, item, type, amount, transactionDate, account, reason);
+            for (LedgerEntry entry : entries) {
+                createLedgerEntry(entry);
+            }
+            // 同一事务内更新账户余额与日汇总
+            accountBalanceService.applyEntries(entries);
+            dailyRollupService.applyLedgerEntries(entries);
+        });
+    }
+    
+    /**
+     * 写入一批分录并在同一事务内更新账户余额与日汇总，批量导入与异步记账共用
+     */
+    void postLedgerEntries(List<LedgerEntry> entries) {
+        ledgerEntryRepository.saveAll(entries);
+        accountBalanceService.applyEntries(entries);
+        dailyRollupService.applyLedgerEntries(entries);
+    }
+    
+    /**
+     * 一次调用数据库函数写入交易、分录（或发件箱）、余额、日汇总与物品状态。
+     * 主键在这里生成（与实体相同的版本7 UUID）并回填到交易对象上，分录科目取自 LedgerRule；
+     * 函数返回后回填数据库生成的创建时间，并重新读取被出库的物品，使返回值与库中一致。
+     */
+    private void postThroughFunction(User user, List<InventoryTransaction> transactions, List<Account> accounts) {
+        List<PostingFunctionRepository.PostingRow> rows = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            InventoryTransaction transaction = transactions.get(i);
+            transaction.setId(UuidV7.next());
+            LedgerRule rule = asyncPosting ? null : LedgerRule.of(transaction.getType(), transaction.getReason());
+            rows.add(new PostingFunctionRepository.PostingRow(transaction.getId(), transaction.getItem().getId(),
+                    accounts.get(i).getId(), transaction.getType().name(),
+                    transaction.getReason() != null ? transaction.getReason().name() : null,
+                    transaction.getQuantity(), transaction.getUnitPrice(), transaction.getTotalAmount(),
+                    transaction.getTransactionDate(), transaction.getNotes(),
+                    rule != null ? rule.getDebitCode() : null, rule != null ? rule.getCreditCode() : null,
+                    rule != null ? rule.getNote() : null, rule != null ? UuidV7.next() : null,
+                    rule != null ? UuidV7.next() : null));
+        }
+        Map<UUID, LocalDateTime> createdAt = postingFunctionRepository.post(user.getId(), rows, asyncPosting)
+                .stream().collect(Collectors.toMap(PostingFunctionRepository.PostedTransaction::transactionId,
+                        PostingFunctionRepository.PostedTransaction::createdAt));
+        Map<UUID, Item> removedItems = new LinkedHashMap<>();
+        for (InventoryTransaction transaction : transactions) {
+            transaction.setCreatedAt(createdAt.get(transaction.getId()));
+            if (transaction.getType() == InventoryTransaction.TransactionType.OUT) {
+                removedItems.putIfAbsent(transaction.getItem().getId(), transaction.getItem());
+            }
+        }
+        for (Item item : removedItems.values()) {
+            if (entityManager.contains(item)) {
+                entityManager.refresh(item);
             } else {
-                // 丢弃/赠与：借：损失，贷：存货
-                createLedgerEntry(user, transactionDate, amount, LedgerEntry.Direction.DEBIT, 
-                               account, item, "LOSS", "物品处置");
-                createLedgerEntry(user, transactionDate, amount, LedgerEntry.Direction.CREDIT, 
-                               account, item, "INVENTORY", "物品处置");
+                // 未托管的物品不会被刷写，直接同步内存中的状态
+                item.setStatus(Item.ItemStatus.REMOVED);
+            }
+        }
+    }
+    
+    private LedgerOutbox buildOutboxRecord(InventoryTransaction transaction, Account account) {
+        LedgerOutbox record = new LedgerOutbox();
+        record.setTransaction(transaction);
+        record.setUserId(transaction.getUser().getId());
+        record.setAccountId(account.getId());
+        return record;
+    }
+    
+    /**
+     * 事务提交后再计数，回滚的交易不计入；没有事务时（如单元测试）立即计数
+     */
+    private void countPosted(List<InventoryTransaction> transactions) {
+        Runnable count = () -> {
+            for (InventoryTransaction transaction : transactions) {
+                InventoryTransaction.TransactionReason reason = transaction.getReason();
+                meterRegistry.counter("transaction.posted", "type", String.valueOf(transaction.getType()),
+                        "reason", reason != null ? reason.name() : "NONE").increment();
             }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count.run();
+                }
+            });
+        } else {
+            count.run();
         }
     }
     
-    private void createLedgerEntry(User user, LocalDate transactionDate, BigDecimal amount,
-                                  LedgerEntry.Direction direction, Account account, Item item,
-                                  String categoryCode, String note) {
+    // 包内可见，供基准测试直接调用
+    List<LedgerEntry> buildLedgerEntries(User user, Item item, InventoryTransaction.TransactionType type,
+                                         BigDecimal amount, LocalDate transactionDate, Account account,
+                                         InventoryTransaction.TransactionReason reason) {
+        List<LedgerEntry> entries = new ArrayList<>(2);
+        LedgerRule rule = LedgerRule.of(type, reason);
+        if (rule != null) {
+            entries.add(buildLedgerEntry(user, transactionDate, amount, LedgerEntry.Direction.DEBIT,
+                           account, item, rule.getDebitCode(), rule.getNote()));
+            entries.add(buildLedgerEntry(user, transactionDate, amount, LedgerEntry.Direction.CREDIT,
+                           account, item, rule.getCreditCode(), rule.getNote()));
+        }
+        
+        return entries;
+    }
+    
+    private LedgerEntry buildLedgerEntry(User user, LocalDate transactionDate, BigDecimal amount,
+                                         LedgerEntry.Direction direction, Account account, Item item,
+                                         String categoryCode, String note) {
         LedgerEntry entry = new LedgerEntry();
         entry.setUser(user);
         entry.setTransactionDate(transactionDate);
@@ -120,7 +441,10 @@ public class TransactionService {
         entry.setItem(item);
         entry.setCategoryCode(categoryCode);
         entry.setNote(note);
-        
+        return entry;
+    }
+    
+    private void createLedgerEntry(LedgerEntry entry) {
         ledgerEntryRepository.save(entry);
     }
 }
@@ -0,0 +1,210 @@
+package app.inv.service;
+
+import app.inv.dto.Suggestion;
+import app.inv.repository.ItemRepository;
+import app.inv.util.PrefixIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 输入联想：每个用户一份内存索引（物品名称、品牌），品类名称全局共享一份（随品类树快照重建）。
+ * 用户索引在首次查询时从数据库加载，之后随物品写操作在事务提交后增量更新，
+ * 空闲超过 idle-timeout 后释放，已加载的用户数超过 max-users 时释放最久未使用的索引；查询本身不访问数据库。
+ */
+@Service
+public class TypeaheadService {
+
+    private final ItemRepository itemRepository;
+    private final CategoryTreeService categoryTreeService;
+    private final long idleTimeoutMillis;
+    private final int maxUsers;
+
+    private final Map<UUID, UserIndex> userIndexes = new ConcurrentHashMap<>();
+    // 加载中的用户的写版本，用于丢弃加载期间发生过写入的索引。版本号取自全局递增序列、从不复用：
+    // 写入时删除该用户的版本号即相当于递增，加载结束后也删除，因此只为正在加载的用户保留条目
+    private final Map<UUID, Long> writeVersions = new ConcurrentHashMap<>();
+    private final AtomicLong writeVersionSequence = new AtomicLong();
+    // 查询顺序号，用于按最近使用淘汰；毫秒时间戳在同一毫秒内无法区分先后
+    private final AtomicLong useSequence = new AtomicLong();
+    private volatile CategoryIndex categoryIndex;
+    private volatile long lastSweep = System.currentTimeMillis();
+
+    public TypeaheadService(ItemRepository itemRepository, CategoryTreeService categoryTreeService,
+                            @Value("${app.typeahead.idle-timeout:30m}") Duration idleTimeout,
+                            @Value("${app.typeahead.max-users:10000}") int maxUsers) {
+        this.itemRepository = itemRepository;
+        this.categoryTreeService = categoryTreeService;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.maxUsers = maxUsers;
+    }
+
+    public List<Suggestion> suggest(UUID userId, String query, int limit) {
+        long now = System.currentTimeMillis();
+        evictIdle(now);
+
+        UserIndex userIndex = userIndexes.get(userId);
+        if (userIndex == null) {
+            userIndex = load(userId);
+        }
+        userIndex.lastAccess = now;
+        userIndex.lastUse = useSequence.incrementAndGet();
+        if (userIndexes.size() > maxUsers) {
+            evictLeastRecentlyUsed();
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        synchronized (userIndex) {
+            suggestions.addAll(userIndex.index.search(query, limit));
+        }
+        // 品类索引构建后只读，无需加锁
+        suggestions.addAll(categoryIndex().search(query, limit));
+        // 物品词优先于品类，同类按使用次数
+        suggestions.sort(Comparator.comparing((Suggestion s) -> s.getType() == Suggestion.Type.CATEGORY)
+                .thenComparing(Comparator.comparingInt(Suggestion::getCount).reversed()));
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    public void itemAdded(UUID userId, String name, String brand) {
+        afterCommit(userId, index -> {
+            index.add(name, Suggestion.Type.ITEM);
+            index.add(brand, Suggestion.Type.BRAND);
+        });
+    }
+
+    public void itemRemoved(UUID userId, String name, String brand) {
+        afterCommit(userId, index -> {
+            index.remove(name, Suggestion.Type.ITEM);
+            index.remove(brand, Suggestion.Type.BRAND);
+        });
+    }
+
+    public void itemChanged(UUID userId, String oldName, String oldBrand, String newName, String newBrand) {
+        afterCommit(userId, index -> {
+            index.remove(oldName, Suggestion.Type.ITEM);
+            index.remove(oldBrand, Suggestion.Type.BRAND);
+            index.add(newName, Suggestion.Type.ITEM);
+            index.add(newBrand, Suggestion.Type.BRAND);
+        });
+    }
+
+    int loadedUserCount() {
+        return userIndexes.size();
+    }
+
+    private UserIndex load(UUID userId) {
+        long versionBefore = writeVersion(userId);
+        UserIndex built = new UserIndex();
+        for (Object[] row : itemRepository.findSuggestTermsByUserId(userId)) {
+            built.index.add((String) row[0], Suggestion.Type.ITEM);
+            built.index.add((String) row[1], Suggestion.Type.BRAND);
+        }
+        // 加载期间有写入时不安装，本次直接使用，下次查询重新加载
+        UserIndex installed = userIndexes.compute(userId, (id, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            Long versionNow = writeVersions.get(userId);
+            return versionNow != null && versionNow == versionBefore ? built : null;
+        });
+        // 只在版本号未变时删除，不影响同时开始的其他加载
+        writeVersions.remove(userId, versionBefore);
+        return installed != null ? installed : built;
+    }
+
+    private void afterCommit(UUID userId, Consumer<PrefixIndex> change) {
+        if (userId == null) {
+            return;
+        }
+        Runnable apply = () -> {
+            writeVersions.remove(userId);
+            userIndexes.computeIfPresent(userId, (id, userIndex) -> {
+                synchronized (userIndex) {
+                    change.accept(userIndex.index);
+                }
+                return userIndex;
+            });
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private PrefixIndex categoryIndex() {
+        CategoryTree tree = categoryTreeService.getTree();
+        CategoryIndex current = categoryIndex;
+        if (current == null || current.treeVersion() != tree.getVersion()) {
+            // 品类树快照变化后重建
+            PrefixIndex index = new PrefixIndex();
+            for (CategoryTree.Node node : tree.getNodes()) {
+                index.add(node.getName(), Suggestion.Type.CATEGORY);
+            }
+            current = new CategoryIndex(index, tree.getVersion());
+            categoryIndex = current;
+        }
+        return current.index();
+    }
+
+    private void evictIdle(long now) {
+        if (now - lastSweep < 60_000) {
+            return;
+        }
+        lastSweep = now;
+        userIndexes.entrySet().removeIf(entry -> now - entry.getValue().lastAccess > idleTimeoutMillis);
+    }
+
+    /**
+     * 释放最久未使用的索引直到不超过 max-users；只在超出时执行，遍历的规模与 max-users 相当
+     */
+    private void evictLeastRecentlyUsed() {
+        // 先取顺序号快照再排序，排序期间其他线程的查询会修改 lastUse
+        List<UseSnapshot> snapshots = new ArrayList<>(userIndexes.size());
+        userIndexes.forEach((userId, userIndex) -> snapshots.add(new UseSnapshot(userId, userIndex, userIndex.lastUse)));
+        int excess = snapshots.size() - maxUsers;
+        if (excess <= 0) {
+            return;
+        }
+        snapshots.sort(Comparator.comparingLong(UseSnapshot::lastUse));
+        for (UseSnapshot snapshot : snapshots.subList(0, excess)) {
+            userIndexes.remove(snapshot.userId(), snapshot.userIndex());
+        }
+    }
+
+    int writeVersionCount() {
+        return writeVersions.size();
+    }
+
+    private long writeVersion(UUID userId) {
+        return writeVersions.computeIfAbsent(userId, id -> writeVersionSequence.incrementAndGet());
+    }
+
+    private static final class UserIndex {
+        private final PrefixIndex index = new PrefixIndex();
+        private volatile long lastAccess = System.currentTimeMillis();
+        private volatile long lastUse;
+    }
+
+    private record CategoryIndex(PrefixIndex index, long treeVersion) {
+    }
+
+    private record UseSnapshot(UUID userId, UserIndex userIndex, long lastUse) {
+    }
+}
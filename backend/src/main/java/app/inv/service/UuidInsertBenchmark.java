@@ -0,0 +1,154 @@
+package app.inv.service;
+
+import app.inv.util.UuidV7;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 主键插入基准：分别以版本4随机UUID与版本7时间有序UUID为主键，向结构与 ledger_entries 相近的临时表
+ * 按批插入相同行数（每批一个事务，与记账一致），比较吞吐、主键索引大小与产生的WAL量。
+ * 随机主键在索引超出缓存后频繁读入、拆分叶子页，差异随行数增大而明显，尾段吞吐反映的就是这一阶段。
+ */
+@Slf4j
+@Service
+@Profile("benchmark")
+@RequiredArgsConstructor
+public class UuidInsertBenchmark {
+
+    // 最后 20% 的批次单独统计吞吐
+    private static final double TAIL_FRACTION = 0.2;
+    private static final int USERS = 1000;
+
+    private final DataSource dataSource;
+
+    public List<Result> run(long rows, int batchSize) {
+        List<Result> results = new ArrayList<>();
+        for (Variant variant : Variant.values()) {
+            results.add(run(variant, rows, batchSize));
+        }
+        return results;
+    }
+
+    private Result run(Variant variant, long rows, int batchSize) {
+        String table = "uuid_insert_benchmark_" + variant.name().toLowerCase();
+        try (Connection connection = dataSource.getConnection()) {
+            execute(connection, "DROP TABLE IF EXISTS " + table);
+            execute(connection, "CREATE TABLE " + table + " (id UUID PRIMARY KEY, user_id UUID NOT NULL, "
+                    + "amount NUMERIC(18, 2) NOT NULL, note VARCHAR(200), created_at TIMESTAMP NOT NULL)");
+            String walStart = queryString(connection, "SELECT pg_current_wal_lsn()::text");
+
+            // 同一种子，两种主键下其余列完全相同
+            SplittableRandom random = new SplittableRandom(42);
+            UUID[] userIds = new UUID[USERS];
+            for (int i = 0; i < USERS; i++) {
+                userIds[i] = new UUID(random.nextLong(), random.nextLong());
+            }
+
+            connection.setAutoCommit(false);
+            long tailStartRow = rows - (long) (rows * TAIL_FRACTION);
+            long started = System.nanoTime();
+            long tailStarted = started;
+            boolean inTail = false;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + table + " (id, user_id, amount, note, created_at) VALUES (?, ?, ?, ?, ?)")) {
+                long inserted = 0;
+                while (inserted < rows) {
+                    if (!inTail && inserted >= tailStartRow) {
+                        inTail = true;
+                        tailStarted = System.nanoTime();
+                    }
+                    int batch = (int) Math.min(batchSize, rows - inserted);
+                    for (int i = 0; i < batch; i++) {
+                        insert.setObject(1, variant.generator.get());
+                        insert.setObject(2, userIds[random.nextInt(USERS)]);
+                        insert.setBigDecimal(3, BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+                        insert.setString(4, "物品入库");
+                        insert.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                    connection.commit();
+                    inserted += batch;
+                }
+            }
+            long finished = System.nanoTime();
+            connection.setAutoCommit(true);
+
+            long walBytes = queryLong(connection,
+                    "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '" + walStart + "'::pg_lsn)::bigint");
+            long indexBytes = queryLong(connection, "SELECT pg_relation_size('" + table + "_pkey')");
+            long tableBytes = queryLong(connection, "SELECT pg_relation_size('" + table + "')");
+            execute(connection, "DROP TABLE " + table);
+
+            Result result = new Result(variant.name(), rows,
+                    rows / seconds(finished - started),
+                    (rows - tailStartRow) / seconds(finished - tailStarted),
+                    indexBytes, tableBytes, walBytes);
+            log.info("{}: {} rows, {} rows/s (tail {} rows/s), pkey {} MB, table {} MB, WAL {} MB",
+                    result.variant(), rows, Math.round(result.rowsPerSecond()),
+                    Math.round(result.tailRowsPerSecond()), result.indexBytes() >> 20, result.tableBytes() >> 20,
+                    result.walBytes() >> 20);
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException("主键插入基准执行失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static double seconds(long nanos) {
+        return Math.max(nanos, 1) / 1_000_000_000.0;
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String queryString(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static long queryLong(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private enum Variant {
+        V4(UUID::randomUUID),
+        V7(UuidV7::next);
+
+        private final Supplier<UUID> generator;
+
+        Variant(Supplier<UUID> generator) {
+            this.generator = generator;
+        }
+    }
+
+    /**
+     * @param tailRowsPerSecond 最后 20% 行的吞吐，索引已较大时的稳态表现
+     */
+    public record Result(String variant, long rows, double rowsPerSecond, double tailRowsPerSecond,
+                         long indexBytes, long tableBytes, long walBytes) {
+    }
+}
@@ -0,0 +1,81 @@
+package app.inv.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 按 PostgreSQL COPY 文本格式逐行写出：列之间用制表符分隔，NULL 写作 \N，
+ * 反斜杠、制表符和换行转义。金额以分为单位传入，写成两位小数。
+ */
+public final class CopyRowWriter implements Closeable {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Writer out;
+    private boolean firstColumn = true;
+
+    public CopyRowWriter(Writer out) {
+        this.out = out;
+    }
+
+    public CopyRowWriter column(Object value) throws IOException {
+        separator();
+        if (value == null) {
+            out.write("\\N");
+        } else if (value instanceof LocalDateTime timestamp) {
+            out.write(TIMESTAMP.format(timestamp));
+        } else {
+            writeEscaped(value.toString());
+        }
+        return this;
+    }
+
+    public CopyRowWriter cents(long cents) throws IOException {
+        separator();
+        if (cents < 0) {
+            out.write('-');
+            cents = -cents;
+        }
+        out.write(Long.toString(cents / 100));
+        out.write('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            out.write('0');
+        }
+        out.write(Long.toString(fraction));
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        out.write('\n');
+        firstColumn = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separator() throws IOException {
+        if (!firstColumn) {
+            out.write('\t');
+        }
+        firstColumn = false;
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> out.write("\\\\");
+                case '\t' -> out.write("\\t");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                default -> out.write(c);
+            }
+        }
+    }
+}
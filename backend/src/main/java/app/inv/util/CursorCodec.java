@@ -0,0 +1,62 @@
+package app.inv.util;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * 游标分页令牌：将 (排序键, id) 编码为不透明的base64url字符串。
+ */
+public final class CursorCodec {
+    
+    private static final char SEPARATOR = '|';
+    private static final String INVALID_CURSOR = "无效的分页游标";
+    
+    private CursorCodec() {
+    }
+    
+    public static String encode(Object sortKey, UUID id) {
+        String raw = sortKey + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static Cursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new Cursor(raw.substring(0, separator), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        }
+    }
+    
+    @Value
+    public static class Cursor {
+        String sortKey;
+        UUID id;
+        
+        /**
+         * 按日期解析排序键，格式不符（如游标来自其他接口）时抛出 IllegalArgumentException
+         */
+        public LocalDate sortKeyAsDate() {
+            try {
+                return LocalDate.parse(sortKey);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(INVALID_CURSOR);
+            }
+        }
+        
+        public LocalDateTime sortKeyAsDateTime() {
+            try {
+                return LocalDateTime.parse(sortKey);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(INVALID_CURSOR);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package app.inv.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 把可选的日期条件换成总是存在的上下界。
+ * 交易表与分录表按 transaction_date 分区，"(:startDate IS NULL OR ...)" 这类条件在通用执行计划中无法裁剪分区，
+ * 查询统一写成 "transactionDate BETWEEN :startDate AND :endDate"，未指定的一端用极值代替。
+ */
+public final class DateBounds {
+    
+    public static final LocalDate MIN = LocalDate.of(1, 1, 1);
+    public static final LocalDate MAX = LocalDate.of(9999, 12, 31);
+    public static final LocalDateTime MAX_TIME = MAX.atStartOfDay();
+    
+    private DateBounds() {
+    }
+    
+    public static LocalDate lower(LocalDate startDate) {
+        return startDate != null ? startDate : MIN;
+    }
+    
+    public static LocalDate upper(LocalDate endDate) {
+        return endDate != null ? endDate : MAX;
+    }
+    
+    /**
+     * 游标分页的上界：翻页位置之后的行不会晚于游标日期，用它收紧上界，翻到较早的页时不再扫描较新的分区
+     */
+    public static LocalDate upper(LocalDate endDate, LocalDate afterDate) {
+        LocalDate upper = upper(endDate);
+        return afterDate != null && afterDate.isBefore(upper) ? afterDate : upper;
+    }
+    
+    /**
+     * 按创建时间游标分页的上界：无游标时为极值。"createdAt <= :upper" 总是存在，可直接作为索引范围条件，
+     * 而 "(:after IS NULL OR createdAt < :after OR ...)" 只能在取出的行上逐行过滤
+     */
+    public static LocalDateTime upperTime(LocalDateTime afterCreatedAt) {
+        return afterCreatedAt != null ? afterCreatedAt : MAX_TIME;
+    }
+}
@@ -0,0 +1,290 @@
+package app.inv.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 只追加的日志文件：按固定大小分段，每段整体内存映射，文件名为该段起始的逻辑偏移量。
+ * 记录格式为 [长度 int][CRC32C int][内容]，段尾放不下的记录写入下一段，下一段的起始偏移量为上一段起始 + 段大小。
+ * 打开时从检查点所在段开始逐段逐条校验，第一条未写完的记录（长度越界、校验失败，或长度为 0 但其后仍有数据）
+ * 即为日志末尾：该记录及其后的内容被清零，之后的段只可能含有崩溃前尚未确认的写入，整段删除。
+ * <p>
+ * 追加与刷盘只能由一个线程调用；读取可以在另一个线程进行，只能读到已刷盘的记录。
+ * 读取不加锁，与删除段并发时跳过已删除的段。
+ */
+public final class JournalFile implements Closeable {
+
+    public static final int HEADER_SIZE = 8;
+
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private Segment current;
+    private int position;
+    private long forcedOffset;
+    private volatile long durableOffset;
+
+    private JournalFile(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * 打开或创建日志目录
+     *
+     * @param startOffset 目录为空时第一段的起始偏移量（通常为已应用的检查点），保证新记录的偏移量不小于它
+     */
+    public static JournalFile open(Path directory, int segmentSize, long startOffset) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("段大小过小: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        JournalFile journal = new JournalFile(directory, segmentSize);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                long base = Long.parseLong(file.getFileName().toString().replace(SUFFIX, ""));
+                if (Files.size(file) != segmentSize) {
+                    throw new IllegalStateException("日志段大小与配置不一致: " + file);
+                }
+                journal.segments.put(base, journal.map(file, base, false));
+            }
+        }
+        if (journal.segments.isEmpty()) {
+            journal.current = journal.createSegment(startOffset);
+            journal.position = 0;
+        } else {
+            journal.recover(startOffset);
+        }
+        journal.forcedOffset = journal.endOffset();
+        journal.durableOffset = journal.forcedOffset;
+        return journal;
+    }
+
+    /**
+     * 追加一条记录（尚未刷盘），返回该记录之后的偏移量
+     */
+    public long append(byte[] payload) throws IOException {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("记录内容不能为空");
+        }
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("记录超过日志段大小: " + payload.length);
+        }
+        if (position + recordSize > segmentSize) {
+            current = createSegment(current.base + segmentSize);
+            position = 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        current.buffer.put(position + HEADER_SIZE, payload);
+        current.buffer.putInt(position + 4, (int) crc.getValue());
+        // 长度最后写入，未写完的记录在恢复时表现为长度 0 或校验失败
+        current.buffer.putInt(position, payload.length);
+        position += recordSize;
+        return endOffset();
+    }
+
+    /**
+     * 把上次刷盘之后追加的记录写入磁盘，返回已刷盘的偏移量；之后读取方可见这些记录
+     */
+    public long force() {
+        long end = endOffset();
+        if (end == forcedOffset) {
+            return end;
+        }
+        // 上次刷盘后可能已切换到新段，旧段尾部也需要刷盘
+        for (Segment segment : segments.subMap(segments.floorKey(forcedOffset), true, current.base, true).values()) {
+            long from = Math.max(forcedOffset, segment.base);
+            long to = Math.min(end, segment.base + segmentSize);
+            if (to > from) {
+                segment.buffer.force((int) (from - segment.base), (int) (to - from));
+            }
+        }
+        forcedOffset = end;
+        durableOffset = end;
+        return end;
+    }
+
+    public long endOffset() {
+        return current.base + position;
+    }
+
+    public long durableOffset() {
+        return durableOffset;
+    }
+
+    /**
+     * 从指定偏移量开始读取至多 maxRecords 条已刷盘的记录；偏移量早于最早一段时从最早一段开始
+     */
+    public List<Record> read(long fromOffset, int maxRecords) {
+        List<Record> records = new ArrayList<>();
+        long limit = durableOffset;
+        long offset = Math.max(fromOffset, segments.firstKey());
+        while (offset < limit && records.size() < maxRecords) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                // 读取期间较早的段已被应用线程删除，从现存的最早一段继续
+                Long first = segments.ceilingKey(offset);
+                if (first == null) {
+                    break;
+                }
+                offset = first;
+                continue;
+            }
+            Segment segment = entry.getValue();
+            int pos = (int) (offset - segment.base);
+            int length = pos + HEADER_SIZE <= segmentSize ? segment.buffer.getInt(pos) : 0;
+            if (length == 0) {
+                // 段尾未使用的空间，继续读下一段
+                offset = segment.base + segmentSize;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(pos + HEADER_SIZE, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buffer.getInt(pos + 4)) {
+                throw new IllegalStateException("日志记录校验失败，偏移量 " + offset);
+            }
+            long next = offset + HEADER_SIZE + length;
+            records.add(new Record(offset, next, payload));
+            offset = next;
+        }
+        return records;
+    }
+
+    /**
+     * 删除完全位于指定偏移量之前的段（当前写入段除外）
+     */
+    public void deleteSegmentsBefore(long offset) throws IOException {
+        for (Segment segment : new ArrayList<>(segments.headMap(current.base).values())) {
+            if (segment.base + segmentSize <= offset) {
+                segments.remove(segment.base);
+                // 映射在缓冲区被回收时释放
+                Files.deleteIfExists(segment.path);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        segments.clear();
+    }
+
+    /**
+     * 逐段校验检查点所在段及之后的段，把第一处残缺记录之后的内容清零、之后的段删除，并定位写入位置
+     */
+    private void recover(long checkpoint) throws IOException {
+        Long first = segments.floorKey(checkpoint);
+        boolean torn = false;
+        for (Segment segment : new ArrayList<>(segments.tailMap(first != null ? first : segments.firstKey()).values())) {
+            if (torn) {
+                segments.remove(segment.base);
+                Files.delete(segment.path);
+                continue;
+            }
+            int end = validEnd(segment);
+            torn = clearFrom(segment, end);
+            // 只有放不下的记录才写入下一段；下一段的首条记录在本段剩余空间放得下，说明本段末尾有记录整条丢失
+            Map.Entry<Long, Segment> next = segments.higherEntry(segment.base);
+            if (!torn && next != null) {
+                int length = next.getValue().buffer.getInt(0);
+                torn = length > 0 && length <= segmentSize - end - HEADER_SIZE;
+            }
+            current = segment;
+            position = end;
+        }
+    }
+
+    /**
+     * 返回该段中连续有效记录的末尾位置
+     */
+    private int validEnd(Segment segment) {
+        int pos = 0;
+        while (pos + HEADER_SIZE <= segmentSize) {
+            int length = segment.buffer.getInt(pos);
+            if (length <= 0 || pos + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(pos + HEADER_SIZE, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buffer.getInt(pos + 4)) {
+                break;
+            }
+            pos += HEADER_SIZE + length;
+        }
+        return pos;
+    }
+
+    /**
+     * 有效记录之后应全为 0（段尾未使用的空间）；有残留数据说明崩溃时有记录未写完，清零并返回 true。
+     * 残留的半条记录可能被较短的新记录部分覆盖，必须清零避免被误读。
+     */
+    private boolean clearFrom(Segment segment, int pos) {
+        boolean dirty = false;
+        for (int i = pos; i < segmentSize && !dirty; i++) {
+            dirty = segment.buffer.get(i) != 0;
+        }
+        if (dirty) {
+            segment.buffer.put(pos, new byte[segmentSize - pos]);
+            segment.buffer.force();
+        }
+        return dirty;
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Segment segment = map(directory.resolve(String.format("%020d%s", base, SUFFIX)), base, true);
+        segments.put(base, segment);
+        // 新文件的目录项也要落盘，否则崩溃后整段可能丢失
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // 部分平台不支持对目录执行 fsync
+        }
+        return segment;
+    }
+
+    private Segment map(Path path, long base, boolean create) throws IOException {
+        StandardOpenOption[] options = create
+                ? new StandardOpenOption[]{StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            // 映射超出文件长度时文件被扩展到段大小，新空间为 0
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            if (create) {
+                channel.force(true);
+            }
+            return new Segment(base, path, buffer);
+        }
+    }
+
+    /**
+     * 一条日志记录
+     *
+     * @param offset     记录的起始偏移量
+     * @param nextOffset 下一条记录的起始偏移量，应用完该记录后作为检查点
+     */
+    public record Record(long offset, long nextOffset, byte[] payload) {
+    }
+
+    private record Segment(long base, Path path, MappedByteBuffer buffer) {
+    }
+}
@@ -1,20 +1,40 @@
 package app.inv.util;
 
+import app.inv.entity.User;
+import app.inv.security.JwtPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
+
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    private static final int MAX_CACHED_TOKENS = 10_000;
 
     @Value("${app.jwt-secret}")
     private String secret;
@@ -22,8 +42,40 @@ public class JwtUtil {
     @Value("${app.jwt-expiration:86400}")
     private Long expiration;
 
+    // 密钥与解析器只构建一次
+    private volatile Key signingKey;
+    private volatile JwtParser parser;
+
+    // 已验证的令牌：key为令牌的SHA-256，过期后失效
+    private final Map<String, JwtPrincipalEntry> verifiedTokens = new ConcurrentHashMap<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jwt.cache.requests", cacheHits, AtomicLong::get)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("jwt.cache.requests", cacheMisses, AtomicLong::get)
+                .tag("result", "miss").register(registry);
+        Gauge.builder("jwt.cache.size", verifiedTokens, Map::size).register(registry);
+    }
+
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        Key key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
     }
 
     public String extractUsername(String token) {
@@ -40,9 +92,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return getParser()
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -56,6 +106,16 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    /**
+     * 令牌中携带用户ID与角色，请求认证时不再查询用户表
+     */
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId().toString());
+        claims.put(ROLES_CLAIM, List.of("ROLE_USER"));
+        return createToken(claims, user.getUsername());
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
@@ -67,7 +127,57 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(username) && !claims.getExpiration().before(new Date()));
+    }
+
+    /**
+     * 验证令牌并返回其中的用户信息。同一令牌只验签一次，之后直到过期都从缓存返回。
+     * 令牌未携带用户ID（旧令牌）时返回空，由调用方走查库的认证路径。
+     * 签名无效或已过期时抛出 JwtException。
+     */
+    public Optional<JwtPrincipal> authenticate(String token) {
+        String tokenHash = hash(token);
+        long now = System.currentTimeMillis();
+        JwtPrincipalEntry cached = verifiedTokens.get(tokenHash);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                cacheHits.incrementAndGet();
+                return Optional.of(cached.principal());
+            }
+            verifiedTokens.remove(tokenHash);
+        }
+        cacheMisses.incrementAndGet();
+
+        Claims claims = extractAllClaims(token);
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        if (userId == null) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get(ROLES_CLAIM, List.class);
+        JwtPrincipal principal = new JwtPrincipal(UUID.fromString(userId), claims.getSubject(),
+                roles != null ? List.copyOf(roles) : List.of("ROLE_USER"));
+
+        if (verifiedTokens.size() >= MAX_CACHED_TOKENS) {
+            verifiedTokens.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (verifiedTokens.size() >= MAX_CACHED_TOKENS) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(tokenHash, new JwtPrincipalEntry(principal, claims.getExpiration().getTime()));
+        return Optional.of(principal);
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record JwtPrincipalEntry(JwtPrincipal principal, long expiresAt) {
     }
 }
@@ -0,0 +1,49 @@
+package app.inv.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 业务指标的统一写法。标签值只能来自有限集合（操作名、枚举、outcome），不得使用用户ID等高基数值。
+ * 分位数与直方图桶在 application.yml 的 management.metrics.distribution 下按指标名前缀配置。
+ */
+public final class MetricsSupport {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ERROR = "error";
+
+    private MetricsSupport() {
+    }
+
+    /**
+     * 执行并记录耗时，按是否抛出异常打 outcome 标签
+     */
+    public static <T> T time(MeterRegistry registry, String name, Tags tags, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = action.get();
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } finally {
+            registry.timer(name, tags.and("outcome", outcome)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static void time(MeterRegistry registry, String name, Tags tags, Runnable action) {
+        time(registry, name, tags, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 记录一次查询返回的行数
+     */
+    public static void rows(MeterRegistry registry, String name, Tags tags, long rows) {
+        registry.summary(name, tags).record(rows);
+    }
+}
@@ -0,0 +1,147 @@
+package app.inv.util;
+
+import app.inv.dto.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 内存中的联想词索引（非线程安全，由调用方加锁）。
+ * 每个词在词首、每个单词开头以及每个汉字处各登记一个截断后的后缀作为键，
+ * 查询时在有序键上做前缀区间扫描，因此既支持前缀也支持中文的任意位置匹配。
+ * 同一词被多个物品使用时只计数，计数归零时移除。
+ */
+public class PrefixIndex {
+
+    private static final int MAX_KEY_LENGTH = 12;
+    private static final int MAX_CANDIDATES = 2000;
+
+    private final TreeMap<String, Set<Term>> keys = new TreeMap<>();
+    private final Map<String, Term> terms = new HashMap<>();
+
+    public void add(String text, Suggestion.Type type) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Term term = terms.get(termKey(normalized, type));
+        if (term != null) {
+            term.count++;
+            return;
+        }
+        term = new Term(text.trim(), normalized, type);
+        terms.put(termKey(normalized, type), term);
+        for (String key : keysOf(normalized)) {
+            keys.computeIfAbsent(key, k -> new HashSet<>()).add(term);
+        }
+    }
+
+    public void remove(String text, Suggestion.Type type) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Term term = terms.get(termKey(normalized, type));
+        if (term == null || --term.count > 0) {
+            return;
+        }
+        terms.remove(termKey(normalized, type));
+        for (String key : keysOf(normalized)) {
+            Set<Term> bucket = keys.get(key);
+            if (bucket != null) {
+                bucket.remove(term);
+                if (bucket.isEmpty()) {
+                    keys.remove(key);
+                }
+            }
+        }
+    }
+
+    public List<Suggestion> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String key = truncate(normalized);
+        NavigableMap<String, Set<Term>> range = keys.subMap(key, true, key + Character.MAX_VALUE, false);
+
+        Set<Term> candidates = new LinkedHashSet<>();
+        for (Set<Term> bucket : range.values()) {
+            for (Term term : bucket) {
+                // 键被截断时需要再确认完整查询词
+                if (normalized.length() <= MAX_KEY_LENGTH || term.normalized.contains(normalized)) {
+                    candidates.add(term);
+                }
+            }
+            if (candidates.size() >= MAX_CANDIDATES) {
+                break;
+            }
+        }
+
+        List<Term> ranked = new ArrayList<>(candidates);
+        ranked.sort(Comparator.<Term>comparingInt(t -> t.normalized.startsWith(normalized) ? 0 : 1)
+                .thenComparingInt(t -> -t.count)
+                .thenComparingInt(t -> t.normalized.length())
+                .thenComparing(t -> t.normalized));
+
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && result.size() < limit; i++) {
+            Term term = ranked.get(i);
+            result.add(new Suggestion(term.text, term.type, term.count));
+        }
+        return result;
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    private List<String> keysOf(String normalized) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1));
+            if ((wordStart && Character.isLetterOrDigit(c)) || Character.isIdeographic(c)) {
+                result.add(truncate(normalized.substring(i)));
+            }
+        }
+        if (result.isEmpty()) {
+            result.add(truncate(normalized));
+        }
+        return result;
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_KEY_LENGTH ? value.substring(0, MAX_KEY_LENGTH) : value;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String termKey(String normalized, Suggestion.Type type) {
+        return type.name() + ':' + normalized;
+    }
+
+    private static final class Term {
+        private final String text;
+        private final String normalized;
+        private final Suggestion.Type type;
+        private int count = 1;
+
+        private Term(String text, String normalized, Suggestion.Type type) {
+            this.text = text;
+            this.normalized = normalized;
+            this.type = type;
+        }
+    }
+}
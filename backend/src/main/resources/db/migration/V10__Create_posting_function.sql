@@ -0,0 +1,104 @@
+-- 数据库函数记账（app.posting.engine=function）：一次调用写入一批交易及其分录、账户余额、两张日汇总表
+-- 并更新物品状态，写入的数据与 TransactionService 的 JPA 记账路径相同，每批只需一次往返。
+-- 校验、主键生成和记账规则（LedgerRule）仍在应用中完成，科目与摘要随每行传入。
+-- 函数名带版本号：参数或行为变化时新增 _v2，旧版本保留到不再有实例调用，滚动发布期间新旧实例可以共存。
+
+-- 每行的字段，与 PostingFunctionRepository.PostingRow 的JSON字段一一对应
+CREATE TYPE posting_row_v1 AS (
+    transaction_id UUID,
+    item_id UUID,
+    account_id UUID,
+    type VARCHAR(20),
+    reason VARCHAR(50),
+    quantity INTEGER,
+    unit_price DECIMAL(18,2),
+    total_amount DECIMAL(18,2),
+    transaction_date DATE,
+    notes TEXT,
+    -- 不生成分录的交易（调整）为空
+    debit_code VARCHAR(50),
+    credit_code VARCHAR(50),
+    ledger_note TEXT,
+    debit_entry_id UUID,
+    credit_entry_id UUID
+);
+
+-- 返回写入的每笔交易的ID与创建时间，应用据此回填交易对象。p_async 为 true 时与异步记账一致，只写发件箱，
+-- 分录由记账线程生成。全部写入在一条语句中完成，入参只展开一次，各数据修改型CTE共用展开结果。
+CREATE FUNCTION post_inventory_transactions_v1(p_user_id UUID, p_rows JSONB, p_async BOOLEAN)
+RETURNS TABLE (transaction_id UUID, created_at TIMESTAMP)
+LANGUAGE sql
+AS $$
+    WITH posting AS MATERIALIZED (
+        SELECT * FROM jsonb_populate_recordset(NULL::posting_row_v1, p_rows)
+    ), transactions AS (
+        INSERT INTO inventory_transactions (id, user_id, item_id, type, quantity, unit_price, total_amount,
+                                            transaction_date, reason, notes, created_at)
+        SELECT r.transaction_id, p_user_id, r.item_id, r.type, r.quantity, r.unit_price, r.total_amount,
+               r.transaction_date, r.reason, r.notes, CURRENT_TIMESTAMP
+        FROM posting r
+        RETURNING id, created_at
+    ), transaction_rollups AS (
+        -- 与 DailyRollupService 一致：同一汇总键先合并，再按键顺序upsert，避免并发批次相互死锁
+        INSERT INTO transaction_daily_rollups (user_id, rollup_date, type, reason,
+                                               total_amount, quantity_total, transaction_count)
+        SELECT p_user_id, r.transaction_date, r.type, COALESCE(r.reason, ''),
+               SUM(r.total_amount), SUM(COALESCE(r.quantity, 0)), COUNT(*)
+        FROM posting r
+        GROUP BY r.transaction_date, r.type, COALESCE(r.reason, '')
+        ORDER BY 2, 3, 4
+        ON CONFLICT (user_id, rollup_date, type, reason) DO UPDATE SET
+            total_amount = transaction_daily_rollups.total_amount + EXCLUDED.total_amount,
+            quantity_total = transaction_daily_rollups.quantity_total + EXCLUDED.quantity_total,
+            transaction_count = transaction_daily_rollups.transaction_count + EXCLUDED.transaction_count
+    ), outbox AS (
+        INSERT INTO ledger_outbox (transaction_id, user_id, account_id)
+        SELECT r.transaction_id, p_user_id, r.account_id
+        FROM posting r
+        WHERE p_async
+    ), legs AS (
+        -- 每笔交易的借贷两条分录记在同一账户；异步时为空，分录、余额与分录日汇总都不写入
+        SELECT r.debit_entry_id AS id, r.transaction_date, r.total_amount AS amount, 'DEBIT' AS direction,
+               r.account_id, r.item_id, r.debit_code AS category_code, r.ledger_note AS note,
+               r.total_amount AS debit, 0::DECIMAL(18,2) AS credit
+        FROM posting r
+        WHERE NOT p_async AND r.debit_code IS NOT NULL
+        UNION ALL
+        SELECT r.credit_entry_id, r.transaction_date, r.total_amount, 'CREDIT',
+               r.account_id, r.item_id, r.credit_code, r.ledger_note,
+               0::DECIMAL(18,2), r.total_amount
+        FROM posting r
+        WHERE NOT p_async AND r.credit_code IS NOT NULL
+    ), entries AS (
+        INSERT INTO ledger_entries (id, user_id, transaction_date, amount, direction, account_id, item_id,
+                                    category_code, note, created_at)
+        SELECT l.id, p_user_id, l.transaction_date, l.amount, l.direction, l.account_id, l.item_id,
+               l.category_code, l.note, CURRENT_TIMESTAMP
+        FROM legs l
+    ), balances AS (
+        INSERT INTO account_balances (account_id, user_id, debit_total, credit_total, updated_at)
+        SELECT l.account_id, p_user_id, SUM(l.debit), SUM(l.credit), CURRENT_TIMESTAMP
+        FROM legs l
+        GROUP BY l.account_id
+        ORDER BY l.account_id
+        ON CONFLICT (account_id) DO UPDATE SET
+            debit_total = account_balances.debit_total + EXCLUDED.debit_total,
+            credit_total = account_balances.credit_total + EXCLUDED.credit_total,
+            updated_at = CURRENT_TIMESTAMP
+    ), ledger_rollups AS (
+        INSERT INTO ledger_daily_rollups (user_id, rollup_date, account_id, category_code,
+                                          debit_total, credit_total, entry_count)
+        SELECT p_user_id, l.transaction_date, l.account_id, l.category_code, SUM(l.debit), SUM(l.credit), COUNT(*)
+        FROM legs l
+        GROUP BY l.transaction_date, l.account_id, l.category_code
+        ORDER BY 2, 3, 4
+        ON CONFLICT (user_id, rollup_date, account_id, category_code) DO UPDATE SET
+            debit_total = ledger_daily_rollups.debit_total + EXCLUDED.debit_total,
+            credit_total = ledger_daily_rollups.credit_total + EXCLUDED.credit_total,
+            entry_count = ledger_daily_rollups.entry_count + EXCLUDED.entry_count
+    ), removed_items AS (
+        UPDATE items SET status = 'REMOVED', updated_at = CURRENT_TIMESTAMP
+        WHERE id IN (SELECT r.item_id FROM posting r WHERE r.type = 'OUT')
+    )
+    SELECT t.id, t.created_at FROM transactions t;
+$$;
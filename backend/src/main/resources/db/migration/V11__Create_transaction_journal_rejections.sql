@@ -0,0 +1,16 @@
+-- 交易日志中受理后在应用时被拒绝的记录：与推进检查点在同一事务中写入，客户端按受理时返回的 journalOffset 查询结果。
+-- user_id 不设外键：用户已删除时仍要能写入，否则该记录会一直阻塞日志应用
+CREATE TABLE transaction_journal_rejections (
+    id BIGSERIAL PRIMARY KEY,
+    journal_name VARCHAR(100) NOT NULL,
+    -- 记录之后的偏移量，即受理接口返回的 journalOffset
+    journal_offset BIGINT NOT NULL,
+    -- 记录无法解析时为空
+    user_id UUID,
+    payload TEXT NOT NULL,
+    reason TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (journal_name, journal_offset)
+);
+
+CREATE INDEX idx_journal_rejections_user_id ON transaction_journal_rejections(user_id, id DESC);
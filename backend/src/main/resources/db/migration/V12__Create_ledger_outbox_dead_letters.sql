@@ -0,0 +1,17 @@
+-- 重试 app.ledger-posting.max-attempts 次仍记账失败的发件箱记录：移出发件箱不再重试，修复原因后由运维重新放回发件箱。
+-- 交易表已按月分区，transaction_id 不设外键；记录交易日期供结账检查使用
+CREATE TABLE ledger_outbox_dead_letters (
+    id BIGSERIAL PRIMARY KEY,
+    transaction_id UUID NOT NULL UNIQUE,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    transaction_date DATE NOT NULL,
+    attempts INTEGER NOT NULL,
+    last_error TEXT,
+    -- 原发件箱记录的创建时间
+    created_at TIMESTAMP,
+    dead_lettered_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 结账前检查本期及之前是否有记账失败的交易
+CREATE INDEX idx_ledger_dead_letters_user_date ON ledger_outbox_dead_letters(user_id, transaction_date);
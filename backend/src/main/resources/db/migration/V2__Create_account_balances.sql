@@ -0,0 +1,19 @@
+-- 账户余额汇总表：随分录写入增量维护，余额查询只需一次主键读取
+CREATE TABLE account_balances (
+    account_id UUID PRIMARY KEY REFERENCES accounts(id) ON DELETE CASCADE,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    debit_total DECIMAL(18,2) NOT NULL DEFAULT 0,
+    credit_total DECIMAL(18,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_account_balances_user_id ON account_balances(user_id);
+
+-- 按现有分录回填
+INSERT INTO account_balances (account_id, user_id, debit_total, credit_total)
+SELECT account_id,
+       user_id,
+       COALESCE(SUM(CASE WHEN direction = 'DEBIT' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN direction = 'CREDIT' THEN amount END), 0)
+FROM ledger_entries
+GROUP BY account_id, user_id;
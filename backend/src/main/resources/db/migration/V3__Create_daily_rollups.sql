@@ -0,0 +1,48 @@
+-- 分录日汇总：按 (用户, 日期, 账户, 科目) 预聚合
+CREATE TABLE ledger_daily_rollups (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    rollup_date DATE NOT NULL,
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    category_code VARCHAR(50) NOT NULL DEFAULT '',
+    debit_total DECIMAL(18,2) NOT NULL DEFAULT 0,
+    credit_total DECIMAL(18,2) NOT NULL DEFAULT 0,
+    entry_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, rollup_date, account_id, category_code)
+);
+
+-- 交易日汇总：按 (用户, 日期, 类型, 原因) 预聚合
+CREATE TABLE transaction_daily_rollups (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    rollup_date DATE NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    reason VARCHAR(50) NOT NULL DEFAULT '',
+    total_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    quantity_total BIGINT NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, rollup_date, type, reason)
+);
+
+-- 按现有数据回填
+INSERT INTO ledger_daily_rollups (user_id, rollup_date, account_id, category_code,
+                                  debit_total, credit_total, entry_count)
+SELECT user_id,
+       transaction_date,
+       account_id,
+       COALESCE(category_code, ''),
+       COALESCE(SUM(CASE WHEN direction = 'DEBIT' THEN amount END), 0),
+       COALESCE(SUM(CASE WHEN direction = 'CREDIT' THEN amount END), 0),
+       COUNT(*)
+FROM ledger_entries
+GROUP BY user_id, transaction_date, account_id, COALESCE(category_code, '');
+
+INSERT INTO transaction_daily_rollups (user_id, rollup_date, type, reason,
+                                       total_amount, quantity_total, transaction_count)
+SELECT user_id,
+       transaction_date,
+       type,
+       COALESCE(reason, ''),
+       SUM(total_amount),
+       SUM(COALESCE(quantity, 0)),
+       COUNT(*)
+FROM inventory_transactions
+GROUP BY user_id, transaction_date, type, COALESCE(reason, '');
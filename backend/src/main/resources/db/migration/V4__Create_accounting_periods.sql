@@ -0,0 +1,22 @@
+-- 会计期间：按月结账，结账后该月及之前的分录不可再写入
+CREATE TABLE accounting_periods (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    period_start DATE NOT NULL,
+    period_end DATE NOT NULL,
+    closed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (user_id, period_start)
+);
+
+-- 期末余额快照：截至期末的累计借贷合计，按账户与科目
+CREATE TABLE period_closing_balances (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    period_id UUID NOT NULL REFERENCES accounting_periods(id) ON DELETE CASCADE,
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    category_code VARCHAR(50) NOT NULL DEFAULT '',
+    debit_total DECIMAL(18,2) NOT NULL DEFAULT 0,
+    credit_total DECIMAL(18,2) NOT NULL DEFAULT 0,
+    UNIQUE (period_id, account_id, category_code)
+);
+
+CREATE INDEX idx_accounting_periods_user_end ON accounting_periods(user_id, period_end DESC);
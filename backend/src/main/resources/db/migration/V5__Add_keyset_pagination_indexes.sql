@@ -0,0 +1,4 @@
+-- 游标分页的复合索引，与各列表的排序键 (排序列 DESC, id DESC) 一致
+CREATE INDEX idx_items_user_created_id ON items(user_id, created_at DESC, id DESC) WHERE deleted_at IS NULL;
+CREATE INDEX idx_transactions_user_date_id ON inventory_transactions(user_id, transaction_date DESC, id DESC);
+CREATE INDEX idx_ledger_user_date_id ON ledger_entries(user_id, transaction_date DESC, id DESC);
@@ -0,0 +1,12 @@
+-- 物品搜索：名称、品牌、颜色、位置拼成小写搜索文本，由 pg_trgm 支持任意子串与近似匹配
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- 让 user_id 与搜索文本放进同一个 GIN 索引，按用户过滤无需回表
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+ALTER TABLE items ADD COLUMN search_text TEXT GENERATED ALWAYS AS (
+    lower(coalesce(name, '') || ' ' || coalesce(brand, '') || ' ' ||
+          coalesce(color, '') || ' ' || coalesce(location, ''))
+) STORED;
+
+CREATE INDEX idx_items_search_trgm ON items USING GIN (user_id, search_text gin_trgm_ops)
+    WHERE deleted_at IS NULL;
@@ -0,0 +1,19 @@
+-- 异步记账的发件箱：交易与发件箱记录在同一事务中提交，记账线程认领后生成分录并删除记录
+CREATE SEQUENCE ledger_outbox_id_seq INCREMENT BY 50;
+
+CREATE TABLE ledger_outbox (
+    id BIGINT PRIMARY KEY DEFAULT nextval('ledger_outbox_id_seq'),
+    transaction_id UUID NOT NULL UNIQUE REFERENCES inventory_transactions(id) ON DELETE CASCADE,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    -- 交易表不记录账户，记账所需的账户随发件箱记录保存
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER SEQUENCE ledger_outbox_id_seq OWNED BY ledger_outbox.id;
+
+-- 等待某用户的记账完成、结账前检查未记账交易
+CREATE INDEX idx_ledger_outbox_user_id ON ledger_outbox(user_id, id);
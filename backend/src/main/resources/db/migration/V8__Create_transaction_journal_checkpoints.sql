@@ -0,0 +1,6 @@
+-- 交易日志的应用进度：与应用的那批交易在同一事务中更新，重启后从这里重放日志，不会重复入账
+CREATE TABLE transaction_journal_checkpoints (
+    journal_name VARCHAR(100) PRIMARY KEY,
+    applied_offset BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,128 @@
+-- 交易表与分录表改为按 transaction_date 按月范围分区：带日期条件的查询只扫描相关月份，
+-- 历史月份可整体 DETACH 后归档，见 DEPLOYMENT.md 4.8。
+-- 分区表的主键必须包含分区键，主键改为 (id, transaction_date)；id 仍由应用生成，全局唯一。
+
+-- 外键只能引用唯一约束，交易表不再有单列 id 的唯一约束，发件箱改为由应用维护这一关联
+ALTER TABLE ledger_outbox DROP CONSTRAINT IF EXISTS ledger_outbox_transaction_id_fkey;
+
+ALTER TABLE inventory_transactions RENAME TO inventory_transactions_unpartitioned;
+ALTER TABLE inventory_transactions_unpartitioned
+    RENAME CONSTRAINT inventory_transactions_pkey TO inventory_transactions_unpartitioned_pkey;
+ALTER TABLE ledger_entries RENAME TO ledger_entries_unpartitioned;
+ALTER TABLE ledger_entries_unpartitioned
+    RENAME CONSTRAINT ledger_entries_pkey TO ledger_entries_unpartitioned_pkey;
+
+CREATE TABLE inventory_transactions (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    item_id UUID NOT NULL REFERENCES items(id) ON DELETE CASCADE,
+    type VARCHAR(20) NOT NULL CHECK (type IN ('IN', 'OUT', 'ADJUST')),
+    quantity INTEGER DEFAULT 1,
+    unit_price DECIMAL(18,2) NOT NULL,
+    total_amount DECIMAL(18,2) NOT NULL,
+    transaction_date DATE NOT NULL,
+    reason VARCHAR(50) CHECK (reason IN ('PURCHASE', 'SELL', 'DISPOSE', 'GIFT', 'LOST', 'ADJUST')),
+    notes TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+CREATE TABLE ledger_entries (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    transaction_date DATE NOT NULL,
+    amount DECIMAL(18,2) NOT NULL,
+    direction VARCHAR(10) NOT NULL CHECK (direction IN ('DEBIT', 'CREDIT')),
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    item_id UUID REFERENCES items(id) ON DELETE SET NULL,
+    category_code VARCHAR(50),
+    note TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+-- 默认分区接住尚未建分区的日期（补录的久远日期、远期日期），保证写入不会因缺分区失败
+CREATE TABLE inventory_transactions_default PARTITION OF inventory_transactions DEFAULT;
+CREATE TABLE ledger_entries_default PARTITION OF ledger_entries DEFAULT;
+
+-- 创建某月的分区，已存在时返回 false。由本迁移和应用的分区维护任务调用，可重复执行。
+-- 默认分区中已落在该月的行先搬进新分区再挂载，否则 ATTACH 会因默认分区存在冲突行而失败。
+CREATE OR REPLACE FUNCTION create_month_partition(parent regclass, month_start date)
+RETURNS boolean
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    range_start date := date_trunc('month', month_start)::date;
+    range_end date := (date_trunc('month', month_start) + interval '1 month')::date;
+    partition_name text := parent::text || '_' || to_char(range_start, 'YYYY_MM');
+    default_name text := parent::text || '_default';
+BEGIN
+    -- 多个实例同时执行维护任务时串行化
+    PERFORM pg_advisory_xact_lock(parent::oid::bigint);
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name, parent);
+    IF to_regclass(default_name) IS NOT NULL THEN
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE transaction_date >= $1 AND transaction_date < $2 '
+                       'RETURNING *) INSERT INTO %I SELECT * FROM moved', default_name, partition_name)
+            USING range_start, range_end;
+    END IF;
+    -- 挂载时自动创建父表上的索引、主键和外键
+    EXECUTE format('ALTER TABLE %s ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, partition_name, range_start, range_end);
+    RETURN true;
+END;
+$$;
+
+-- 为已有数据的月份到未来三个月建好分区；最早只追溯十年，更早的零星数据留在默认分区
+DO $$
+DECLARE
+    current_month date := date_trunc('month', CURRENT_DATE)::date;
+    first_month date;
+    partition_month date;
+BEGIN
+    SELECT date_trunc('month', min(d))::date INTO first_month
+    FROM (SELECT min(transaction_date) AS d FROM inventory_transactions_unpartitioned
+          UNION ALL
+          SELECT min(transaction_date) FROM ledger_entries_unpartitioned) dates;
+    first_month := GREATEST(COALESCE(first_month, current_month), (current_month - interval '10 years')::date);
+
+    partition_month := first_month;
+    WHILE partition_month <= current_month + interval '3 months' LOOP
+        PERFORM create_month_partition('inventory_transactions', partition_month);
+        PERFORM create_month_partition('ledger_entries', partition_month);
+        partition_month := (partition_month + interval '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO inventory_transactions (id, user_id, item_id, type, quantity, unit_price, total_amount,
+                                    transaction_date, reason, notes, created_at)
+SELECT id, user_id, item_id, type, quantity, unit_price, total_amount, transaction_date, reason, notes, created_at
+FROM inventory_transactions_unpartitioned;
+
+INSERT INTO ledger_entries (id, user_id, transaction_date, amount, direction, account_id, item_id,
+                            category_code, note, created_at)
+SELECT id, user_id, transaction_date, amount, direction, account_id, item_id, category_code, note, created_at
+FROM ledger_entries_unpartitioned;
+
+DROP TABLE inventory_transactions_unpartitioned;
+DROP TABLE ledger_entries_unpartitioned;
+
+-- 数据导入后再建索引；建在父表上，各分区（含以后新建的）自动拥有同样的索引
+CREATE INDEX idx_transactions_user_id ON inventory_transactions(user_id);
+CREATE INDEX idx_transactions_item_id ON inventory_transactions(item_id);
+CREATE INDEX idx_transactions_date ON inventory_transactions(transaction_date);
+CREATE INDEX idx_transactions_type ON inventory_transactions(type);
+CREATE INDEX idx_transactions_user_date_id ON inventory_transactions(user_id, transaction_date DESC, id DESC);
+
+CREATE INDEX idx_ledger_user_id ON ledger_entries(user_id);
+CREATE INDEX idx_ledger_date ON ledger_entries(transaction_date);
+CREATE INDEX idx_ledger_account_id ON ledger_entries(account_id);
+CREATE INDEX idx_ledger_item_id ON ledger_entries(item_id);
+CREATE INDEX idx_ledger_user_date_id ON ledger_entries(user_id, transaction_date DESC, id DESC);
+
+ANALYZE inventory_transactions;
+ANALYZE ledger_entries;
@@ -0,0 +1,82 @@
+package app.inv.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlledDataSourceTest {
+
+    @Test
+    void getConnection_shouldRejectWhenPermitsExhaustedAndReleaseOnClose() throws Exception {
+        // Given
+        DataSource target = mock(DataSource.class);
+        Connection physical = mock(Connection.class);
+        when(target.getConnection()).thenReturn(physical);
+        AdmissionControlledDataSource dataSource =
+                new AdmissionControlledDataSource(target, 1, 0, Duration.ofMillis(10));
+
+        // When
+        Connection first = dataSource.getConnection();
+
+        // Then
+        assertThat(dataSource.getAvailablePermits()).isZero();
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(DbAdmissionRejectedException.class);
+        assertThat(dataSource.getRejectedCount()).isEqualTo(1);
+
+        first.close();
+        first.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        verify(physical, times(1)).close();
+    }
+
+    @Test
+    void getConnection_shouldTimeOutWhileQueued() throws Exception {
+        // Given
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        AdmissionControlledDataSource dataSource =
+                new AdmissionControlledDataSource(target, 1, 5, Duration.ofMillis(20));
+        dataSource.getConnection();
+
+        // When / Then
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(DbAdmissionRejectedException.class)
+                .hasMessageContaining("等待超时");
+        assertThat(dataSource.getQueuedCount()).isZero();
+    }
+
+    @Test
+    void getConnection_shouldReturnPermitWhenTargetFails() throws Exception {
+        // Given
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new java.sql.SQLException("down"));
+        AdmissionControlledDataSource dataSource =
+                new AdmissionControlledDataSource(target, 1, 0, Duration.ofMillis(10));
+
+        // When / Then
+        assertThatThrownBy(dataSource::getConnection).hasMessage("down");
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void close_shouldClosePoolBehindWrappers() throws Exception {
+        // Given
+        DataSource pool = mock(DataSource.class, withSettings().extraInterfaces(Closeable.class));
+        AdmissionControlledDataSource dataSource = new AdmissionControlledDataSource(
+                new QueryCountingDataSource(pool), 1, 0, Duration.ofMillis(10));
+
+        // When
+        dataSource.close();
+
+        // Then
+        verify((Closeable) pool).close();
+    }
+}
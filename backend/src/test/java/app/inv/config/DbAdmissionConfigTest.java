@@ -0,0 +1,30 @@
+package app.inv.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DbAdmissionConfigTest {
+
+    @Test
+    void postProcessor_shouldWrapOnlyPrimaryDataSource() {
+        // Given
+        BeanPostProcessor postProcessor = DbAdmissionConfig.dbAdmissionDataSourcePostProcessor(new MockEnvironment());
+        DataSource primary = mock(DataSource.class);
+        DataSource pool = mock(DataSource.class);
+
+        // When
+        Object wrapped = postProcessor.postProcessAfterInitialization(primary, "dataSource");
+        Object untouched = postProcessor.postProcessAfterInitialization(pool, "replicaDataSource");
+
+        // Then
+        assertThat(wrapped).isInstanceOf(AdmissionControlledDataSource.class);
+        assertThat(untouched).isSameAs(pool);
+        assertThat(postProcessor.postProcessAfterInitialization(wrapped, "dataSource")).isSameAs(wrapped);
+    }
+}
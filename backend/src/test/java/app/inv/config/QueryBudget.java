@@ -0,0 +1,24 @@
+package app.inv.config;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 断言测试方法（或类中每个测试）在测试线程上执行的SQL不超过 max 条，
+ * 同一条SQL重复执行次数不超过 maxRepeats（用于发现 N+1）。
+ * 需要数据源被 {@link QueryCountingDataSource} 包装（测试配置中开启了 app.query-budget）；
+ * MockMvc 请求在测试线程上执行，因此可以直接断言某个接口的查询次数。
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+    
+    int max();
+    
+    int maxRepeats() default Integer.MAX_VALUE;
+}
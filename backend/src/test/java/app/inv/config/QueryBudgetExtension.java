@@ -0,0 +1,69 @@
+package app.inv.config;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 每个测试前打开 {@link QueryCounter} 作用域，测试后按 {@link QueryBudget} 断言。
+ * 测试方法也可以声明 {@link QueryCounter.Scope} 参数，自行读取条数做更细的断言。
+ */
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+    
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+    
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), QueryCounter.open());
+    }
+    
+    @Override
+    public void afterEach(ExtensionContext context) {
+        QueryCounter.Scope scope = context.getStore(NAMESPACE).remove(context.getUniqueId(), QueryCounter.Scope.class);
+        if (scope == null) {
+            return;
+        }
+        scope.close();
+        
+        Optional<QueryBudget> budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryBudget.class));
+        if (budget.isEmpty()) {
+            return;
+        }
+        if (scope.getCount() > budget.get().max()) {
+            throw new AssertionError("Expected at most " + budget.get().max() + " SQL statements but "
+                    + scope.getCount() + " were executed" + describe(scope.getRepeatedStatements(2)));
+        }
+        List<Map.Entry<String, Integer>> repeated = scope.getRepeatedStatements(budget.get().maxRepeats() + 1);
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("Statement repeated more than " + budget.get().maxRepeats()
+                    + " times (possible N+1)" + describe(repeated));
+        }
+    }
+    
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == QueryCounter.Scope.class;
+    }
+    
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(extensionContext.getUniqueId(), QueryCounter.Scope.class);
+    }
+    
+    private static String describe(List<Map.Entry<String, Integer>> statements) {
+        StringBuilder description = new StringBuilder();
+        for (Map.Entry<String, Integer> statement : statements) {
+            description.append(System.lineSeparator()).append("  ").append(statement.getValue())
+                    .append("x ").append(statement.getKey());
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package app.inv.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(QueryBudgetExtension.class)
+class QueryCountingDataSourceTest {
+
+    @Test
+    void getConnection_shouldCountExecutionsAndRepeatedStatements(QueryCounter.Scope testScope) throws Exception {
+        // Given
+        DataSource target = mock(DataSource.class);
+        Connection physical = mock(Connection.class);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        Statement plain = mock(Statement.class);
+        when(target.getConnection()).thenReturn(physical);
+        when(physical.prepareStatement(anyString())).thenReturn(prepared);
+        when(physical.createStatement()).thenReturn(plain);
+        DataSource dataSource = new QueryCountingDataSource(target);
+
+        // When: 模拟逐行加载关联对象
+        QueryCounter.Scope requestScope = QueryCounter.open();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.prepareStatement("select * from items where user_id = ?").executeQuery();
+            for (int i = 0; i < 3; i++) {
+                PreparedStatement lazyLoad = connection.prepareStatement("select * from categories where id = ?");
+                lazyLoad.setObject(1, i);
+                lazyLoad.executeQuery();
+            }
+            connection.createStatement().execute("set local statement_timeout = 0");
+        } finally {
+            requestScope.close();
+        }
+
+        // Then
+        assertThat(requestScope.getCount()).isEqualTo(5);
+        assertThat(requestScope.getRepeatedStatements(3)).singleElement()
+                .satisfies(entry -> assertThat(entry.getKey()).isEqualTo("select * from categories where id = ?"));
+        // 外层（测试扩展）作用域同样计数
+        assertThat(testScope.getCount()).isEqualTo(5);
+        verify(prepared).setObject(1, 2);
+    }
+
+    @Test
+    @QueryBudget(max = 1)
+    void queryBudget_shouldAllowStatementsWithinBudget() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection physical = mock(Connection.class);
+        when(target.getConnection()).thenReturn(physical);
+        when(physical.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+
+        try (Connection connection = new QueryCountingDataSource(target).getConnection()) {
+            connection.prepareStatement("select 1").executeQuery();
+            // 未执行的语句不计数
+            connection.prepareStatement("select 2");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package app.inv.config;
+
+import app.inv.config.ReadWriteRoutingDataSource.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadWriteRoutingDataSource.closeScope();
+    }
+
+    @Test
+    void currentRoute_shouldSendOnlyReadOnlyTransactionsToReplica() {
+        assertThat(ReadWriteRoutingDataSource.currentRoute()).isEqualTo(Route.PRIMARY);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(ReadWriteRoutingDataSource.currentRoute()).isEqualTo(Route.PRIMARY);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(ReadWriteRoutingDataSource.currentRoute()).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    void currentRoute_shouldPinRequestToPrimaryAfterWrite() {
+        // Given
+        ReadWriteRoutingDataSource.openScope(false);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // When: 写事务使用主库
+        assertThat(ReadWriteRoutingDataSource.currentRoute()).isEqualTo(Route.PRIMARY);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Then: 同一请求后续的只读事务仍走主库
+        assertThat(ReadWriteRoutingDataSource.currentRoute()).isEqualTo(Route.PRIMARY);
+
+        // 新请求恢复走从库
+        ReadWriteRoutingDataSource.openScope(false);
+        assertThat(ReadWriteRoutingDataSource.currentRoute()).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    void currentRoute_shouldHonourPinRequestedByClient() {
+        ReadWriteRoutingDataSource.openScope(true);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(ReadWriteRoutingDataSource.currentRoute()).isEqualTo(Route.PRIMARY);
+    }
+}
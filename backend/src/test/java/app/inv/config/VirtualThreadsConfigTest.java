@@ -0,0 +1,23 @@
+package app.inv.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VirtualThreadsConfigTest {
+
+    @Test
+    void requireVirtualThreadSupport_shouldFailBelowJava21() {
+        // When / Then
+        assertThatThrownBy(() -> VirtualThreadsConfig.requireVirtualThreadSupport(17))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21");
+    }
+
+    @Test
+    void requireVirtualThreadSupport_shouldPassOnJava21() {
+        // When / Then
+        assertThatCode(() -> VirtualThreadsConfig.requireVirtualThreadSupport(21)).doesNotThrowAnyException();
+    }
+}
@@ -4,6 +4,7 @@ import app.inv.dto.LoginRequest;
 import app.inv.dto.RegisterRequest;
 import app.inv.entity.User;
 import app.inv.service.AuthService;
+import app.inv.util.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,6 +34,9 @@ class AuthControllerTest {
     @MockBean
     private AuthService authService;
 
+    @MockBean
+    private JwtUtil jwtUtil;
+
     @Test
     void register_success() throws Exception {
         User user = new User();
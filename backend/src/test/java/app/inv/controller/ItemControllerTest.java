@@ -2,7 +2,10 @@ package app.inv.controller;
 
 import app.inv.entity.Item;
 import app.inv.entity.User;
+import app.inv.security.WithJwtUser;
 import app.inv.service.ItemService;
+import app.inv.service.TypeaheadService;
+import app.inv.util.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,7 +18,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
-import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
@@ -25,7 +28,10 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -45,6 +51,15 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private TypeaheadService typeaheadService;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
     private User testUser;
     private Item testItem;
 
@@ -68,7 +83,7 @@ class ItemControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser
     void getItems_shouldReturnPagedItems() throws Exception {
         // Given
         Page<Item> page = new PageImpl<>(List.of(testItem), PageRequest.of(0, 10), 1);
@@ -85,7 +100,7 @@ class ItemControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser
     void getItemById_shouldReturnItemWhenExists() throws Exception {
         // Given
         UUID itemId = UUID.randomUUID();
@@ -99,7 +114,7 @@ class ItemControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser
     void getItemById_shouldReturnNotFoundWhenNotExists() throws Exception {
         // Given
         UUID itemId = UUID.randomUUID();
@@ -112,7 +127,7 @@ class ItemControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser
     void createItem_shouldCreateItemSuccessfully() throws Exception {
         // Given
         when(itemService.createItem(any(User.class), any(), any(), any(), any(), any(), any(), any(), any()))
@@ -143,7 +158,7 @@ class ItemControllerTest {
 
     // RED阶段：编写失败测试
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser
     void updateItem_shouldUpdateItemSuccessfully() throws Exception {
         // Given
         UUID itemId = UUID.randomUUID();
@@ -174,7 +189,7 @@ class ItemControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser
     void updateItem_shouldFailWhenItemNotFound() throws Exception {
         // Given
         UUID itemId = UUID.randomUUID();
@@ -200,7 +215,7 @@ class ItemControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser
     void deleteItem_shouldDeleteItemSuccessfully() throws Exception {
         // Given
         UUID itemId = UUID.randomUUID();
@@ -215,7 +230,7 @@ class ItemControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser
     void deleteItem_shouldFailWhenItemNotFound() throws Exception {
         // Given
         UUID itemId = UUID.randomUUID();
@@ -231,7 +246,7 @@ class ItemControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser
     void getItemStats_shouldReturnStats() throws Exception {
         // Given
         when(itemService.getTotalValueByUser(any(User.class))).thenReturn(1000.0);
@@ -245,11 +260,26 @@ class ItemControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
+    @WithJwtUser(userId = "01890a5d-ac96-774b-bcce-b302099a8057")
+    void getItemStats_shouldQueryByAuthenticatedUser() throws Exception {
+        // Given
+        UUID userId = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8057");
+        when(itemService.getTotalValueByUser(any(User.class))).thenReturn(0.0);
+
+        // When
+        mockMvc.perform(get("/api/v1/items/stats"))
+                .andExpect(status().isOk());
+
+        // Then
+        verify(itemService).getTotalValueByUser(argThat(user -> userId.equals(user.getId())));
+    }
+
+    @Test
+    @WithJwtUser
     void getItems_shouldSupportSearchAndFilters() throws Exception {
         // Given
         Page<Item> page = new PageImpl<>(List.of(testItem), PageRequest.of(0, 10), 1);
-        when(itemService.getItemsByUserWithFilters(any(User.class), any(), any(), any(), any()))
+        when(itemService.getItemsByUserWithFilters(any(User.class), any(), any(), anyBoolean(), any(), any()))
                 .thenReturn(page);
 
         // When & Then
@@ -0,0 +1,99 @@
+package app.inv.controller;
+
+import app.inv.config.TestConfig;
+import app.inv.entity.AccountingPeriod;
+import app.inv.entity.User;
+import app.inv.security.WithJwtUser;
+import app.inv.service.PeriodCloseService;
+import app.inv.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = PeriodController.class)
+@Import(TestConfig.class)
+class PeriodControllerTest {
+
+    private static final String USER_ID = "01890a5d-ac96-774b-bcce-b302099a8057";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PeriodCloseService periodCloseService;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @Test
+    @WithJwtUser(userId = USER_ID)
+    void closePeriod_shouldCloseMonthForAuthenticatedUser() throws Exception {
+        // Given
+        AccountingPeriod period = new AccountingPeriod();
+        period.setId(UUID.randomUUID());
+        period.setPeriodStart(LocalDate.of(2024, 1, 1));
+        period.setPeriodEnd(LocalDate.of(2024, 1, 31));
+        when(periodCloseService.closeMonth(any(User.class), eq(YearMonth.of(2024, 1)))).thenReturn(period);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/periods/close")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"month\": \"2024-01\"}")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200))
+                .andExpect(jsonPath("$.data.periodEnd").value("2024-01-31"));
+
+        verify(periodCloseService).closeMonth(
+                argThat((User user) -> UUID.fromString(USER_ID).equals(user.getId())), eq(YearMonth.of(2024, 1)));
+    }
+
+    @Test
+    @WithJwtUser
+    void closePeriod_shouldRejectMissingMonth() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/v1/periods/close")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(periodCloseService, never()).closeMonth(any(), any());
+    }
+
+    @Test
+    @WithJwtUser
+    void closePeriod_shouldRejectMalformedMonth() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/v1/periods/close")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"month\": \"2024-13\"}")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(periodCloseService, never()).closeMonth(any(), any());
+    }
+}
@@ -0,0 +1,90 @@
+package app.inv.controller;
+
+import app.inv.config.TestConfig;
+import app.inv.dto.TransactionBatchResult;
+import app.inv.entity.User;
+import app.inv.security.WithJwtUser;
+import app.inv.service.ExportService;
+import app.inv.service.TransactionBatchService;
+import app.inv.service.TransactionService;
+import app.inv.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = TransactionController.class)
+@Import(TestConfig.class)
+class TransactionControllerTest {
+
+    private static final String USER_ID = "01890a5d-ac96-774b-bcce-b302099a8057";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionService transactionService;
+
+    @MockBean
+    private TransactionBatchService transactionBatchService;
+
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @Test
+    @WithJwtUser(userId = USER_ID)
+    void createTransactionsBatch_shouldImportRowsForAuthenticatedUser() throws Exception {
+        // Given - 只有以物品所有者身份导入时才成功，对应服务中的归属校验
+        UUID transactionId = UUID.randomUUID();
+        when(transactionBatchService.importTransactions(
+                argThat((User user) -> user != null && UUID.fromString(USER_ID).equals(user.getId())),
+                any(InputStream.class)))
+                .thenReturn(List.of(TransactionBatchResult.success(0, transactionId)));
+
+        String requestBody = """
+                [
+                    {
+                        "itemId": "%s",
+                        "accountId": "%s",
+                        "type": "IN",
+                        "quantity": 1,
+                        "unitPrice": 100.00,
+                        "transactionDate": "2024-01-01"
+                    }
+                ]
+                """.formatted(UUID.randomUUID(), UUID.randomUUID());
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200))
+                .andExpect(jsonPath("$.data.succeeded").value(1))
+                .andExpect(jsonPath("$.data.failed").value(0))
+                .andExpect(jsonPath("$.data.results[0].transactionId").value(transactionId.toString()));
+    }
+}
@@ -0,0 +1,21 @@
+package app.inv.security;
+
+import org.springframework.security.test.context.support.WithSecurityContext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 以 {@link JwtPrincipal} 作为认证主体运行测试，与过滤器从令牌构建的主体一致
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@WithSecurityContext(factory = WithJwtUserSecurityContextFactory.class)
+public @interface WithJwtUser {
+
+    String userId() default "00000000-0000-7000-8000-000000000001";
+
+    String username() default "testuser";
+}
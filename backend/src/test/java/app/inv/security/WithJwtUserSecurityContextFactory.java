@@ -0,0 +1,24 @@
+package app.inv.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithSecurityContextFactory;
+
+import java.util.List;
+import java.util.UUID;
+
+public class WithJwtUserSecurityContextFactory implements WithSecurityContextFactory<WithJwtUser> {
+
+    @Override
+    public SecurityContext createSecurityContext(WithJwtUser annotation) {
+        JwtPrincipal principal = new JwtPrincipal(UUID.fromString(annotation.userId()), annotation.username(),
+                List.of("ROLE_USER"));
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        return context;
+    }
+}
@@ -0,0 +1,87 @@
+package app.inv.service;
+
+import app.inv.entity.Account;
+import app.inv.entity.LedgerEntry;
+import app.inv.entity.User;
+import app.inv.repository.AccountBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBalanceServiceTest {
+
+    @Mock
+    private AccountBalanceRepository accountBalanceRepository;
+
+    @InjectMocks
+    private AccountBalanceService accountBalanceService;
+
+    private User testUser;
+    private Account testAccount;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+
+        testAccount = new Account();
+        testAccount.setId(UUID.randomUUID());
+        testAccount.setUser(testUser);
+    }
+
+    @Test
+    void applyEntries_shouldMergeEntriesOfSameAccountIntoOneUpsert() {
+        // Given
+        LedgerEntry debit = entry(LedgerEntry.Direction.DEBIT, "100.00");
+        LedgerEntry credit = entry(LedgerEntry.Direction.CREDIT, "100.00");
+        LedgerEntry secondDebit = entry(LedgerEntry.Direction.DEBIT, "25.50");
+
+        // When
+        accountBalanceService.applyEntries(List.of(debit, credit, secondDebit));
+
+        // Then
+        verify(accountBalanceRepository).applyDelta(testAccount.getId(), testUser.getId(),
+                new BigDecimal("125.50"), new BigDecimal("100.00"));
+        verify(accountBalanceRepository, times(1)).applyDelta(any(), any(), any(), any());
+    }
+
+    @Test
+    void rebuildAll_shouldLockClearAndRecompute() {
+        // Given
+        when(accountBalanceRepository.rebuildFromLedger()).thenReturn(3);
+
+        // When
+        int rebuilt = accountBalanceService.rebuildAll();
+
+        // Then
+        assertThat(rebuilt).isEqualTo(3);
+        InOrder inOrder = inOrder(accountBalanceRepository);
+        inOrder.verify(accountBalanceRepository).lockForRebuild();
+        inOrder.verify(accountBalanceRepository).deleteAllBalances();
+        inOrder.verify(accountBalanceRepository).rebuildFromLedger();
+    }
+
+    private LedgerEntry entry(LedgerEntry.Direction direction, String amount) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setUser(testUser);
+        entry.setAccount(testAccount);
+        entry.setDirection(direction);
+        entry.setAmount(new BigDecimal(amount));
+        entry.setTransactionDate(LocalDate.now());
+        return entry;
+    }
+}
@@ -0,0 +1,45 @@
+package app.inv.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryTreeTest {
+
+    @Test
+    void build_shouldPrecomputeSubtreeIdsAndNestChildren() {
+        // Given
+        UUID clothing = UUID.randomUUID();
+        UUID tops = UUID.randomUUID();
+        UUID shirts = UUID.randomUUID();
+        UUID books = UUID.randomUUID();
+        List<Object[]> rows = List.of(
+                new Object[]{shirts, "衬衫", tops},
+                new Object[]{clothing, "服装", null},
+                new Object[]{tops, "上衣", clothing},
+                new Object[]{books, "图书", null});
+
+        // When
+        CategoryTree tree = CategoryTree.build(rows, 3);
+
+        // Then
+        assertThat(tree.getVersion()).isEqualTo(3);
+        assertThat(tree.getRoots()).extracting(CategoryTree.Node::getName).containsExactly("图书", "服装");
+        assertThat(tree.subtreeIds(clothing)).containsExactlyInAnyOrder(clothing, tops, shirts);
+        assertThat(tree.subtreeIds(tops)).containsExactlyInAnyOrder(tops, shirts);
+        assertThat(tree.subtreeIds(books)).containsExactly(books);
+        assertThat(tree.find(shirts).get().getDepth()).isEqualTo(2);
+        assertThat(tree.find(shirts).get().getParentId()).isEqualTo(tops);
+    }
+
+    @Test
+    void subtreeIds_shouldFallBackToSelfForUnknownCategory() {
+        CategoryTree tree = CategoryTree.build(List.of(), 0);
+        UUID unknown = UUID.randomUUID();
+
+        assertThat(tree.subtreeIds(unknown)).containsExactly(unknown);
+    }
+}
@@ -0,0 +1,98 @@
+package app.inv.service;
+
+import app.inv.entity.Account;
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.LedgerEntry;
+import app.inv.entity.User;
+import app.inv.repository.LedgerDailyRollupRepository;
+import app.inv.repository.TransactionDailyRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyRollupServiceTest {
+
+    @Mock
+    private LedgerDailyRollupRepository ledgerDailyRollupRepository;
+
+    @Mock
+    private TransactionDailyRollupRepository transactionDailyRollupRepository;
+
+    @InjectMocks
+    private DailyRollupService dailyRollupService;
+
+    private User testUser;
+    private Account testAccount;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+
+        testAccount = new Account();
+        testAccount.setId(UUID.randomUUID());
+        testAccount.setUser(testUser);
+
+        today = LocalDate.now();
+    }
+
+    @Test
+    void applyLedgerEntries_shouldGroupByDayAccountAndCategory() {
+        // Given
+        LedgerEntry inventoryDebit = entry(LedgerEntry.Direction.DEBIT, "INVENTORY", "100.00");
+        LedgerEntry cashCredit = entry(LedgerEntry.Direction.CREDIT, "CASH", "100.00");
+        LedgerEntry secondInventoryDebit = entry(LedgerEntry.Direction.DEBIT, "INVENTORY", "50.00");
+
+        // When
+        dailyRollupService.applyLedgerEntries(List.of(inventoryDebit, cashCredit, secondInventoryDebit));
+
+        // Then
+        verify(ledgerDailyRollupRepository).applyDelta(testUser.getId(), today, testAccount.getId(), "INVENTORY",
+                new BigDecimal("150.00"), BigDecimal.ZERO, 2L);
+        verify(ledgerDailyRollupRepository).applyDelta(testUser.getId(), today, testAccount.getId(), "CASH",
+                BigDecimal.ZERO, new BigDecimal("100.00"), 1L);
+        verifyNoMoreInteractions(ledgerDailyRollupRepository);
+    }
+
+    @Test
+    void applyTransactions_shouldStoreMissingReasonAsEmptyString() {
+        // Given
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setUser(testUser);
+        transaction.setType(InventoryTransaction.TransactionType.ADJUST);
+        transaction.setQuantity(2);
+        transaction.setTotalAmount(new BigDecimal("30.00"));
+        transaction.setTransactionDate(today);
+
+        // When
+        dailyRollupService.applyTransactions(List.of(transaction));
+
+        // Then
+        verify(transactionDailyRollupRepository).applyDelta(eq(testUser.getId()), eq(today), eq("ADJUST"), eq(""),
+                eq(new BigDecimal("30.00")), eq(2L), eq(1L));
+    }
+
+    private LedgerEntry entry(LedgerEntry.Direction direction, String categoryCode, String amount) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setUser(testUser);
+        entry.setAccount(testAccount);
+        entry.setDirection(direction);
+        entry.setCategoryCode(categoryCode);
+        entry.setAmount(new BigDecimal(amount));
+        entry.setTransactionDate(today);
+        return entry;
+    }
+}
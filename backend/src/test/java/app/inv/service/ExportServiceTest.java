@@ -0,0 +1,163 @@
+package app.inv.service;
+
+import app.inv.dto.ExportFormat;
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    private static final UUID TRANSACTION_ID = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8057");
+    private static final UUID ITEM_ID = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8058");
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExportService exportService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(dataSource, transactionManager, objectMapper, 500);
+
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+    }
+
+    @Test
+    void exportTransactions_shouldQuoteCsvFieldsWithSeparatorsAndLeaveNullsEmpty() throws Exception {
+        // Given: 备注含逗号、引号和换行，原因与数量为空
+        givenRows(transactionRow(null, null, "买于\"二手\"市场,\n含运费"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportTransactions(testUser, InventoryTransaction.TransactionType.IN, null,
+                null, null, ExportFormat.CSV, false, out);
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,transaction_date,type,reason,item_id,quantity,unit_price,total_amount,notes,created_at\n"
+                        + TRANSACTION_ID + ",2026-10-18,IN,," + ITEM_ID + ",,12.50,12.50,"
+                        + "\"买于\"\"二手\"\"市场,\n含运费\",2026-10-18T09:30\n");
+        verify(statement).setFetchSize(500);
+        verify(statement).setObject(1, testUser.getId());
+        verify(statement).setString(2, "IN");
+        verify(connection).close();
+    }
+
+    @Test
+    void exportTransactions_shouldWriteOneJsonObjectPerLineForNdjson() throws Exception {
+        // Given
+        givenRows(transactionRow("PURCHASE", 1, "普通备注"), transactionRow(null, null, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportTransactions(testUser, null, null, null, null, ExportFormat.NDJSON, false, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        ObjectMapper reader = new ObjectMapper();
+        JsonNode first = reader.readTree(lines[0]);
+        assertThat(first.get("id").asText()).isEqualTo(TRANSACTION_ID.toString());
+        assertThat(first.get("transaction_date").asText()).isEqualTo("2026-10-18");
+        assertThat(first.get("reason").asText()).isEqualTo("PURCHASE");
+        assertThat(first.get("quantity").asInt()).isEqualTo(1);
+        assertThat(first.get("unit_price").decimalValue()).isEqualByComparingTo("12.50");
+        assertThat(first.get("created_at").asText()).isEqualTo("2026-10-18T09:30:00");
+        JsonNode second = reader.readTree(lines[1]);
+        assertThat(second.get("reason").isNull()).isTrue();
+        assertThat(second.get("notes").isNull()).isTrue();
+    }
+
+    @Test
+    void exportLedger_shouldCompressWholeStreamWhenGzipRequested() throws Exception {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        givenRows(new Object[]{TRANSACTION_ID, Date.valueOf(LocalDate.of(2026, 10, 18)), "DEBIT",
+                new BigDecimal("12.50"), accountId, null, "INVENTORY", "入库, 一件",
+                Timestamp.valueOf(LocalDateTime.of(2026, 10, 18, 9, 30))});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportLedger(testUser, accountId, LocalDate.of(2026, 10, 1), LocalDate.of(2026, 10, 31),
+                ExportFormat.CSV, true, out);
+
+        // Then: 输出是完整的gzip流（已写入尾部），解压后与未压缩的CSV相同
+        byte[] compressed = out.toByteArray();
+        assertThat(compressed).startsWith((byte) 0x1f, (byte) 0x8b);
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(csv).isEqualTo(
+                "id,transaction_date,direction,amount,account_id,item_id,category_code,note,created_at\n"
+                        + TRANSACTION_ID + ",2026-10-18,DEBIT,12.50," + accountId
+                        + ",,INVENTORY,\"入库, 一件\",2026-10-18T09:30\n");
+        assertThat(ExportFormat.CSV.contentType(true)).isEqualTo("application/gzip");
+        assertThat(ExportFormat.CSV.fileName("ledger", true)).isEqualTo("ledger.csv.gz");
+        verify(statement).setObject(2, accountId);
+    }
+
+    private Object[] transactionRow(String reason, Integer quantity, String notes) {
+        return new Object[]{TRANSACTION_ID, Date.valueOf(LocalDate.of(2026, 10, 18)), "IN", reason, ITEM_ID,
+                quantity, new BigDecimal("12.50"), new BigDecimal("12.50"), notes,
+                Timestamp.valueOf(LocalDateTime.of(2026, 10, 18, 9, 30))};
+    }
+
+    private void givenRows(Object[]... rows) throws Exception {
+        List<Object[]> data = List.of(rows);
+        int[] current = {-1};
+        when(resultSet.next()).thenAnswer(invocation -> ++current[0] < data.size());
+        when(resultSet.getObject(anyInt())).thenAnswer(invocation ->
+                data.get(current[0])[(int) invocation.getArgument(0) - 1]);
+    }
+}
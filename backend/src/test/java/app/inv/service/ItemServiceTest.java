@@ -1,27 +1,39 @@
 package app.inv.service;
 
+import app.inv.dto.CursorPage;
 import app.inv.entity.Item;
 import app.inv.entity.User;
 import app.inv.repository.ItemRepository;
+import app.inv.util.CursorCodec;
+import app.inv.util.DateBounds;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +42,18 @@ class ItemServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private TypeaheadService typeaheadService;
+
+    @Mock
+    private CategoryTreeService categoryTreeService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ItemService itemService;
 
@@ -143,4 +167,94 @@ class ItemServiceTest {
 
         verify(itemRepository).findById(itemId);
     }
+
+    @Test
+    void scrollItems_shouldReturnCursorOfLastRowWithoutCounting() {
+        // Given
+        testItem.setCreatedAt(LocalDateTime.of(2025, 10, 1, 12, 0));
+        when(itemRepository.scrollByUserWithFilters(eq(testUser), isNull(), isNull(),
+                eq(DateBounds.MAX_TIME), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(testItem), PageRequest.of(0, 1), true));
+
+        // When
+        CursorPage<Item> page = itemService.scrollItemsByUserWithFilters(
+                testUser, null, null, false, null, null, 1, false);
+
+        // Then
+        assertThat(page.getContent()).containsExactly(testItem);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getEstimatedTotal()).isNull();
+        CursorCodec.Cursor cursor = CursorCodec.decode(page.getNextCursor());
+        assertThat(cursor.getId()).isEqualTo(testItem.getId());
+        assertThat(LocalDateTime.parse(cursor.getSortKey())).isEqualTo(testItem.getCreatedAt());
+    }
+
+    @Test
+    void scrollItems_shouldClampPageSize() {
+        // Given
+        when(itemRepository.scrollByUserWithFilters(eq(testUser), isNull(), isNull(),
+                eq(DateBounds.MAX_TIME), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(testItem)));
+
+        // When
+        itemService.scrollItemsByUserWithFilters(testUser, null, null, false, null, null, 100000, false);
+
+        // Then
+        verify(itemRepository).scrollByUserWithFilters(eq(testUser), isNull(), isNull(),
+                eq(DateBounds.MAX_TIME), isNull(), isNull(),
+                argThat(pageable -> pageable.getPageSize() == CursorPage.MAX_SIZE));
+    }
+
+    @Test
+    void scrollItems_shouldRejectCursorWithMalformedSortKey() {
+        // Given - 交易接口的游标，排序键只有日期
+        String cursor = CursorCodec.encode(LocalDate.of(2025, 10, 1), UUID.randomUUID());
+
+        // When & Then
+        assertThatThrownBy(() -> itemService.scrollItemsByUserWithFilters(
+                testUser, null, null, false, null, cursor, 20, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("无效的分页游标");
+    }
+
+    @Test
+    void searchItems_shouldNormalizeQueryAndEscapeWildcards() {
+        // Given
+        when(itemRepository.searchByUser(testUser.getId(), "50%_off", "%50\\%\\_off%", 100))
+                .thenReturn(List.of(testItem));
+
+        // When
+        List<Item> result = itemService.searchItems(testUser, "  50%_OFF ", 500);
+
+        // Then
+        assertThat(result).containsExactly(testItem);
+    }
+
+    @Test
+    void searchItems_shouldReturnEmptyForBlankQuery() {
+        // When
+        List<Item> result = itemService.searchItems(testUser, "   ", 20);
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getItemsByUserWithFilters_shouldExpandCategoryToSubtree() {
+        // Given
+        UUID parentId = UUID.randomUUID();
+        Set<UUID> subtree = Set.of(parentId, UUID.randomUUID());
+        Pageable pageable = PageRequest.of(0, 10);
+        when(categoryTreeService.resolveCategoryFilter(parentId, true)).thenReturn(subtree);
+        when(itemRepository.findByUserAndCategoriesWithFilters(testUser, null, subtree, null, pageable))
+                .thenReturn(new PageImpl<>(List.of(testItem), pageable, 1));
+
+        // When
+        Page<Item> result = itemService.getItemsByUserWithFilters(testUser, null, parentId, true, null, pageable);
+
+        // Then
+        assertThat(result.getContent()).containsExactly(testItem);
+        verify(itemRepository, never()).findByUserWithFilters(any(), any(), any(), any());
+    }
 }
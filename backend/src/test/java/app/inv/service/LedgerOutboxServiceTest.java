@@ -0,0 +1,221 @@
+package app.inv.service;
+
+import app.inv.entity.*;
+import app.inv.repository.AccountRepository;
+import app.inv.repository.InventoryTransactionRepository;
+import app.inv.repository.LedgerOutboxDeadLetterRepository;
+import app.inv.repository.LedgerOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerOutboxServiceTest {
+
+    @Mock
+    private LedgerOutboxRepository ledgerOutboxRepository;
+
+    @Mock
+    private LedgerOutboxDeadLetterRepository ledgerOutboxDeadLetterRepository;
+
+    @Mock
+    private InventoryTransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private ReportCache reportCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LedgerOutboxService ledgerOutboxService;
+
+    private User testUser;
+    private Account testAccount;
+    private InventoryTransaction testTransaction;
+    private LedgerOutbox record;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ledgerOutboxService = new LedgerOutboxService(ledgerOutboxRepository, ledgerOutboxDeadLetterRepository,
+                transactionRepository, accountRepository, transactionService, reportCache, meterRegistry, true,
+                Duration.ofSeconds(10), 5, Duration.ofSeconds(5));
+
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+
+        testAccount = new Account();
+        testAccount.setId(UUID.randomUUID());
+        testAccount.setUser(testUser);
+
+        Item item = new Item();
+        item.setId(UUID.randomUUID());
+
+        testTransaction = new InventoryTransaction();
+        testTransaction.setId(UUID.randomUUID());
+        testTransaction.setUser(testUser);
+        testTransaction.setItem(item);
+        testTransaction.setType(InventoryTransaction.TransactionType.IN);
+        testTransaction.setTotalAmount(new BigDecimal("120.00"));
+        testTransaction.setTransactionDate(LocalDate.now());
+        testTransaction.setReason(InventoryTransaction.TransactionReason.PURCHASE);
+
+        record = new LedgerOutbox();
+        record.setId(7L);
+        record.setTransaction(testTransaction);
+        record.setUserId(testUser.getId());
+        record.setAccountId(testAccount.getId());
+        record.setCreatedAt(LocalDateTime.now().minusSeconds(2));
+    }
+
+    @Test
+    void postBatch_shouldPostEntriesAndDeleteClaimedRecords() {
+        // Given
+        List<LedgerEntry> entries = List.of(new LedgerEntry(), new LedgerEntry());
+        when(ledgerOutboxRepository.claimBatch(100)).thenReturn(List.of(record));
+        when(transactionRepository.findAllById(anyIterable())).thenReturn(List.of(testTransaction));
+        when(accountRepository.findAllById(anyIterable())).thenReturn(List.of(testAccount));
+        when(transactionService.buildLedgerEntries(testUser, testTransaction.getItem(),
+                InventoryTransaction.TransactionType.IN, new BigDecimal("120.00"),
+                testTransaction.getTransactionDate(), testAccount, InventoryTransaction.TransactionReason.PURCHASE))
+                .thenReturn(entries);
+
+        // When
+        int posted = ledgerOutboxService.postBatch(100);
+
+        // Then
+        assertThat(posted).isEqualTo(1);
+        verify(transactionService).postLedgerEntries(entries);
+        verify(ledgerOutboxRepository).deleteAllByIdInBatch(List.of(7L));
+        verify(reportCache).invalidateUser(testUser.getId());
+        assertThat(meterRegistry.timer("ledger.posting.lag").count()).isEqualTo(1);
+    }
+
+    @Test
+    void postBatch_shouldReportClaimedIdsWhenPostingFails() {
+        // Given
+        when(ledgerOutboxRepository.claimBatch(100)).thenReturn(List.of(record));
+        when(transactionRepository.findAllById(anyIterable())).thenReturn(List.of(testTransaction));
+        when(accountRepository.findAllById(anyIterable())).thenReturn(List.of(testAccount));
+        doThrow(new RuntimeException("数据库错误")).when(transactionService).postLedgerEntries(anyList());
+
+        // When & Then
+        assertThatThrownBy(() -> ledgerOutboxService.postBatch(100))
+                .isInstanceOf(LedgerOutboxService.PostingFailedException.class)
+                .satisfies(e -> assertThat(((LedgerOutboxService.PostingFailedException) e).getOutboxIds())
+                        .containsExactly(7L));
+        verify(ledgerOutboxRepository, never()).deleteAllByIdInBatch(anyIterable());
+    }
+
+    @Test
+    void postBatch_shouldReturnZeroWhenNothingClaimed() {
+        // Given
+        when(ledgerOutboxRepository.claimBatch(100)).thenReturn(List.of());
+
+        // When
+        int posted = ledgerOutboxService.postBatch(100);
+
+        // Then
+        assertThat(posted).isZero();
+        verifyNoInteractions(transactionService, transactionRepository);
+    }
+
+    @Test
+    void awaitPosted_shouldWaitUntilPendingRecordsArePosted() {
+        // Given
+        when(ledgerOutboxRepository.findMaxIdByUserId(testUser.getId())).thenReturn(7L);
+        when(ledgerOutboxRepository.existsByUserIdAndIdLessThanEqual(testUser.getId(), 7L))
+                .thenReturn(true, false);
+
+        // When
+        boolean posted = ledgerOutboxService.awaitPosted(testUser.getId(), Duration.ofSeconds(5));
+
+        // Then
+        assertThat(posted).isTrue();
+        verify(ledgerOutboxRepository, times(2)).existsByUserIdAndIdLessThanEqual(testUser.getId(), 7L);
+    }
+
+    @Test
+    void awaitPosted_shouldTimeOut() {
+        // Given
+        when(ledgerOutboxRepository.findMaxIdByUserId(testUser.getId())).thenReturn(7L);
+        when(ledgerOutboxRepository.existsByUserIdAndIdLessThanEqual(testUser.getId(), 7L)).thenReturn(true);
+
+        // When
+        boolean posted = ledgerOutboxService.awaitPosted(testUser.getId(), Duration.ZERO);
+
+        // Then
+        assertThat(posted).isFalse();
+    }
+
+    @Test
+    void recordFailure_shouldBackOffByAttempts() {
+        // Given
+        record.setAttempts(2);
+        when(ledgerOutboxRepository.claimById(7L)).thenReturn(List.of(record));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        boolean deadLettered = ledgerOutboxService.recordFailure(7L, new RuntimeException("账户不存在"));
+
+        // Then
+        assertThat(deadLettered).isFalse();
+        verify(ledgerOutboxRepository).recordFailure(eq(7L),
+                argThat(next -> !next.isBefore(before.plusSeconds(30))), eq("账户不存在"));
+        verifyNoInteractions(ledgerOutboxDeadLetterRepository);
+    }
+
+    @Test
+    void recordFailure_shouldMoveRecordToDeadLettersAfterMaxAttempts() {
+        // Given - 已失败 4 次，本次为第 5 次
+        record.setAttempts(4);
+        when(ledgerOutboxRepository.claimById(7L)).thenReturn(List.of(record));
+
+        // When
+        boolean deadLettered = ledgerOutboxService.recordFailure(7L, new RuntimeException("账户不存在"));
+
+        // Then
+        assertThat(deadLettered).isTrue();
+        verify(ledgerOutboxDeadLetterRepository).save(argThat(deadLetter ->
+                deadLetter.getTransactionId().equals(testTransaction.getId())
+                        && deadLetter.getUserId().equals(testUser.getId())
+                        && deadLetter.getTransactionDate().equals(testTransaction.getTransactionDate())
+                        && deadLetter.getAttempts() == 5
+                        && deadLetter.getLastError().equals("账户不存在")));
+        verify(ledgerOutboxRepository).delete(record);
+        verify(ledgerOutboxRepository, never()).recordFailure(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void recordFailure_shouldSkipRecordClaimedByAnotherWorker() {
+        // Given
+        when(ledgerOutboxRepository.claimById(7L)).thenReturn(List.of());
+
+        // When
+        boolean deadLettered = ledgerOutboxService.recordFailure(7L, new RuntimeException("账户不存在"));
+
+        // Then
+        assertThat(deadLettered).isFalse();
+        verify(ledgerOutboxRepository, never()).recordFailure(anyLong(), any(), anyString());
+        verifyNoInteractions(ledgerOutboxDeadLetterRepository);
+    }
+}
@@ -0,0 +1,66 @@
+package app.inv.service;
+
+import app.inv.repository.PartitionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    @Mock
+    private PartitionRepository partitionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        partitionMaintenanceService = new PartitionMaintenanceService(partitionRepository, meterRegistry, 2);
+    }
+
+    @Test
+    void createPartitions_shouldCoverCurrentAndUpcomingMonths() {
+        // Given
+        when(partitionRepository.createMonthPartition(anyString(), any(LocalDate.class))).thenReturn(false);
+        when(partitionRepository.createMonthPartition("ledger_entries", LocalDate.of(2026, 1, 1))).thenReturn(true);
+
+        // When
+        int created = partitionMaintenanceService.createPartitions(LocalDate.of(2025, 11, 20));
+
+        // Then
+        assertThat(created).isEqualTo(1);
+        for (String table : PartitionMaintenanceService.PARTITIONED_TABLES) {
+            verify(partitionRepository).createMonthPartition(table, LocalDate.of(2025, 11, 1));
+            verify(partitionRepository).createMonthPartition(table, LocalDate.of(2025, 12, 1));
+            verify(partitionRepository).createMonthPartition(table, LocalDate.of(2026, 1, 1));
+        }
+        verifyNoMoreInteractions(partitionRepository);
+        assertThat(meterRegistry.counter("partition.created", "table", "ledger_entries").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void createUpcomingPartitions_shouldNotThrowWhenDatabaseFails() {
+        // Given
+        when(partitionRepository.createMonthPartition(anyString(), any(LocalDate.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // When
+        partitionMaintenanceService.createUpcomingPartitions();
+
+        // Then
+        verify(partitionRepository, times(1)).createMonthPartition(anyString(), any(LocalDate.class));
+    }
+}
@@ -0,0 +1,180 @@
+package app.inv.service;
+
+import app.inv.entity.Account;
+import app.inv.entity.AccountingPeriod;
+import app.inv.entity.PeriodClosingBalance;
+import app.inv.entity.User;
+import app.inv.repository.AccountRepository;
+import app.inv.repository.AccountingPeriodRepository;
+import app.inv.repository.LedgerDailyRollupRepository;
+import app.inv.repository.LedgerOutboxDeadLetterRepository;
+import app.inv.repository.LedgerOutboxRepository;
+import app.inv.repository.PeriodClosingBalanceRepository;
+import app.inv.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PeriodCloseServiceTest {
+
+    @Mock
+    private AccountingPeriodRepository accountingPeriodRepository;
+
+    @Mock
+    private PeriodClosingBalanceRepository periodClosingBalanceRepository;
+
+    @Mock
+    private LedgerDailyRollupRepository ledgerDailyRollupRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LedgerOutboxRepository ledgerOutboxRepository;
+
+    @Mock
+    private LedgerOutboxDeadLetterRepository ledgerOutboxDeadLetterRepository;
+
+    @Mock
+    private ObjectProvider<TransactionJournalService> transactionJournalService;
+
+    @InjectMocks
+    private PeriodCloseService periodCloseService;
+
+    private User testUser;
+    private Account testAccount;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+
+        testAccount = new Account();
+        testAccount.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void closeMonth_shouldCarryForwardPreviousSnapshotPlusDelta() {
+        // Given
+        YearMonth previousMonth = YearMonth.now().minusMonths(2);
+        YearMonth month = YearMonth.now().minusMonths(1);
+        AccountingPeriod previous = new AccountingPeriod();
+        previous.setPeriodEnd(previousMonth.atEndOfMonth());
+
+        when(userRepository.findByIdForUpdate(testUser.getId())).thenReturn(Optional.of(testUser));
+        when(accountingPeriodRepository.findTopByUserOrderByPeriodEndDesc(testUser)).thenReturn(Optional.of(previous));
+        when(periodClosingBalanceRepository.getBalancesByPeriod(previous)).thenReturn(List.<Object[]>of(
+                new Object[]{testAccount.getId(), "INVENTORY", new BigDecimal("100.00"), BigDecimal.ZERO}));
+        when(ledgerDailyRollupRepository.getAccountCategoryTotals(testUser.getId(), previous.getPeriodEnd(),
+                month.atEndOfMonth())).thenReturn(List.<Object[]>of(
+                new Object[]{testAccount.getId(), "INVENTORY", BigDecimal.ZERO, new BigDecimal("40.00")}));
+        when(accountingPeriodRepository.save(any(AccountingPeriod.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.getReferenceById(testAccount.getId())).thenReturn(testAccount);
+
+        // When
+        AccountingPeriod period = periodCloseService.closeMonth(testUser, month);
+
+        // Then
+        assertThat(period.getPeriodStart()).isEqualTo(month.atDay(1));
+        assertThat(period.getPeriodEnd()).isEqualTo(month.atEndOfMonth());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<PeriodClosingBalance>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(periodClosingBalanceRepository).saveAll(captor.capture());
+        List<PeriodClosingBalance> balances = new ArrayList<>();
+        captor.getValue().forEach(balances::add);
+        assertThat(balances).hasSize(1);
+        assertThat(balances.get(0).getCategoryCode()).isEqualTo("INVENTORY");
+        assertThat(balances.get(0).getDebitTotal()).isEqualByComparingTo("100.00");
+        assertThat(balances.get(0).getCreditTotal()).isEqualByComparingTo("40.00");
+    }
+
+    @Test
+    void closeMonth_shouldRejectCurrentMonth() {
+        assertThatThrownBy(() -> periodCloseService.closeMonth(testUser, YearMonth.now()))
+                .hasMessage("只能结账已结束的月份");
+        verifyNoInteractions(accountingPeriodRepository);
+    }
+
+    @Test
+    void closeMonth_shouldRejectWhileLedgerPostingPending() {
+        // Given
+        YearMonth month = YearMonth.now().minusMonths(1);
+        when(userRepository.findByIdForUpdate(testUser.getId())).thenReturn(Optional.of(testUser));
+        when(accountingPeriodRepository.findTopByUserOrderByPeriodEndDesc(testUser)).thenReturn(Optional.empty());
+        when(ledgerOutboxRepository.existsPendingByUserIdThrough(testUser.getId(), month.atEndOfMonth()))
+                .thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> periodCloseService.closeMonth(testUser, month))
+                .hasMessage("存在尚未完成记账的交易，请稍后再结账");
+        verify(accountingPeriodRepository, never()).save(any(AccountingPeriod.class));
+    }
+
+    @Test
+    void closeMonth_shouldRejectWhileDeadLetteredTransactionsRemain() {
+        // Given
+        YearMonth month = YearMonth.now().minusMonths(1);
+        when(userRepository.findByIdForUpdate(testUser.getId())).thenReturn(Optional.of(testUser));
+        when(accountingPeriodRepository.findTopByUserOrderByPeriodEndDesc(testUser)).thenReturn(Optional.empty());
+        when(ledgerOutboxDeadLetterRepository.countByUserIdAndTransactionDateLessThanEqual(
+                testUser.getId(), month.atEndOfMonth())).thenReturn(2L);
+
+        // When & Then
+        assertThatThrownBy(() -> periodCloseService.closeMonth(testUser, month))
+                .hasMessage("存在 2 笔记账失败的交易，需处理后才能结账");
+        verify(accountingPeriodRepository, never()).save(any(AccountingPeriod.class));
+    }
+
+    @Test
+    void closeMonth_shouldRejectWhileJournaledTransactionsPending() {
+        // Given
+        YearMonth month = YearMonth.now().minusMonths(1);
+        TransactionJournalService journal = mock(TransactionJournalService.class);
+        when(userRepository.findByIdForUpdate(testUser.getId())).thenReturn(Optional.of(testUser));
+        when(accountingPeriodRepository.findTopByUserOrderByPeriodEndDesc(testUser)).thenReturn(Optional.empty());
+        when(transactionJournalService.getIfAvailable()).thenReturn(journal);
+        when(journal.hasPendingThrough(testUser.getId(), month.atEndOfMonth())).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> periodCloseService.closeMonth(testUser, month))
+                .hasMessage("交易日志中存在尚未入库的本期交易，请稍后再结账");
+        verify(accountingPeriodRepository, never()).save(any(AccountingPeriod.class));
+    }
+
+    @Test
+    void assertPeriodOpen_shouldRejectDateInsideClosedPeriod() {
+        // Given
+        AccountingPeriod closed = new AccountingPeriod();
+        closed.setPeriodEnd(YearMonth.now().minusMonths(1).atEndOfMonth());
+        when(accountingPeriodRepository.findTopByUserOrderByPeriodEndDesc(testUser)).thenReturn(Optional.of(closed));
+
+        // When & Then
+        LocalDate backdated = closed.getPeriodEnd().minusDays(3);
+        assertThatThrownBy(() -> periodCloseService.assertPeriodOpen(testUser, backdated))
+                .hasMessage("会计期间已结账");
+        verify(userRepository).findByIdForShare(testUser.getId());
+    }
+}
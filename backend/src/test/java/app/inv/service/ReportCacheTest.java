@@ -0,0 +1,123 @@
+package app.inv.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private ReportCache cache;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        };
+        cache = new ReportCache(2, Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    void get_shouldServeCachedValueUntilTtlExpires() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.get(userId, "trends", List.of("MONTH"), loads::incrementAndGet);
+        cache.get(userId, "trends", List.of("MONTH"), loads::incrementAndGet);
+        now.addAndGet(Duration.ofMinutes(6).toMillis());
+        cache.get(userId, "trends", List.of("MONTH"), loads::incrementAndGet);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateUser_shouldOnlyAffectThatUser() {
+        // Given
+        UUID userA = UUID.randomUUID();
+        UUID userB = UUID.randomUUID();
+        cache.get(userA, "inventory-value", List.of(), () -> "A1");
+        cache.get(userB, "inventory-value", List.of(), () -> "B1");
+
+        // When
+        cache.invalidateUser(userA);
+
+        // Then
+        assertThat(cache.get(userA, "inventory-value", List.of(), () -> "A2")).isEqualTo("A2");
+        assertThat(cache.get(userB, "inventory-value", List.of(), () -> "B2")).isEqualTo("B1");
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsedWhenFull() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        cache.get(userId, "a", List.of(), () -> "a1");
+        cache.get(userId, "b", List.of(), () -> "b1");
+        cache.get(userId, "a", List.of(), () -> "a2");
+
+        // When
+        cache.get(userId, "c", List.of(), () -> "c1");
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(userId, "a", List.of(), () -> "a3")).isEqualTo("a1");
+        assertThat(cache.get(userId, "b", List.of(), () -> "b2")).isEqualTo("b2");
+    }
+
+    @Test
+    void get_shouldKeepGenerationsBoundedByCacheSize() {
+        // Given: 大量用户各读一次报表，另有只写不读的用户
+        UUID lastUser = null;
+        for (int i = 0; i < 10; i++) {
+            lastUser = UUID.randomUUID();
+            cache.get(lastUser, "inventory-value", List.of(), () -> "v1");
+            cache.invalidateUser(UUID.randomUUID());
+        }
+
+        // Then: 版本号只为仍有缓存条目的用户保留，仍在缓存中的结果照常命中
+        assertThat(cache.generationCount()).isLessThanOrEqualTo(4);
+        assertThat(cache.get(lastUser, "inventory-value", List.of(), () -> "v2")).isEqualTo("v1");
+    }
+
+    @Test
+    void invalidateUser_shouldNotReviveEntriesAfterGenerationIsDropped() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        cache.get(userId, "trends", List.of(), () -> "old");
+
+        // When: 版本号被丢弃后重新分配，不会与旧条目的版本号相同
+        cache.invalidateUser(userId);
+
+        // Then
+        assertThat(cache.get(userId, "trends", List.of(), () -> "new")).isEqualTo("new");
+        assertThat(cache.get(userId, "trends", List.of(), () -> "newer")).isEqualTo("new");
+    }
+}
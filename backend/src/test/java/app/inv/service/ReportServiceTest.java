@@ -0,0 +1,221 @@
+package app.inv.service;
+
+import app.inv.dto.CategoryValueNode;
+import app.inv.dto.TrendPeriod;
+import app.inv.dto.TrendPoint;
+import app.inv.entity.User;
+import app.inv.repository.LedgerDailyRollupRepository;
+import app.inv.repository.LedgerEntryRepository;
+import app.inv.repository.PeriodClosingBalanceRepository;
+import app.inv.repository.RowCountEstimator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private ItemService itemService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private AccountBalanceService accountBalanceService;
+
+    @Mock
+    private LedgerDailyRollupRepository ledgerDailyRollupRepository;
+
+    @Mock
+    private PeriodCloseService periodCloseService;
+
+    @Mock
+    private PeriodClosingBalanceRepository periodClosingBalanceRepository;
+
+    @Mock
+    private RowCountEstimator rowCountEstimator;
+
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private CategoryTreeService categoryTreeService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private ReportService reportService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+
+        // 缓存直接透传给加载函数
+        lenient().when(reportCache.get(any(), anyString(), anyList(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTrendsReport_shouldFillEmptyBucketsWithZero() {
+        // Given
+        LocalDate startDate = LocalDate.of(2025, 1, 15);
+        LocalDate endDate = LocalDate.of(2025, 4, 10);
+        when(transactionService.getAmountSeries(testUser, TrendPeriod.MONTH, startDate, endDate)).thenReturn(List.of(
+                new Object[]{Date.valueOf("2025-01-01"), new BigDecimal("100.00"), new BigDecimal("30.00")},
+                new Object[]{Date.valueOf("2025-03-01"), BigDecimal.ZERO, new BigDecimal("50.00")}));
+        when(periodCloseService.getCategoryBalancesAsOf(testUser, endDate)).thenReturn(Map.of());
+
+        // When
+        Map<String, Object> report = reportService.getTrendsReport(testUser, TrendPeriod.MONTH, startDate, endDate);
+
+        // Then
+        List<TrendPoint> series = (List<TrendPoint>) report.get("series");
+        assertThat(series).extracting(TrendPoint::getPeriodStart).containsExactly(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1),
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1));
+        assertThat(series.get(0).getNetAmount()).isEqualByComparingTo("70.00");
+        assertThat(series.get(1).getInboundAmount()).isEqualByComparingTo("0");
+        assertThat(series.get(2).getNetAmount()).isEqualByComparingTo("-50.00");
+        assertThat((BigDecimal) report.get("inboundAmount")).isEqualByComparingTo("100.00");
+        assertThat((BigDecimal) report.get("outboundAmount")).isEqualByComparingTo("80.00");
+        verify(transactionService, times(1)).getAmountSeries(testUser, TrendPeriod.MONTH, startDate, endDate);
+    }
+
+    @Test
+    void getTrendsReport_shouldRejectTooManyBuckets() {
+        // Given - 按天统计超过 1000 天
+        LocalDate startDate = LocalDate.of(2020, 1, 1);
+        LocalDate endDate = startDate.plusDays(ReportService.MAX_TREND_BUCKETS);
+
+        // When & Then
+        assertThatThrownBy(() -> reportService.getTrendsReport(testUser, TrendPeriod.DAY, startDate, endDate))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void trendPeriod_shouldCountBuckets() {
+        LocalDate startDate = LocalDate.of(2025, 1, 15);
+        LocalDate endDate = LocalDate.of(2025, 4, 10);
+
+        assertThat(TrendPeriod.DAY.bucketCount(startDate, startDate)).isEqualTo(1);
+        assertThat(TrendPeriod.MONTH.bucketCount(startDate, endDate)).isEqualTo(4);
+        assertThat(TrendPeriod.QUARTER.bucketCount(startDate, endDate)).isEqualTo(2);
+        assertThat(TrendPeriod.WEEK.bucketCount(LocalDate.of(2025, 8, 14), LocalDate.of(2025, 8, 18))).isEqualTo(2);
+        assertThat(TrendPeriod.MONTH.bucketCount(endDate, startDate)).isZero();
+    }
+
+    @Test
+    void trendPeriod_shouldTruncateLikeDateTrunc() {
+        LocalDate date = LocalDate.of(2025, 8, 14); // 周四
+
+        assertThat(TrendPeriod.WEEK.truncate(date)).isEqualTo(LocalDate.of(2025, 8, 11));
+        assertThat(TrendPeriod.QUARTER.truncate(date)).isEqualTo(LocalDate.of(2025, 7, 1));
+        assertThat(TrendPeriod.from("week")).isEqualTo(TrendPeriod.WEEK);
+        assertThat(TrendPeriod.from(null)).isEqualTo(TrendPeriod.MONTH);
+        assertThatThrownBy(() -> TrendPeriod.from("year"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("不支持的统计周期");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getCategoryValueTreeReport_shouldRollUpChildrenAndKeepUncategorized() {
+        // Given
+        UUID clothing = UUID.randomUUID();
+        UUID tops = UUID.randomUUID();
+        UUID shoes = UUID.randomUUID();
+        CategoryTree tree = CategoryTree.build(List.of(
+                new Object[]{clothing, "服装", null},
+                new Object[]{tops, "上衣", clothing},
+                new Object[]{shoes, "鞋子", null}), 1);
+        when(categoryTreeService.getTree()).thenReturn(tree);
+        when(itemService.getValueAndCountByCategoryId(testUser)).thenReturn(List.of(
+                new Object[]{clothing, new BigDecimal("100.00"), 1L},
+                new Object[]{tops, new BigDecimal("250.00"), 3L},
+                new Object[]{null, new BigDecimal("40.00"), 2L}));
+
+        // When
+        Map<String, Object> report = reportService.getCategoryValueTreeReport(testUser);
+
+        // Then
+        List<CategoryValueNode> categories = (List<CategoryValueNode>) report.get("categories");
+        assertThat(categories).extracting(CategoryValueNode::getName).containsExactly("服装", "鞋子");
+        CategoryValueNode clothingNode = categories.get(0);
+        assertThat(clothingNode.getValue()).isEqualByComparingTo("350.00");
+        assertThat(clothingNode.getItemCount()).isEqualTo(4);
+        assertThat(clothingNode.getOwnValue()).isEqualByComparingTo("100.00");
+        assertThat(clothingNode.getChildren().get(0).getValue()).isEqualByComparingTo("250.00");
+        assertThat(categories.get(1).getItemCount()).isZero();
+        CategoryValueNode uncategorized = (CategoryValueNode) report.get("uncategorized");
+        assertThat(uncategorized.getValue()).isEqualByComparingTo("40.00");
+        assertThat((BigDecimal) report.get("totalValue")).isEqualByComparingTo("390.00");
+        assertThat(report.get("totalItemCount")).isEqualTo(6L);
+    }
+
+    @Test
+    void getInventoryValueReport_shouldKeyCacheByCategoryTreeVersion() {
+        // Given: 品类变更后品类树版本递增
+        UUID categoryId = UUID.randomUUID();
+        when(categoryTreeService.getTree()).thenReturn(CategoryTree.build(List.of(), 7));
+
+        // When
+        Map<String, Object> report = reportService.getInventoryValueReport(testUser, categoryId);
+
+        // Then
+        assertThat(report).containsEntry("categoryId", categoryId);
+        verify(reportCache).get(eq(testUser.getId()), eq("inventory-value"),
+                eq(Arrays.asList(categoryId, 7L)), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getDisposalProfitReport_shouldLabelMissingReasonAsUnspecified() {
+        // Given: 汇总表中原因为空的出库以空字符串为键
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+        when(transactionService.getOutboundAmountByReason(testUser, startDate, endDate)).thenReturn(List.of(
+                new Object[]{"SELL", new BigDecimal("120.00")},
+                new Object[]{"", new BigDecimal("30.00")}));
+
+        // When
+        Map<String, Object> report = reportService.getDisposalProfitReport(testUser, startDate, endDate);
+
+        // Then
+        Map<String, Double> amounts = (Map<String, Double>) report.get("disposalAmounts");
+        assertThat(amounts).containsOnly(Map.entry("SELL", 120.0),
+                Map.entry(ReportService.UNSPECIFIED_REASON, 30.0));
+    }
+}
@@ -0,0 +1,151 @@
+package app.inv.service;
+
+import app.inv.entity.Account;
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.Item;
+import app.inv.entity.LedgerEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticDatasetTest {
+
+    private static final LocalDate END_DATE = LocalDate.of(2025, 6, 30);
+
+    private final List<UUID> categoryIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+    @Test
+    void generateUser_shouldBeDeterministicForSameSeedAndUser() throws Exception {
+        // Given
+        SyntheticDataset dataset = dataset(42);
+
+        // When
+        Collected first = collect(dataset, 3);
+        Collected second = collect(dataset, 3);
+
+        // Then
+        assertThat(first.items).isEqualTo(second.items);
+        assertThat(first.transactions).isEqualTo(second.transactions);
+        assertThat(first.entries).isEqualTo(second.entries);
+        assertThat(collect(dataset, 4).items).doesNotContainAnyElementsOf(first.items);
+    }
+
+    @Test
+    void generateUser_shouldProduceBalancedLedgerFollowingPostingRules() throws Exception {
+        // Given
+        SyntheticDataset dataset = dataset(7);
+
+        // When
+        Collected data = collect(dataset, 0);
+
+        // Then
+        Map<InventoryTransaction.TransactionType, Integer> types = new HashMap<>();
+        data.transactions.forEach(t -> types.merge(t.type(), 1, Integer::sum));
+        assertThat(types.get(InventoryTransaction.TransactionType.IN)).isEqualTo(data.items.size());
+        assertThat(types).containsKey(InventoryTransaction.TransactionType.OUT);
+
+        // 调整类交易不记账，其余每笔交易一借一贷、金额相等
+        long postable = data.transactions.stream()
+                .filter(t -> t.type() != InventoryTransaction.TransactionType.ADJUST).count();
+        assertThat(data.entries).hasSize((int) postable * 2);
+        long debit = data.entries.stream().filter(e -> e.direction() == LedgerEntry.Direction.DEBIT)
+                .mapToLong(SyntheticDataset.LedgerRow::amountCents).sum();
+        long credit = data.entries.stream().filter(e -> e.direction() == LedgerEntry.Direction.CREDIT)
+                .mapToLong(SyntheticDataset.LedgerRow::amountCents).sum();
+        assertThat(debit).isEqualTo(credit);
+
+        for (SyntheticDataset.TransactionRow transaction : data.transactions) {
+            LedgerRule rule = LedgerRule.of(transaction.type(), transaction.reason());
+            List<SyntheticDataset.LedgerRow> entries = data.entriesByTransaction.getOrDefault(transaction.id(), List.of());
+            if (rule == null) {
+                assertThat(entries).isEmpty();
+                continue;
+            }
+            assertThat(entries).extracting(SyntheticDataset.LedgerRow::categoryCode)
+                    .containsExactly(rule.getDebitCode(), rule.getCreditCode());
+            assertThat(entries).allMatch(e -> e.amountCents() == transaction.amountCents());
+            assertThat(data.accountIds).contains(entries.get(0).accountId());
+        }
+    }
+
+    @Test
+    void generateUser_shouldKeepDatesAndReferencesConsistent() throws Exception {
+        // Given
+        SyntheticDataset dataset = dataset(11);
+
+        // When
+        Collected data = collect(dataset, 1);
+
+        // Then
+        Set<UUID> itemIds = new HashSet<>();
+        Set<UUID> removed = new HashSet<>();
+        for (SyntheticDataset.ItemRow item : data.items) {
+            itemIds.add(item.id());
+            if (item.status() == Item.ItemStatus.REMOVED) {
+                removed.add(item.id());
+            }
+            assertThat(item.purchaseDate()).isBetween(END_DATE.minusDays(365), END_DATE);
+            assertThat(item.priceCents()).isBetween(500L, 5_000_000L);
+            assertThat(item.categoryId() == null || categoryIds.contains(item.categoryId())).isTrue();
+        }
+        assertThat(data.transactions).allMatch(t -> itemIds.contains(t.itemId()) && !t.date().isAfter(END_DATE));
+        // 有出库记录的物品标记为已移除
+        assertThat(data.transactions.stream()
+                .filter(t -> t.type() == InventoryTransaction.TransactionType.OUT)
+                .map(SyntheticDataset.TransactionRow::itemId))
+                .containsExactlyInAnyOrderElementsOf(removed);
+    }
+
+    private SyntheticDataset dataset(long seed) {
+        return new SyntheticDataset(new SyntheticDataset.Settings(seed, 200, 0.3, 0.05, 365, END_DATE, "test"),
+                categoryIds);
+    }
+
+    private static Collected collect(SyntheticDataset dataset, int userIndex) throws Exception {
+        Collected collected = new Collected();
+        dataset.generateUser(userIndex, collected);
+        return collected;
+    }
+
+    private static final class Collected implements SyntheticDataset.RowSink {
+        private final List<UUID> accountIds = new ArrayList<>();
+        private final List<SyntheticDataset.ItemRow> items = new ArrayList<>();
+        private final List<SyntheticDataset.TransactionRow> transactions = new ArrayList<>();
+        private final List<SyntheticDataset.LedgerRow> entries = new ArrayList<>();
+        // 分录紧跟在所属交易之后生成
+        private final Map<UUID, List<SyntheticDataset.LedgerRow>> entriesByTransaction = new HashMap<>();
+        private UUID lastTransactionId;
+
+        @Override
+        public void account(UUID id, UUID userId, String name, Account.AccountType type, LocalDateTime createdAt) {
+            accountIds.add(id);
+        }
+
+        @Override
+        public void item(SyntheticDataset.ItemRow item) {
+            items.add(item);
+        }
+
+        @Override
+        public void transaction(SyntheticDataset.TransactionRow transaction) {
+            transactions.add(transaction);
+            lastTransactionId = transaction.id();
+        }
+
+        @Override
+        public void ledgerEntry(SyntheticDataset.LedgerRow entry) {
+            entries.add(entry);
+            entriesByTransaction.computeIfAbsent(lastTransactionId, id -> new ArrayList<>()).add(entry);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package app.inv.service;
+
+import app.inv.util.JournalFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionJournalApplierTest {
+
+    @Mock
+    private TransactionJournal journal;
+
+    @Mock
+    private TransactionJournalService journalService;
+
+    private TransactionJournalApplier applier;
+
+    private final JournalFile.Record poison = new JournalFile.Record(0, 100, new byte[]{1});
+    private final JournalFile.Record healthy = new JournalFile.Record(100, 200, new byte[]{2});
+
+    @BeforeEach
+    void setUp() {
+        applier = new TransactionJournalApplier(journal, journalService, new SimpleMeterRegistry(),
+                10, Duration.ofMillis(1), Duration.ofMillis(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        applier.stop();
+    }
+
+    @Test
+    void run_shouldIsolateAndRejectPoisonRecordAfterMaxAttempts() {
+        // Given
+        when(journal.getAppliedOffset()).thenReturn(0L);
+        when(journal.read(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long offset = invocation.getArgument(0);
+            int max = invocation.getArgument(1);
+            List<JournalFile.Record> records = List.of(poison, healthy).stream()
+                    .filter(record -> record.offset() >= offset)
+                    .toList();
+            return records.subList(0, Math.min(max, records.size()));
+        });
+        doAnswer(invocation -> {
+            List<JournalFile.Record> records = invocation.getArgument(0);
+            if (records.contains(poison)) {
+                throw new RuntimeException("数据库错误");
+            }
+            return null;
+        }).when(journalService).applyBatch(anyList(), anyLong());
+
+        // When
+        applier.start();
+
+        // Then
+        verify(journalService, timeout(5000).times(2)).applyBatch(List.of(poison, healthy), 200L);
+        verify(journalService, timeout(5000).times(2)).applyBatch(List.of(poison), 100L);
+        verify(journalService, timeout(5000)).rejectRecord(eq(poison), contains("数据库错误"));
+        verify(journal, timeout(5000)).markApplied(100L);
+        verify(journalService, timeout(5000)).applyBatch(List.of(healthy), 200L);
+        verify(journal, timeout(5000)).markApplied(200L);
+    }
+
+    @Test
+    void run_shouldKeepRetryingWhenRejectionCannotBeWritten() {
+        // Given
+        when(journal.getAppliedOffset()).thenReturn(0L);
+        when(journal.read(anyLong(), anyInt())).thenReturn(List.of(poison));
+        doThrow(new RuntimeException("连接失败")).when(journalService).applyBatch(anyList(), anyLong());
+        doThrow(new RuntimeException("连接失败")).when(journalService).rejectRecord(any(), anyString());
+
+        // When
+        applier.start();
+
+        // Then
+        verify(journalService, timeout(5000).atLeast(2)).rejectRecord(eq(poison), anyString());
+        verify(journal, never()).markApplied(anyLong());
+    }
+}
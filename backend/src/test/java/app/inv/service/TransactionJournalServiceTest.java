@@ -0,0 +1,224 @@
+package app.inv.service;
+
+import app.inv.dto.TransactionBatchResult;
+import app.inv.dto.TransactionRequest;
+import app.inv.entity.InventoryTransaction;
+import app.inv.entity.TransactionJournalRejection;
+import app.inv.entity.User;
+import app.inv.repository.TransactionJournalCheckpointRepository;
+import app.inv.repository.TransactionJournalRejectionRepository;
+import app.inv.repository.UserRepository;
+import app.inv.util.JournalFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionJournalServiceTest {
+
+    @Mock
+    private TransactionJournal journal;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionJournalCheckpointRepository checkpointRepository;
+
+    @Mock
+    private TransactionJournalRejectionRepository rejectionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionJournalService journalService;
+
+    private User testUser;
+    private TransactionRequest request;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        journalService = new TransactionJournalService(journal, transactionService, userRepository,
+                checkpointRepository, rejectionRepository, objectMapper, meterRegistry, Duration.ofSeconds(1));
+
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+
+        request = new TransactionRequest();
+        request.setItemId(UUID.randomUUID());
+        request.setAccountId(UUID.randomUUID());
+        request.setType(InventoryTransaction.TransactionType.IN);
+        request.setQuantity(1);
+        request.setUnitPrice(new BigDecimal("99.00"));
+        request.setTransactionDate(LocalDate.of(2025, 10, 20));
+        request.setReason(InventoryTransaction.TransactionReason.PURCHASE);
+    }
+
+    @Test
+    void accept_shouldAppendToJournalAndReturnDurableOffset() {
+        // Given
+        when(transactionService.checkTransaction(testUser, request)).thenReturn(null);
+        when(journal.append(any())).thenReturn(CompletableFuture.completedFuture(128L));
+
+        // When
+        long offset = journalService.accept(testUser, request);
+
+        // Then
+        assertThat(offset).isEqualTo(128L);
+        verify(transactionService, never()).createTransactionBatch(any(), anyList());
+    }
+
+    @Test
+    void accept_shouldRejectInvalidTransactionWithoutJournaling() {
+        // Given
+        when(transactionService.checkTransaction(testUser, request)).thenReturn("物品不存在");
+
+        // When & Then
+        assertThatThrownBy(() -> journalService.accept(testUser, request))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("物品不存在");
+        verifyNoInteractions(journal);
+    }
+
+    @Test
+    void accept_shouldFailWhenAppendIsNotDurable() {
+        // Given
+        when(transactionService.checkTransaction(testUser, request)).thenReturn(null);
+        when(journal.append(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("交易日志已关闭")));
+
+        // When & Then
+        assertThatThrownBy(() -> journalService.accept(testUser, request))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("交易日志写入失败: 交易日志已关闭");
+    }
+
+    @Test
+    void applyBatch_shouldApplyPerUserAndAdvanceCheckpoint() throws Exception {
+        // Given
+        User otherUser = new User();
+        otherUser.setId(UUID.randomUUID());
+        List<JournalFile.Record> records = List.of(
+                record(0, testUser, request),
+                record(100, otherUser, request),
+                record(200, testUser, request));
+        when(journal.getName()).thenReturn("default");
+        when(userRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+        when(userRepository.getReferenceById(otherUser.getId())).thenReturn(otherUser);
+        when(transactionService.createTransactionBatch(eq(testUser), anyList())).thenReturn(List.of(
+                TransactionBatchResult.success(0, UUID.randomUUID()),
+                TransactionBatchResult.failure(1, "会计期间已结账")));
+        when(transactionService.createTransactionBatch(eq(otherUser), anyList())).thenReturn(List.of(
+                TransactionBatchResult.success(0, UUID.randomUUID())));
+
+        // When
+        journalService.applyBatch(records, 300);
+
+        // Then
+        InOrder inOrder = inOrder(transactionService, checkpointRepository);
+        inOrder.verify(transactionService).createTransactionBatch(eq(testUser), argThat(list -> list.size() == 2));
+        inOrder.verify(transactionService).createTransactionBatch(eq(otherUser), argThat(list -> list.size() == 1));
+        inOrder.verify(checkpointRepository).advance("default", 300);
+        assertThat(meterRegistry.counter("transaction.journal.rejected").count()).isEqualTo(1);
+        // 被拒绝的是该用户的第二条，即偏移量 200 的记录，按受理时返回的偏移量保存
+        ArgumentCaptor<TransactionJournalRejection> rejection = ArgumentCaptor.forClass(TransactionJournalRejection.class);
+        verify(rejectionRepository).save(rejection.capture());
+        assertThat(rejection.getValue().getJournalName()).isEqualTo("default");
+        assertThat(rejection.getValue().getJournalOffset()).isEqualTo(300);
+        assertThat(rejection.getValue().getUserId()).isEqualTo(testUser.getId());
+        assertThat(rejection.getValue().getReason()).isEqualTo("会计期间已结账");
+    }
+
+    @Test
+    void applyBatch_shouldRejectUndecodableRecordAndContinue() throws Exception {
+        // Given
+        List<JournalFile.Record> records = List.of(
+                new JournalFile.Record(0, 100, "{not json".getBytes(StandardCharsets.UTF_8)),
+                record(100, testUser, request));
+        when(journal.getName()).thenReturn("default");
+        when(userRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+        when(transactionService.createTransactionBatch(eq(testUser), anyList())).thenReturn(List.of(
+                TransactionBatchResult.success(0, UUID.randomUUID())));
+
+        // When
+        journalService.applyBatch(records, 200);
+
+        // Then
+        ArgumentCaptor<TransactionJournalRejection> rejection = ArgumentCaptor.forClass(TransactionJournalRejection.class);
+        verify(rejectionRepository).save(rejection.capture());
+        assertThat(rejection.getValue().getJournalOffset()).isEqualTo(100);
+        assertThat(rejection.getValue().getUserId()).isNull();
+        verify(transactionService).createTransactionBatch(eq(testUser), argThat(list -> list.size() == 1));
+        verify(checkpointRepository).advance("default", 200);
+    }
+
+    @Test
+    void applyBatch_shouldNotAdvanceCheckpointWhenWriteFails() throws Exception {
+        // Given
+        when(userRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+        when(transactionService.createTransactionBatch(eq(testUser), anyList()))
+                .thenThrow(new RuntimeException("数据库错误"));
+
+        // When & Then
+        assertThatThrownBy(() -> journalService.applyBatch(List.of(record(0, testUser, request)), 100))
+                .hasMessage("数据库错误");
+        verifyNoInteractions(checkpointRepository, rejectionRepository);
+    }
+
+    @Test
+    void rejectRecord_shouldDeadLetterAndAdvancePastRecord() throws Exception {
+        // Given
+        when(journal.getName()).thenReturn("default");
+
+        // When
+        journalService.rejectRecord(record(100, testUser, request), "连续 5 次入库失败: 数据库错误");
+
+        // Then
+        ArgumentCaptor<TransactionJournalRejection> rejection = ArgumentCaptor.forClass(TransactionJournalRejection.class);
+        verify(rejectionRepository).save(rejection.capture());
+        assertThat(rejection.getValue().getUserId()).isEqualTo(testUser.getId());
+        assertThat(rejection.getValue().getJournalOffset()).isEqualTo(200);
+        verify(checkpointRepository).advance("default", 200);
+    }
+
+    @Test
+    void hasPendingThrough_shouldFindUnappliedTransactionOfUserInPeriod() throws Exception {
+        // Given
+        User otherUser = new User();
+        otherUser.setId(UUID.randomUUID());
+        when(journal.getAppliedOffset()).thenReturn(0L);
+        when(journal.read(0L, 1000)).thenReturn(List.of(record(0, otherUser, request), record(100, testUser, request)));
+
+        // When & Then
+        assertThat(journalService.hasPendingThrough(testUser.getId(), LocalDate.of(2025, 10, 31))).isTrue();
+        assertThat(journalService.hasPendingThrough(testUser.getId(), LocalDate.of(2025, 9, 30))).isFalse();
+    }
+
+    private JournalFile.Record record(long offset, User user, TransactionRequest request) throws Exception {
+        byte[] payload = objectMapper.writeValueAsBytes(
+                new TransactionJournalService.JournaledTransaction(user.getId(), request));
+        return new JournalFile.Record(offset, offset + 100, payload);
+    }
+}
@@ -1,21 +1,42 @@
 package app.inv.service;
 
+import app.inv.dto.TransactionBatchResult;
+import app.inv.dto.TransactionRequest;
 import app.inv.entity.*;
+import app.inv.repository.AccountRepository;
 import app.inv.repository.InventoryTransactionRepository;
+import app.inv.repository.ItemRepository;
 import app.inv.repository.LedgerEntryRepository;
+import app.inv.repository.LedgerOutboxRepository;
+import app.inv.repository.PostingFunctionRepository;
+import app.inv.repository.TransactionDailyRollupRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +48,39 @@ class TransactionServiceTest {
     @Mock
     private LedgerEntryRepository ledgerEntryRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountBalanceService accountBalanceService;
+
+    @Mock
+    private DailyRollupService dailyRollupService;
+
+    @Mock
+    private TransactionDailyRollupRepository transactionDailyRollupRepository;
+
+    @Mock
+    private PeriodCloseService periodCloseService;
+
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private LedgerOutboxRepository ledgerOutboxRepository;
+
+    @Mock
+    private PostingFunctionRepository postingFunctionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -93,6 +147,13 @@ class TransactionServiceTest {
 
         verify(transactionRepository).save(any(InventoryTransaction.class));
         verify(ledgerEntryRepository, atLeast(1)).save(any(LedgerEntry.class));
+        verify(accountBalanceService).applyEntries(anyIterable());
+        verify(dailyRollupService).applyTransactions(anyIterable());
+        verify(dailyRollupService).applyLedgerEntries(anyIterable());
+        assertThat(meterRegistry.counter("transaction.posted", "type", "IN", "reason", "PURCHASE").count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.timer("transaction.posting", "type", "IN", "outcome", "success").count())
+                .isEqualTo(1);
     }
 
     @Test
@@ -118,4 +179,229 @@ class TransactionServiceTest {
         // Then
         assertThat(result.getTotalAmount()).isEqualTo(expectedTotal);
     }
+
+    @Test
+    void createTransaction_shouldRejectClosedPeriod() {
+        // Given
+        LocalDate closedDate = LocalDate.now().minusMonths(2);
+        doThrow(new RuntimeException("会计期间已结账"))
+                .when(periodCloseService).assertPeriodOpen(testUser, closedDate);
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransaction(
+                testUser, testItem, InventoryTransaction.TransactionType.IN,
+                1, new BigDecimal("10.00"), closedDate,
+                InventoryTransaction.TransactionReason.PURCHASE, null, testAccount))
+                .hasMessage("会计期间已结账");
+        verifyNoInteractions(transactionRepository, ledgerEntryRepository);
+    }
+
+    @Test
+    void createTransactionBatch_shouldSaveValidRowsAndReportInvalidOnes() {
+        // Given
+        TransactionRequest valid = new TransactionRequest();
+        valid.setItemId(testItem.getId());
+        valid.setAccountId(testAccount.getId());
+        valid.setType(InventoryTransaction.TransactionType.OUT);
+        valid.setQuantity(1);
+        valid.setUnitPrice(new BigDecimal("80.00"));
+        valid.setTransactionDate(LocalDate.now());
+        valid.setReason(InventoryTransaction.TransactionReason.SELL);
+
+        TransactionRequest unknownItem = new TransactionRequest();
+        unknownItem.setItemId(UUID.randomUUID());
+        unknownItem.setAccountId(testAccount.getId());
+        unknownItem.setType(InventoryTransaction.TransactionType.IN);
+        unknownItem.setQuantity(1);
+        unknownItem.setUnitPrice(new BigDecimal("10.00"));
+        unknownItem.setTransactionDate(LocalDate.now());
+
+        when(itemRepository.findAllById(anyIterable())).thenReturn(List.of(testItem));
+        when(accountRepository.findAllById(anyIterable())).thenReturn(List.of(testAccount));
+        when(transactionRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            Iterable<InventoryTransaction> transactions = invocation.getArgument(0);
+            transactions.forEach(t -> t.setId(UUID.randomUUID()));
+            return transactions;
+        });
+
+        // When
+        List<TransactionBatchResult> results = transactionService.createTransactionBatch(
+                testUser, List.of(valid, unknownItem));
+
+        // Then
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(0).getTransactionId()).isNotNull();
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).getMessage()).isEqualTo("物品不存在");
+        assertThat(testItem.getStatus()).isEqualTo(Item.ItemStatus.REMOVED);
+
+        verify(ledgerEntryRepository).saveAll(argThat((Iterable<LedgerEntry> entries) -> {
+            List<LedgerEntry> list = new ArrayList<>();
+            entries.forEach(list::add);
+            return list.size() == 2
+                    && list.get(0).getDirection() == LedgerEntry.Direction.DEBIT
+                    && "CASH".equals(list.get(0).getCategoryCode())
+                    && "INVENTORY".equals(list.get(1).getCategoryCode());
+        }));
+        verify(ledgerEntryRepository, never()).save(any(LedgerEntry.class));
+    }
+
+    @Test
+    void createTransactionBatch_shouldCountPostedOnlyAfterCommit() {
+        // Given
+        TransactionRequest request = new TransactionRequest();
+        request.setItemId(testItem.getId());
+        request.setAccountId(testAccount.getId());
+        request.setType(InventoryTransaction.TransactionType.OUT);
+        request.setQuantity(1);
+        request.setUnitPrice(new BigDecimal("80.00"));
+        request.setTransactionDate(LocalDate.now());
+        request.setReason(InventoryTransaction.TransactionReason.SELL);
+
+        when(itemRepository.findAllById(anyIterable())).thenReturn(List.of(testItem));
+        when(accountRepository.findAllById(anyIterable())).thenReturn(List.of(testAccount));
+        when(transactionRepository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            transactionService.createTransactionBatch(testUser, List.of(request));
+
+            // Then - 提交前不计数
+            assertThat(meterRegistry.find("transaction.posted").counter()).isNull();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(meterRegistry.counter("transaction.posted", "type", "OUT", "reason", "SELL").count())
+                    .isEqualTo(1.0);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void createTransactionBatch_shouldNotCountWhenWritesFail() {
+        // Given
+        TransactionRequest request = new TransactionRequest();
+        request.setItemId(testItem.getId());
+        request.setAccountId(testAccount.getId());
+        request.setType(InventoryTransaction.TransactionType.IN);
+        request.setQuantity(1);
+        request.setUnitPrice(new BigDecimal("80.00"));
+        request.setTransactionDate(LocalDate.now());
+        request.setReason(InventoryTransaction.TransactionReason.PURCHASE);
+
+        when(itemRepository.findAllById(anyIterable())).thenReturn(List.of(testItem));
+        when(accountRepository.findAllById(anyIterable())).thenReturn(List.of(testAccount));
+        when(transactionRepository.saveAll(anyIterable())).thenThrow(new RuntimeException("数据库错误"));
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransactionBatch(testUser, List.of(request)))
+                .hasMessage("数据库错误");
+        assertThat(meterRegistry.find("transaction.posted").counter()).isNull();
+    }
+
+    @Test
+    void createTransaction_shouldWriteOutboxInsteadOfLedgerEntriesWhenAsync() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "asyncPosting", true);
+        when(transactionRepository.save(any(InventoryTransaction.class))).thenAnswer(invocation -> {
+            InventoryTransaction transaction = invocation.getArgument(0);
+            transaction.setId(UUID.randomUUID());
+            return transaction;
+        });
+
+        // When
+        InventoryTransaction result = transactionService.createTransaction(
+                testUser, testItem, InventoryTransaction.TransactionType.OUT,
+                1, new BigDecimal("60.00"), LocalDate.now(),
+                InventoryTransaction.TransactionReason.SELL, null, testAccount);
+
+        // Then
+        verify(ledgerOutboxRepository).save(argThat((LedgerOutbox record) -> record.getTransaction() == result
+                && testUser.getId().equals(record.getUserId())
+                && testAccount.getId().equals(record.getAccountId())));
+        verify(dailyRollupService).applyTransactions(anyIterable());
+        verifyNoInteractions(ledgerEntryRepository, accountBalanceService);
+        verify(dailyRollupService, never()).applyLedgerEntries(anyIterable());
+        // 物品状态仍在同一事务内更新
+        assertThat(testItem.getStatus()).isEqualTo(Item.ItemStatus.REMOVED);
+    }
+
+    @Test
+    void createTransactionBatch_shouldPostThroughFunctionWhenConfigured() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "postingEngine", PostingEngine.FUNCTION);
+        ReflectionTestUtils.setField(transactionService, "entityManager", entityManager);
+        TransactionRequest request = new TransactionRequest();
+        request.setItemId(testItem.getId());
+        request.setAccountId(testAccount.getId());
+        request.setType(InventoryTransaction.TransactionType.OUT);
+        request.setQuantity(2);
+        request.setUnitPrice(new BigDecimal("40.00"));
+        request.setTransactionDate(LocalDate.now());
+        request.setReason(InventoryTransaction.TransactionReason.GIFT);
+
+        when(itemRepository.findAllById(anyIterable())).thenReturn(List.of(testItem));
+        when(accountRepository.findAllById(anyIterable())).thenReturn(List.of(testAccount));
+        givenPostingFunctionReturnsCreatedAt(LocalDateTime.of(2026, 10, 18, 9, 30));
+        // 函数已把物品改为已移除，重新读取托管实体得到库中的状态
+        when(entityManager.contains(testItem)).thenReturn(true);
+        doAnswer(invocation -> {
+            testItem.setStatus(Item.ItemStatus.REMOVED);
+            return null;
+        }).when(entityManager).refresh(testItem);
+
+        // When
+        List<TransactionBatchResult> results = transactionService.createTransactionBatch(testUser, List.of(request));
+
+        // Then
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).isSuccess()).isTrue();
+        verify(postingFunctionRepository).post(eq(testUser.getId()),
+                argThat((List<PostingFunctionRepository.PostingRow> rows) -> {
+                    PostingFunctionRepository.PostingRow row = rows.get(0);
+                    return rows.size() == 1
+                            && row.transactionId().equals(results.get(0).getTransactionId())
+                            && new BigDecimal("80.00").equals(row.totalAmount())
+                            && "LOSS".equals(row.debitCode())
+                            && "INVENTORY".equals(row.creditCode())
+                            && row.debitEntryId() != null && row.creditEntryId() != null;
+                }), eq(false));
+        // 全部写入由一次函数调用完成，不经过 JPA
+        verifyNoInteractions(transactionRepository, ledgerEntryRepository, accountBalanceService,
+                dailyRollupService, ledgerOutboxRepository);
+        verify(entityManager).refresh(testItem);
+        assertThat(testItem.getStatus()).isEqualTo(Item.ItemStatus.REMOVED);
+    }
+
+    @Test
+    void createTransaction_shouldReturnPostedStateWhenPostingThroughFunction() {
+        // Given: 物品未被当前持久化上下文托管
+        ReflectionTestUtils.setField(transactionService, "postingEngine", PostingEngine.FUNCTION);
+        ReflectionTestUtils.setField(transactionService, "entityManager", entityManager);
+        LocalDateTime createdAt = LocalDateTime.of(2026, 10, 18, 9, 30);
+        givenPostingFunctionReturnsCreatedAt(createdAt);
+
+        // When
+        InventoryTransaction result = transactionService.createTransaction(testUser, testItem,
+                InventoryTransaction.TransactionType.OUT, 1, new BigDecimal("40.00"), LocalDate.now(),
+                InventoryTransaction.TransactionReason.SELL, null, testAccount);
+
+        // Then
+        assertThat(result.getId()).isNotNull();
+        assertThat(result.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(testItem.getStatus()).isEqualTo(Item.ItemStatus.REMOVED);
+        verify(entityManager, never()).refresh(any());
+        verify(reportCache).invalidateUser(testUser.getId());
+        verifyNoInteractions(transactionRepository, ledgerEntryRepository);
+    }
+
+    private void givenPostingFunctionReturnsCreatedAt(LocalDateTime createdAt) {
+        when(postingFunctionRepository.post(eq(testUser.getId()), anyList(), eq(false))).thenAnswer(invocation -> {
+            List<PostingFunctionRepository.PostingRow> rows = invocation.getArgument(1);
+            return rows.stream()
+                    .map(row -> new PostingFunctionRepository.PostedTransaction(row.transactionId(), createdAt))
+                    .toList();
+        });
+    }
 }
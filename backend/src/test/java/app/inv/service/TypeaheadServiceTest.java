@@ -0,0 +1,103 @@
+package app.inv.service;
+
+import app.inv.dto.Suggestion;
+import app.inv.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TypeaheadServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private CategoryTreeService categoryTreeService;
+
+    private TypeaheadService typeaheadService;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        typeaheadService = new TypeaheadService(itemRepository, categoryTreeService, Duration.ofMinutes(30), 2);
+        userId = UUID.randomUUID();
+        lenient().when(categoryTreeService.getTree()).thenReturn(CategoryTree.build(List.of(), 1));
+    }
+
+    @Test
+    void itemAdded_shouldNotTrackUsersWithoutLoadedIndex() {
+        // When: 写入发生在索引加载之前
+        for (int i = 0; i < 5; i++) {
+            typeaheadService.itemAdded(UUID.randomUUID(), "夹克", "品牌");
+        }
+
+        // Then
+        assertThat(typeaheadService.writeVersionCount()).isZero();
+        assertThat(typeaheadService.loadedUserCount()).isZero();
+    }
+
+    @Test
+    void suggest_shouldInstallIndexAndApplyLaterWrites() {
+        // Given
+        when(itemRepository.findSuggestTermsByUserId(userId)).thenReturn(List.<Object[]>of(new Object[]{"夹克", "品牌"}));
+
+        // When
+        typeaheadService.suggest(userId, "夹", 10);
+        typeaheadService.itemAdded(userId, "夹趾拖鞋", null);
+        List<Suggestion> suggestions = typeaheadService.suggest(userId, "夹", 10);
+
+        // Then
+        assertThat(suggestions).extracting(Suggestion::getText).containsExactlyInAnyOrder("夹克", "夹趾拖鞋");
+        assertThat(typeaheadService.loadedUserCount()).isEqualTo(1);
+        assertThat(typeaheadService.writeVersionCount()).isZero();
+        verify(itemRepository, times(1)).findSuggestTermsByUserId(userId);
+    }
+
+    @Test
+    void suggest_shouldDiscardIndexWrittenDuringLoad() {
+        // Given: 加载查询返回前，另一事务提交了一次写入
+        when(itemRepository.findSuggestTermsByUserId(userId)).thenAnswer(invocation -> {
+            typeaheadService.itemAdded(userId, "夹趾拖鞋", null);
+            return List.<Object[]>of(new Object[]{"夹克", "品牌"});
+        });
+
+        // When
+        List<Suggestion> suggestions = typeaheadService.suggest(userId, "夹", 10);
+
+        // Then: 本次仍使用加载结果，但不安装，下次查询重新加载
+        assertThat(suggestions).extracting(Suggestion::getText).containsExactly("夹克");
+        assertThat(typeaheadService.loadedUserCount()).isZero();
+        assertThat(typeaheadService.writeVersionCount()).isZero();
+    }
+
+    @Test
+    void suggest_shouldEvictLeastRecentlyUsedIndexBeyondMaxUsers() {
+        // Given
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(itemRepository.findSuggestTermsByUserId(any())).thenReturn(List.of());
+
+        // When: 上限为 2，第三个用户加载时释放最久未查询的 second
+        typeaheadService.suggest(userId, "夹", 10);
+        typeaheadService.suggest(second, "夹", 10);
+        typeaheadService.suggest(userId, "夹", 10);
+        typeaheadService.suggest(third, "夹", 10);
+        typeaheadService.suggest(userId, "夹", 10);
+
+        // Then
+        assertThat(typeaheadService.loadedUserCount()).isEqualTo(2);
+        verify(itemRepository, times(1)).findSuggestTermsByUserId(userId);
+        typeaheadService.suggest(second, "夹", 10);
+        verify(itemRepository, times(2)).findSuggestTermsByUserId(second);
+    }
+}
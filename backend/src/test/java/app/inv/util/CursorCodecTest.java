@@ -0,0 +1,60 @@
+package app.inv.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    @Test
+    void encode_and_decode_cursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 10, 20, 8, 30, 15, 123456000);
+        UUID id = UUID.randomUUID();
+
+        String token = CursorCodec.encode(createdAt, id);
+        CursorCodec.Cursor cursor = CursorCodec.decode(token);
+
+        assertThat(token).doesNotContain("|");
+        assertThat(LocalDateTime.parse(cursor.getSortKey())).isEqualTo(createdAt);
+        assertThat(cursor.getId()).isEqualTo(id);
+    }
+
+    @Test
+    void decode_rejects_tampered_cursor() {
+        assertThatThrownBy(() -> CursorCodec.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("无效的分页游标");
+    }
+
+    @Test
+    void sortKey_parses_date_and_date_time() {
+        LocalDate date = LocalDate.of(2025, 10, 20);
+        LocalDateTime createdAt = LocalDateTime.of(2025, 10, 20, 8, 30, 15);
+
+        assertThat(CursorCodec.decode(CursorCodec.encode(date, UUID.randomUUID())).sortKeyAsDate())
+                .isEqualTo(date);
+        assertThat(CursorCodec.decode(CursorCodec.encode(createdAt, UUID.randomUUID())).sortKeyAsDateTime())
+                .isEqualTo(createdAt);
+    }
+
+    @Test
+    void sortKey_rejects_cursor_from_another_endpoint() {
+        // 物品游标的排序键是时间，不能用于按日期排序的交易游标，反之亦然
+        CursorCodec.Cursor itemCursor = CursorCodec.decode(
+                CursorCodec.encode(LocalDateTime.of(2025, 10, 20, 8, 30), UUID.randomUUID()));
+        CursorCodec.Cursor transactionCursor = CursorCodec.decode(
+                CursorCodec.encode(LocalDate.of(2025, 10, 20), UUID.randomUUID()));
+
+        assertThatThrownBy(itemCursor::sortKeyAsDate)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("无效的分页游标");
+        assertThatThrownBy(transactionCursor::sortKeyAsDateTime)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("无效的分页游标");
+    }
+}
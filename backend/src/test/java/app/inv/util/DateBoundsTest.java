@@ -0,0 +1,40 @@
+package app.inv.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DateBoundsTest {
+
+    @Test
+    void missing_bounds_are_replaced_by_extremes() {
+        LocalDate date = LocalDate.of(2025, 3, 15);
+
+        assertThat(DateBounds.lower(null)).isEqualTo(DateBounds.MIN);
+        assertThat(DateBounds.upper(null)).isEqualTo(DateBounds.MAX);
+        assertThat(DateBounds.lower(date)).isEqualTo(date);
+        assertThat(DateBounds.upper(date)).isEqualTo(date);
+    }
+
+    @Test
+    void cursor_date_tightens_upper_bound() {
+        LocalDate endDate = LocalDate.of(2025, 12, 31);
+        LocalDate afterDate = LocalDate.of(2025, 6, 1);
+
+        assertThat(DateBounds.upper(null, afterDate)).isEqualTo(afterDate);
+        assertThat(DateBounds.upper(endDate, afterDate)).isEqualTo(afterDate);
+        assertThat(DateBounds.upper(afterDate, endDate)).isEqualTo(afterDate);
+        assertThat(DateBounds.upper(endDate, null)).isEqualTo(endDate);
+    }
+
+    @Test
+    void cursor_time_is_upper_bound_for_created_at() {
+        LocalDateTime afterCreatedAt = LocalDateTime.of(2025, 6, 1, 12, 30);
+
+        assertThat(DateBounds.upperTime(afterCreatedAt)).isEqualTo(afterCreatedAt);
+        assertThat(DateBounds.upperTime(null)).isEqualTo(DateBounds.MAX_TIME);
+    }
+}
@@ -0,0 +1,177 @@
+package app.inv.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalFileTest {
+
+    private static final int SEGMENT_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_returnsOnlyForcedRecords() throws IOException {
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            long first = journal.append(bytes("one"));
+            journal.force();
+            journal.append(bytes("two"));
+
+            List<JournalFile.Record> records = journal.read(0, 10);
+
+            assertThat(first).isEqualTo(JournalFile.HEADER_SIZE + 3);
+            assertThat(records).extracting(r -> text(r.payload())).containsExactly("one");
+            assertThat(records.get(0).nextOffset()).isEqualTo(first);
+        }
+    }
+
+    @Test
+    void append_rollsToNextSegmentWhenRecordDoesNotFit() throws IOException {
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            journal.append(new byte[40]);
+            long end = journal.append(bytes("second"));
+            journal.force();
+
+            List<JournalFile.Record> records = journal.read(0, 10);
+
+            // 第二条放不下，写入从 64 开始的第二段
+            assertThat(end).isEqualTo(SEGMENT_SIZE + JournalFile.HEADER_SIZE + 6);
+            assertThat(records).hasSize(2);
+            assertThat(records.get(1).offset()).isEqualTo(SEGMENT_SIZE);
+            assertThat(journal.read(records.get(0).nextOffset(), 10))
+                    .extracting(r -> text(r.payload())).containsExactly("second");
+            assertThat(segmentFiles()).hasSize(2);
+        }
+    }
+
+    @Test
+    void open_recoversEndAndDiscardsTornRecord() throws IOException {
+        long end;
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            journal.append(bytes("kept"));
+            end = journal.force();
+        }
+        // 模拟崩溃：只写入了下一条记录的长度
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            file.seek(end);
+            file.writeInt(20);
+            file.writeInt(12345);
+        }
+
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            assertThat(journal.endOffset()).isEqualTo(end);
+            journal.append(bytes("next"));
+            journal.force();
+
+            assertThat(journal.read(0, 10)).extracting(r -> text(r.payload())).containsExactly("kept", "next");
+        }
+    }
+
+    @Test
+    void open_truncatesAtTornRecordInEarlierSegment() throws IOException {
+        long end;
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            end = journal.append(bytes("kept"));
+            journal.append(new byte[40]);
+            journal.append(bytes("later"));
+            journal.force();
+        }
+        // 模拟崩溃：第一段中第二条记录只写入了一部分，第二段已经落盘
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            file.seek(end + 4);
+            file.writeInt(12345);
+        }
+
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            assertThat(journal.endOffset()).isEqualTo(end);
+            assertThat(segmentFiles()).hasSize(1);
+            assertThat(journal.read(0, 10)).extracting(r -> text(r.payload())).containsExactly("kept");
+
+            journal.append(bytes("next"));
+            journal.force();
+            assertThat(journal.read(0, 10)).extracting(r -> text(r.payload())).containsExactly("kept", "next");
+        }
+    }
+
+    @Test
+    void open_discardsLaterSegmentWhenRecordInEarlierSegmentIsLost() throws IOException {
+        long end;
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            end = journal.append(bytes("kept"));
+            journal.append(new byte[]{1, 2, 3});
+            journal.append(new byte[40]);
+            journal.force();
+        }
+        // 模拟崩溃：第一段中第二条记录整条没有落盘，第三条所在的第二段已经落盘
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            file.seek(end);
+            file.write(new byte[JournalFile.HEADER_SIZE + 3]);
+        }
+
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            assertThat(journal.endOffset()).isEqualTo(end);
+            assertThat(segmentFiles()).hasSize(1);
+            assertThat(journal.read(0, 10)).extracting(r -> text(r.payload())).containsExactly("kept");
+        }
+    }
+
+    @Test
+    void open_startsEmptyJournalAtCheckpoint() throws IOException {
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 1000)) {
+            long end = journal.append(bytes("a"));
+            journal.force();
+
+            assertThat(end).isEqualTo(1000 + JournalFile.HEADER_SIZE + 1);
+            assertThat(journal.read(0, 10)).extracting(JournalFile.Record::offset).containsExactly(1000L);
+        }
+    }
+
+    @Test
+    void deleteSegmentsBefore_keepsSegmentsWithUnappliedRecords() throws IOException {
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            journal.append(new byte[40]);
+            journal.append(new byte[40]);
+            journal.append(new byte[40]);
+            journal.force();
+
+            journal.deleteSegmentsBefore(SEGMENT_SIZE + 10);
+
+            assertThat(segmentFiles()).hasSize(2);
+            assertThat(journal.read(0, 10)).extracting(JournalFile.Record::offset)
+                    .containsExactly((long) SEGMENT_SIZE, 2L * SEGMENT_SIZE);
+        }
+    }
+
+    @Test
+    void append_rejectsRecordLargerThanSegment() throws IOException {
+        try (JournalFile journal = JournalFile.open(directory, SEGMENT_SIZE, 0)) {
+            assertThatThrownBy(() -> journal.append(new byte[SEGMENT_SIZE]))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
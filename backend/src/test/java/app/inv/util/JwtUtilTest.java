@@ -1,10 +1,17 @@
 package app.inv.util;
 
+import app.inv.entity.User;
+import app.inv.security.JwtPrincipal;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Optional;
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class JwtUtilTest {
 
@@ -26,6 +33,42 @@ class JwtUtilTest {
         assertThat(jwtUtil.extractUsername(token)).isEqualTo(username);
         assertThat(jwtUtil.validateToken(token, username)).isTrue();
     }
+
+    @Test
+    void authenticate_shouldReadUserIdAndRolesFromToken() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("test_user");
+        String token = jwtUtil.generateToken(user);
+
+        Optional<JwtPrincipal> first = jwtUtil.authenticate(token);
+        Optional<JwtPrincipal> second = jwtUtil.authenticate(token);
+
+        assertThat(first).isPresent();
+        assertThat(first.get().getUserId()).isEqualTo(user.getId());
+        assertThat(first.get().getUsername()).isEqualTo("test_user");
+        assertThat(first.get().getRoles()).containsExactly("ROLE_USER");
+        // 第二次命中缓存，返回同一对象
+        assertThat(second.get()).isSameAs(first.get());
+    }
+
+    @Test
+    void authenticate_shouldReturnEmptyForTokenWithoutUserId() {
+        String token = jwtUtil.generateToken("legacy_user");
+
+        assertThat(jwtUtil.authenticate(token)).isEmpty();
+    }
+
+    @Test
+    void authenticate_shouldRejectTamperedToken() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("test_user");
+        String token = jwtUtil.generateToken(user);
+
+        assertThatThrownBy(() -> jwtUtil.authenticate(token.substring(0, token.length() - 2) + "xx"))
+                .isInstanceOf(JwtException.class);
+    }
 }
 
 
@@ -0,0 +1,55 @@
+package app.inv.util;
+
+import app.inv.dto.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    @Test
+    void search_shouldMatchPrefixWordStartAndChineseInfix() {
+        PrefixIndex index = new PrefixIndex();
+        index.add("Nike Air Max", Suggestion.Type.ITEM);
+        index.add("蓝色牛仔外套", Suggestion.Type.ITEM);
+        index.add("Nike", Suggestion.Type.BRAND);
+
+        assertThat(index.search("nik", 10)).extracting(Suggestion::getText)
+                .containsExactly("Nike", "Nike Air Max");
+        assertThat(index.search("air", 10)).extracting(Suggestion::getText)
+                .containsExactly("Nike Air Max");
+        assertThat(index.search("牛仔", 10)).extracting(Suggestion::getText)
+                .containsExactly("蓝色牛仔外套");
+        assertThat(index.search("ike", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldRankByUsageCountAndDropTermsWhenCountReachesZero() {
+        PrefixIndex index = new PrefixIndex();
+        index.add("Uniqlo", Suggestion.Type.BRAND);
+        index.add("Under Armour", Suggestion.Type.BRAND);
+        index.add("Under Armour", Suggestion.Type.BRAND);
+
+        List<Suggestion> ranked = index.search("u", 10);
+        assertThat(ranked).extracting(Suggestion::getText).containsExactly("Under Armour", "Uniqlo");
+        assertThat(ranked.get(0).getCount()).isEqualTo(2);
+
+        index.remove("Under Armour", Suggestion.Type.BRAND);
+        index.remove("under armour", Suggestion.Type.BRAND);
+
+        assertThat(index.search("under", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void search_shouldVerifyQueriesLongerThanKeyLength() {
+        PrefixIndex index = new PrefixIndex();
+        index.add("professional camera bag", Suggestion.Type.ITEM);
+        index.add("professional camera strap", Suggestion.Type.ITEM);
+
+        assertThat(index.search("professional camera b", 10)).extracting(Suggestion::getText)
+                .containsExactly("professional camera bag");
+    }
+}
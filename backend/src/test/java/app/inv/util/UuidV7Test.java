@@ -0,0 +1,81 @@
+package app.inv.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UuidV7Test {
+
+    @Test
+    void next_setsVersionVariantAndCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        // 同一毫秒内计数器用尽时时间戳可能略微超前
+        assertThat(UuidV7.timestamp(uuid)).isBetween(before, System.currentTimeMillis() + 1000);
+    }
+
+    @Test
+    void next_isStrictlyIncreasingInByteOrder() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7.next());
+        }
+
+        // PostgreSQL 按字节比较 uuid，等价于把高、低 64 位分别按无符号数比较
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(compareUnsigned(ids.get(i - 1), ids.get(i))).isNegative();
+        }
+    }
+
+    @Test
+    void next_isUniqueAcrossThreads() throws InterruptedException {
+        List<UUID> ids = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(UuidV7.next());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(ids).hasSize(80_000).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void of_isDeterministicAndSortsByTimestamp() {
+        UUID earlier = UuidV7.of(1_700_000_000_000L, 0xFFF, -1L);
+        UUID later = UuidV7.of(1_700_000_000_001L, 0, 0L);
+
+        assertThat(UuidV7.of(1_700_000_000_000L, 0xFFF, -1L)).isEqualTo(earlier);
+        assertThat(UuidV7.timestamp(earlier)).isEqualTo(1_700_000_000_000L);
+        assertThat(later.version()).isEqualTo(7);
+        assertThat(later.variant()).isEqualTo(2);
+        assertThat(compareUnsigned(earlier, later)).isNegative();
+    }
+
+    @Test
+    void timestamp_rejectsOtherVersions() {
+        assertThatThrownBy(() -> UuidV7.timestamp(UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}